@@ -0,0 +1,84 @@
+package com.example.movierating.benchmark;
+
+import com.example.movierating.MovieRatingApplication;
+import com.example.movierating.service.RatingService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Starts the application on its own in-memory H2 database and seeds it with plain JDBC batches,
+ * bypassing the services so that seeding millions of rows stays fast.
+ */
+final class BenchmarkData {
+    private static final int INSERT_BATCH = 10_000;
+
+    private BenchmarkData() {}
+
+    static ConfigurableApplicationContext start(String... extraProperties) {
+        return startWithArgs(new String[0], extraProperties);
+    }
+
+    static ConfigurableApplicationContext startWithArgs(String[] args, String... extraProperties) {
+        String database = "bench-" + UUID.randomUUID();
+        List<String> properties = new ArrayList<>(List.of(
+                "server.port=0",
+                "spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1",
+                "spring.r2dbc.url=r2dbc:h2:mem:///" + database + ";DB_CLOSE_DELAY=-1",
+                "spring.cache.type=none",
+                "movies.admission.rate-limit.enabled=false",
+                "movies.admission.concurrency.enabled=false",
+                "spring.main.banner-mode=off",
+                "logging.level.root=WARN"));
+        properties.addAll(List.of(extraProperties));
+        return new SpringApplicationBuilder(MovieRatingApplication.class)
+                .logStartupInfo(false)
+                .properties(properties.toArray(new String[0]))
+                .run(args);
+    }
+
+    static void seedMovies(JdbcTemplate jdbc, int count) {
+        List<Object[]> rows = new ArrayList<>(INSERT_BATCH);
+        for (int i = 0; i < count; i++) {
+            rows.add(new Object[] {"Movie " + i, 1900 + i % 125});
+            if (rows.size() == INSERT_BATCH) {
+                jdbc.batchUpdate("INSERT INTO movie (title, \"year\") VALUES (?, ?)", rows);
+                rows.clear();
+            }
+        }
+        if (!rows.isEmpty()) jdbc.batchUpdate("INSERT INTO movie (title, \"year\") VALUES (?, ?)", rows);
+    }
+
+    /**
+     * Inserts {@code count} ratings with ids starting at {@code firstId}, spread over movie ids
+     * {@code firstMovieId .. firstMovieId + movieCount - 1}. Returns the next free rating id.
+     */
+    static long seedRatings(JdbcTemplate jdbc, long firstId, long firstMovieId, int movieCount, int count) {
+        SplittableRandom random = new SplittableRandom(firstId);
+        List<Object[]> rows = new ArrayList<>(INSERT_BATCH);
+        long id = firstId;
+        for (int i = 0; i < count; i++) {
+            rows.add(new Object[] {id++, firstMovieId + i % movieCount, random.nextInt(1, 11), "seeded"});
+            if (rows.size() == INSERT_BATCH) {
+                jdbc.batchUpdate("INSERT INTO rating (id, movie_id, score, comment) VALUES (?, ?, ?, ?)", rows);
+                rows.clear();
+            }
+        }
+        if (!rows.isEmpty()) {
+            jdbc.batchUpdate("INSERT INTO rating (id, movie_id, score, comment) VALUES (?, ?, ?, ?)", rows);
+        }
+        return id;
+    }
+
+    /** Moves the rating sequence past the seeded ids and rebuilds everything derived from the rating table. */
+    static void finishSeeding(ConfigurableApplicationContext context, long nextRatingId) {
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        jdbc.execute("ALTER SEQUENCE rating_seq RESTART WITH " + (nextRatingId + 100));
+        context.getBean(RatingService.class).rebuildAggregates();
+    }
+}
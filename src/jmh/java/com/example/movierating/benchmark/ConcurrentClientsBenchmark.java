@@ -0,0 +1,98 @@
+package com.example.movierating.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bursts of {@link #clients} simultaneous average lookups, comparing the default servlet/JPA stack on
+ * platform threads with the {@code virtual-threads} and {@code reactive} (WebFlux/R2DBC) profiles.
+ * Each invocation is one burst; failed or non-200 responses are reported as the {@code failures} counter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ConcurrentClientsBenchmark {
+    private static final int MOVIES = 10_000;
+    private static final int RATINGS = 100_000;
+
+    @Param({"1000", "5000", "10000"})
+    public int clients;
+
+    @Param({"default", "virtual-threads", "reactive"})
+    public String profile;
+
+    private ConfigurableApplicationContext context;
+    private ExecutorService clientExecutor;
+    private HttpClient httpClient;
+    private String baseUrl;
+    private final SplittableRandom random = new SplittableRandom(11);
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Failures {
+        public long failures;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Same connection limits in every mode so the comparison is about threads, not the accept queue.
+        context = BenchmarkData.start(
+                "spring.profiles.active=" + profile,
+                "server.tomcat.max-connections=20000",
+                "server.tomcat.accept-count=1000");
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        BenchmarkData.seedMovies(jdbc, MOVIES);
+        long next = BenchmarkData.seedRatings(jdbc, 1, 1, MOVIES, RATINGS);
+        BenchmarkData.finishSeeding(context, next);
+
+        clientExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(clientExecutor)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        clientExecutor.close();
+        context.close();
+    }
+
+    @Benchmark
+    public void burst(Failures counter) {
+        CompletableFuture<?>[] requests = new CompletableFuture<?>[clients];
+        for (int i = 0; i < clients; i++) {
+            HttpRequest request = HttpRequest.newBuilder(
+                    URI.create(baseUrl + "/api/movies/" + (1L + random.nextInt(MOVIES)) + "/average")).GET().build();
+            requests[i] = httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .handle((response, error) -> {
+                        if (error != null || response.statusCode() != 200) {
+                            synchronized (counter) {
+                                counter.failures++;
+                            }
+                        }
+                        return null;
+                    });
+        }
+        CompletableFuture.allOf(requests).join();
+    }
+}
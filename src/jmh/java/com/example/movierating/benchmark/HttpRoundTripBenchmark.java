@@ -0,0 +1,102 @@
+package com.example.movierating.benchmark;
+
+import com.example.movierating.dto.RatingRequestDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Full request round trips: MockMvc exercises the MVC stack in-process, the HTTP variants go through
+ * Tomcat and a real socket.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HttpRoundTripBenchmark {
+    private static final int MOVIES = 10_000;
+    private static final int RATINGS = 100_000;
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+    private ObjectMapper objectMapper;
+    private HttpClient httpClient;
+    private String baseUrl;
+    private final SplittableRandom random = new SplittableRandom(7);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkData.start();
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        BenchmarkData.seedMovies(jdbc, MOVIES);
+        long next = BenchmarkData.seedRatings(jdbc, 1, 1, MOVIES, RATINGS);
+        BenchmarkData.finishSeeding(context, next);
+
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+        objectMapper = context.getBean(ObjectMapper.class);
+        httpClient = HttpClient.newHttpClient();
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String mockMvcAverage() throws Exception {
+        return mockMvc.perform(get("/api/movies/{id}/average", randomMovie()))
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    @Benchmark
+    public String mockMvcListMovies() throws Exception {
+        return mockMvc.perform(get("/api/movies").param("limit", "100"))
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    @Benchmark
+    public String mockMvcAddRating() throws Exception {
+        RatingRequestDTO rating = new RatingRequestDTO(randomMovie(), random.nextInt(1, 11), "benchmark");
+        return mockMvc.perform(post("/api/ratings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsBytes(rating)))
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    @Benchmark
+    public String httpAverage() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/movies/" + randomMovie() + "/average"))
+                .GET().build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString()).body();
+    }
+
+    @Benchmark
+    public String httpListMovies() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/movies?limit=100")).GET().build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString()).body();
+    }
+
+    private long randomMovie() {
+        return 1L + random.nextInt(MOVIES);
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.movierating.benchmark;
+
+import com.example.movierating.dto.TopMovieDTO;
+import com.example.movierating.service.MovieLeaderboard;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class LeaderboardBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int movies;
+
+    private ConfigurableApplicationContext context;
+    private MovieLeaderboard leaderboard;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkData.start();
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        BenchmarkData.seedMovies(jdbc, movies);
+        long next = BenchmarkData.seedRatings(jdbc, 1, 1, movies, movies * 5);
+        BenchmarkData.finishSeeding(context, next);
+        leaderboard = context.getBean(MovieLeaderboard.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<TopMovieDTO> top100() {
+        return leaderboard.top(null, null, 100);
+    }
+
+    @Benchmark
+    public List<TopMovieDTO> top100InYear() {
+        return leaderboard.top(2000, 3L, 100);
+    }
+}
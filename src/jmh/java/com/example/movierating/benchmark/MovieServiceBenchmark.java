@@ -0,0 +1,54 @@
+package com.example.movierating.benchmark;
+
+import com.example.movierating.dto.CursorPageDTO;
+import com.example.movierating.dto.MovieResponseDTO;
+import com.example.movierating.service.MovieService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class MovieServiceBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int movies;
+
+    private ConfigurableApplicationContext context;
+    private MovieService movieService;
+    private String middleCursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkData.start();
+        BenchmarkData.seedMovies(context.getBean(JdbcTemplate.class), movies);
+        movieService = context.getBean(MovieService.class);
+        middleCursor = String.valueOf(movies / 2);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CursorPageDTO<MovieResponseDTO> listFirstPage() {
+        return movieService.listMovies(null, null);
+    }
+
+    @Benchmark
+    public CursorPageDTO<MovieResponseDTO> listMiddlePage() {
+        return movieService.listMovies(middleCursor, null);
+    }
+
+    @Benchmark
+    public void streamCatalogue(Blackhole blackhole) {
+        movieService.streamMovies(blackhole::consume);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.movierating.benchmark;
+
+import com.example.movierating.entity.Rating;
+import com.example.movierating.repository.RatingRepository;
+import com.example.movierating.service.RatingService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Average lookups for one heavily rated movie inside a table that also holds
+ * {@link #BACKGROUND_RATINGS} ratings of other movies. {@code indexed=false} drops the movie_id index
+ * to reproduce the schema before it existed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RatingReadBenchmark {
+    private static final int BACKGROUND_MOVIES = 10_000;
+    private static final int BACKGROUND_RATINGS = 1_000_000;
+    private static final long HOT_MOVIE_ID = 1L;
+
+    @Param({"1000", "100000", "1000000"})
+    public int ratings;
+
+    @Param({"true", "false"})
+    public boolean indexed;
+
+    private ConfigurableApplicationContext context;
+    private RatingService ratingService;
+    private RatingRepository ratingRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkData.start();
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        BenchmarkData.seedMovies(jdbc, BACKGROUND_MOVIES + 1);
+        long next = BenchmarkData.seedRatings(jdbc, 1, HOT_MOVIE_ID, 1, ratings);
+        next = BenchmarkData.seedRatings(jdbc, next, HOT_MOVIE_ID + 1, BACKGROUND_MOVIES, BACKGROUND_RATINGS);
+        BenchmarkData.finishSeeding(context, next);
+        if (!indexed) jdbc.execute("DROP INDEX idx_rating_movie_id_score");
+        ratingService = context.getBean(RatingService.class);
+        ratingRepository = context.getBean(RatingRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public double averageForMovie() {
+        return ratingService.averageForMovie(HOT_MOVIE_ID);
+    }
+
+    @Benchmark
+    public double averageByLoadingRatings() {
+        return ratingRepository.findByMovieId(HOT_MOVIE_ID).stream()
+                .mapToInt(Rating::getScore)
+                .average()
+                .orElse(0.0);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.movierating.benchmark;
+
+import com.example.movierating.service.RatingStatisticsStore;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads and writes against the in-memory statistics store on its own, without Spring. Run with
+ * {@code -t 1}, {@code -t 4}, ... to see how throughput scales with cores; the {@code mixed} group
+ * puts one writer against three readers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RatingStatisticsStoreBenchmark {
+    @Param({"1000", "1000000"})
+    public int movies;
+
+    private RatingStatisticsStore store;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        store = new RatingStatisticsStore(null);
+        for (long id = 1; id <= movies; id++) store.record(id, 10, 60, 400);
+        System.out.printf("%n%d movies in %.1f MB of slot arrays%n", store.size(), store.footprintBytes() / 1e6);
+    }
+
+    @Benchmark
+    public double average() {
+        return store.average(1L + ThreadLocalRandom.current().nextInt(movies));
+    }
+
+    @Benchmark
+    public void record() {
+        long id = 1L + ThreadLocalRandom.current().nextInt(movies);
+        long count = store.totals(id)[0] + 1;
+        store.record(id, count, count * 6, count * 40);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public double mixedRead() {
+        return average();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public void mixedWrite() {
+        record();
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.movierating.benchmark;
+
+import com.example.movierating.dto.RatingBatchResultDTO;
+import com.example.movierating.dto.RatingRequestDTO;
+import com.example.movierating.dto.RatingResponseDTO;
+import com.example.movierating.service.RatingBatchService;
+import com.example.movierating.service.RatingService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-rating cost of the single-row path against the batch ingester; both report time per rating.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RatingWriteBenchmark {
+    private static final int MOVIES = 10_000;
+    private static final int BATCH_ROWS = 1_000;
+
+    private ConfigurableApplicationContext context;
+    private RatingService ratingService;
+    private RatingBatchService ratingBatchService;
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkData.start();
+        BenchmarkData.seedMovies(context.getBean(JdbcTemplate.class), MOVIES);
+        ratingService = context.getBean(RatingService.class);
+        ratingBatchService = context.getBean(RatingBatchService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public RatingResponseDTO addRating() {
+        return ratingService.addRating(nextRating());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_ROWS)
+    public RatingBatchResultDTO ingestBatch() {
+        List<RatingRequestDTO> rows = new ArrayList<>(BATCH_ROWS);
+        for (int i = 0; i < BATCH_ROWS; i++) rows.add(nextRating());
+        return ratingBatchService.ingest(rows.iterator());
+    }
+
+    private RatingRequestDTO nextRating() {
+        return new RatingRequestDTO(1L + random.nextInt(MOVIES), random.nextInt(1, 11), "benchmark");
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.movierating.benchmark;
+
+import com.example.movierating.dto.CursorPageDTO;
+import com.example.movierating.dto.MovieResponseDTO;
+import com.example.movierating.dto.RatingResponseDTO;
+import com.example.movierating.repository.MovieRepository;
+import com.example.movierating.repository.RatingRepository;
+import com.example.movierating.service.MovieService;
+import com.example.movierating.service.RatingService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Allocation per read: the {@code *AsEntities} benchmarks load managed entities outside a transaction
+ * and copy them into DTOs, the way the read paths used to; the others go through the services, which
+ * select DTOs directly inside read-only transactions. Compare {@code gc.alloc.rate.norm} (bytes per
+ * operation) with the GC profiler:
+ * {@code -Djmh.args="ReadAllocationBenchmark -prof gc"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ReadAllocationBenchmark {
+    private static final int MOVIES = 10_000;
+    private static final long HOT_MOVIE_ID = 1L;
+
+    @Param({"100", "1000", "10000"})
+    public int ratings;
+
+    private ConfigurableApplicationContext context;
+    private MovieService movieService;
+    private RatingService ratingService;
+    private MovieRepository movieRepository;
+    private RatingRepository ratingRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkData.start();
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        BenchmarkData.seedMovies(jdbc, MOVIES);
+        BenchmarkData.finishSeeding(context, BenchmarkData.seedRatings(jdbc, 1, HOT_MOVIE_ID, 1, ratings));
+        movieService = context.getBean(MovieService.class);
+        ratingService = context.getBean(RatingService.class);
+        movieRepository = context.getBean(MovieRepository.class);
+        ratingRepository = context.getBean(RatingRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<RatingResponseDTO> ratingsForMovie() {
+        return ratingService.ratingsForMovie(HOT_MOVIE_ID);
+    }
+
+    @Benchmark
+    public List<RatingResponseDTO> ratingsForMovieAsEntities() {
+        return ratingRepository.findByMovieId(HOT_MOVIE_ID).stream()
+                .map(r -> new RatingResponseDTO(r.getId(), r.getMovieId(), r.getScore(), r.getComment()))
+                .toList();
+    }
+
+    @Benchmark
+    public CursorPageDTO<MovieResponseDTO> listMovies() {
+        return movieService.listMovies(null, null);
+    }
+
+    @Benchmark
+    public List<MovieResponseDTO> listMoviesAsEntities() {
+        return movieRepository.findAll(PageRequest.of(0, 100, Sort.by("id"))).stream()
+                .map(m -> new MovieResponseDTO(m.getId(), m.getTitle(), m.getYear()))
+                .toList();
+    }
+}
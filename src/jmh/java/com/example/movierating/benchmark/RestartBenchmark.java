@@ -0,0 +1,68 @@
+package com.example.movierating.benchmark;
+
+import com.example.movierating.maintenance.DatabaseSnapshot;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Restart-to-ready time with 1M/10M ratings: reopening the file-backed database ({@code file}
+ * profile) versus loading a snapshot into a fresh in-memory database with {@code --restore}. Each
+ * invocation is one application start, timed until the application is ready.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class RestartBenchmark {
+    private static final int MOVIES = 100_000;
+
+    @Param({"1000000", "10000000"})
+    public int ratings;
+
+    private Path dataDir;
+    private Path snapshotFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataDir = Files.createTempDirectory("restart-bench");
+        snapshotFile = dataDir.resolve("movies.snap");
+        try (ConfigurableApplicationContext context = startFileDatabase()) {
+            JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+            BenchmarkData.seedMovies(jdbc, MOVIES);
+            long next = BenchmarkData.seedRatings(jdbc, 1, 1, MOVIES, ratings);
+            BenchmarkData.finishSeeding(context, next);
+            context.getBean(DatabaseSnapshot.class).write(snapshotFile);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dataDir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void reopenFileDatabase() {
+        startFileDatabase().close();
+    }
+
+    @Benchmark
+    public void restoreSnapshot() {
+        BenchmarkData.startWithArgs(new String[] {"--restore=" + snapshotFile}).close();
+    }
+
+    private ConfigurableApplicationContext startFileDatabase() {
+        return BenchmarkData.start("spring.profiles.active=file", "movies.data-dir=" + dataDir);
+    }
+}
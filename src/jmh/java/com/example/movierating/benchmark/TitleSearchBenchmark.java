@@ -0,0 +1,73 @@
+package com.example.movierating.benchmark;
+
+import com.example.movierating.dto.MovieResponseDTO;
+import com.example.movierating.service.MovieTitleIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Title search latency distribution (use the p99 of the sample-time output) over a synthetic
+ * catalogue whose words follow a skewed distribution, without Spring. Queries are random title
+ * prefixes, whole titles, and titles with one character replaced to exercise fuzzy matching.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TitleSearchBenchmark {
+    private static final int VOCABULARY = 20_000;
+
+    @Param({"100000", "1000000"})
+    public int movies;
+
+    private MovieTitleIndex index;
+    private String[] titles;
+    private final SplittableRandom random = new SplittableRandom(5);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom seed = new SplittableRandom(17);
+        String[] vocabulary = new String[VOCABULARY];
+        for (int i = 0; i < VOCABULARY; i++) {
+            StringBuilder word = new StringBuilder();
+            for (int j = 3 + seed.nextInt(7); j > 0; j--) word.append((char) ('a' + seed.nextInt(26)));
+            vocabulary[i] = word.toString();
+        }
+        index = new MovieTitleIndex(null);
+        titles = new String[movies];
+        for (int i = 0; i < movies; i++) {
+            StringBuilder title = new StringBuilder();
+            for (int j = 1 + seed.nextInt(4); j > 0; j--) {
+                // Squaring a uniform draw favours the start of the vocabulary, like common words.
+                double u = seed.nextDouble();
+                if (title.length() > 0) title.append(' ');
+                title.append(vocabulary[(int) (u * u * VOCABULARY)]);
+            }
+            titles[i] = title.toString();
+            index.addAfterCommit(new MovieResponseDTO((long) i + 1, titles[i], 2000));
+        }
+    }
+
+    @Benchmark
+    public List<MovieResponseDTO> prefix() {
+        String title = titles[random.nextInt(titles.length)];
+        return index.search(title.substring(0, Math.min(title.length(), 1 + random.nextInt(6))), 10);
+    }
+
+    @Benchmark
+    public List<MovieResponseDTO> wholeTitle() {
+        return index.search(titles[random.nextInt(titles.length)], 10);
+    }
+
+    @Benchmark
+    public List<MovieResponseDTO> typo() {
+        char[] title = titles[random.nextInt(titles.length)].toCharArray();
+        title[random.nextInt(title.length)] = 'x';
+        return index.search(new String(title), 10);
+    }
+}
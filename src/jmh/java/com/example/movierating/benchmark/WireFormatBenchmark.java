@@ -0,0 +1,80 @@
+package com.example.movierating.benchmark;
+
+import com.example.movierating.config.WireFormatConfig;
+import com.example.movierating.dto.CursorPageDTO;
+import com.example.movierating.dto.MovieResponseDTO;
+import com.example.movierating.dto.RatingResponseDTO;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode and decode cost of a 10k-element listing page in JSON, CBOR and Smile, without Spring.
+ * The encoded size of each payload is printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+    private static final int ELEMENTS = 10_000;
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    @Param({"movies", "ratings"})
+    public String listing;
+
+    private ObjectMapper mapper;
+    private JavaType type;
+    private Object page;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ObjectMapper json = new ObjectMapper();
+        mapper = switch (format) {
+            case "cbor" -> WireFormatConfig.cborMapper(json);
+            case "smile" -> WireFormatConfig.smileMapper(json);
+            default -> json;
+        };
+        SplittableRandom random = new SplittableRandom(11);
+        if (listing.equals("movies")) {
+            List<MovieResponseDTO> movies = new ArrayList<>(ELEMENTS);
+            for (long id = 1; id <= ELEMENTS; id++) {
+                movies.add(new MovieResponseDTO(id, "Movie title " + random.nextInt(1_000_000), 1950 + random.nextInt(75)));
+            }
+            page = new CursorPageDTO<>(movies, String.valueOf(ELEMENTS));
+            type = mapper.getTypeFactory().constructType(new TypeReference<CursorPageDTO<MovieResponseDTO>>() {});
+        } else {
+            List<RatingResponseDTO> ratings = new ArrayList<>(ELEMENTS);
+            for (long id = 1; id <= ELEMENTS; id++) {
+                ratings.add(new RatingResponseDTO(id, 1L + random.nextInt(1000), 1 + random.nextInt(10),
+                        random.nextInt(4) == 0 ? "Comment " + id : null));
+            }
+            page = new CursorPageDTO<>(ratings, String.valueOf(ELEMENTS));
+            type = mapper.getTypeFactory().constructType(new TypeReference<CursorPageDTO<RatingResponseDTO>>() {});
+        }
+        encoded = mapper.writeValueAsBytes(page);
+        System.out.printf("%n%s %s: %d bytes%n", format, listing, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return mapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public Object decode() throws IOException {
+        return mapper.readValue(encoded, type);
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.movierating.admission;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Caps requests in flight at a limit that follows latency, after the gradient algorithm. The baseline
+ * is the lowest request latency seen over the current and the previous {@link #BASELINE_WINDOW_NANOS}
+ * window, which approximates latency without queueing; a moving average of recent latency is compared
+ * against it. Every sample moves the limit towards
+ * {@code limit * min(1, TOLERANCE * baseline / recent) + sqrt(limit)}: while requests stay within
+ * {@value #TOLERANCE} times the baseline the limit grows by the square-root allowance, and once they
+ * slow down further it shrinks with the ratio, which is floored at one half. Unlike a long moving
+ * average, the minimum does not catch up with a sustained slowdown, so the limit stays down until the
+ * window has turned over twice. Growth only happens while at least half the limit is in use, since
+ * latency at low load says nothing about how much more the server can take.
+ *
+ * <p>Admission is a compare-and-set on the in-flight count; samples are folded in under a lock.
+ */
+public class AdaptiveConcurrencyLimiter {
+    static final double SHORT_WEIGHT = 0.1;
+    static final double TOLERANCE = 2.0;
+    static final long BASELINE_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(60);
+    static final double SMOOTHING = 0.2;
+    static final double MIN_GRADIENT = 0.5;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final LongSupplier nanoClock;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+    private double estimatedLimit;
+    private double shortRttNanos;
+    private long windowStart;
+    private long windowMinRttNanos = Long.MAX_VALUE;
+    private long previousMinRttNanos = Long.MAX_VALUE;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        this(initialLimit, minLimit, maxLimit, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, LongSupplier nanoClock) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.estimatedLimit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+        this.limit = (int) estimatedLimit;
+        this.nanoClock = nanoClock;
+        this.windowStart = nanoClock.getAsLong();
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) return false;
+            if (inFlight.compareAndSet(current, current + 1)) return true;
+        }
+    }
+
+    /** Releases a permit and feeds the request's latency into the limit. */
+    public void release(long rttNanos) {
+        int current = inFlight.getAndDecrement();
+        sample(Math.max(1, rttNanos), current);
+    }
+
+    /** Releases a permit without a latency sample, for requests whose latency is not comparable. */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void sample(long rttNanos, int inFlightAtCompletion) {
+        long now = nanoClock.getAsLong();
+        if (now - windowStart >= BASELINE_WINDOW_NANOS) {
+            previousMinRttNanos = windowMinRttNanos;
+            windowMinRttNanos = Long.MAX_VALUE;
+            windowStart = now;
+        }
+        windowMinRttNanos = Math.min(windowMinRttNanos, rttNanos);
+        long baselineNanos = Math.min(windowMinRttNanos, previousMinRttNanos);
+        shortRttNanos = shortRttNanos == 0 ? rttNanos : shortRttNanos + (rttNanos - shortRttNanos) * SHORT_WEIGHT;
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, TOLERANCE * baselineNanos / shortRttNanos));
+        double target = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        if (target > estimatedLimit && inFlightAtCompletion < estimatedLimit / 2) return;
+        double next = estimatedLimit * (1 - SMOOTHING) + target * SMOOTHING;
+        estimatedLimit = Math.min(maxLimit, Math.max(minLimit, next));
+        limit = (int) estimatedLimit;
+    }
+}
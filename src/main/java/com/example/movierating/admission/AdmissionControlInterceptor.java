@@ -0,0 +1,132 @@
+package com.example.movierating.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control in front of the API. Writes ({@code POST /api/movies}, {@code /api/ratings} and
+ * {@code /api/ratings/batch}) first take a token from the caller's bucket, keyed by the
+ * {@value #CLIENT_HEADER} header or else the remote address. Every request then needs a permit from
+ * the concurrency limiter, which is returned with the request's latency when it completes. Either
+ * refusal is a 429 with {@code Retry-After}, counted in {@value #REJECTED} by reason.
+ *
+ * <p>Streaming responses give their permit back once the handler returns, without a latency sample:
+ * their duration depends on the client and would drag the limit down.
+ */
+public class AdmissionControlInterceptor implements AsyncHandlerInterceptor {
+    public static final String CLIENT_HEADER = "X-API-Key";
+    static final String REJECTED = "movies.admission.rejected";
+    static final String RATE_LIMIT = "rate_limit";
+    static final String CONCURRENCY = "concurrency";
+    static final Set<String> WRITE_PATTERNS = Set.of("/api/movies", "/api/ratings", "/api/ratings/batch");
+
+    private static final String STARTED = AdmissionControlInterceptor.class.getName() + ".started";
+
+    private final ClientRateLimiter rateLimiter;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final Counter rateLimited;
+    private final Counter overCapacity;
+
+    /** Either limiter may be null to turn it off. */
+    public AdmissionControlInterceptor(ClientRateLimiter rateLimiter, AdaptiveConcurrencyLimiter concurrencyLimiter,
+                                       MeterRegistry registry) {
+        this.rateLimiter = rateLimiter;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.rateLimited = rejections(registry, RATE_LIMIT);
+        this.overCapacity = rejections(registry, CONCURRENCY);
+        if (rateLimiter != null) {
+            Gauge.builder("movies.admission.rate.limit.clients", rateLimiter, ClientRateLimiter::clients)
+                    .description("Clients with a token bucket")
+                    .register(registry);
+        }
+        if (concurrencyLimiter != null) {
+            Gauge.builder("movies.admission.concurrency.limit", concurrencyLimiter, AdaptiveConcurrencyLimiter::limit)
+                    .description("Current adaptive limit on requests in flight")
+                    .register(registry);
+            Gauge.builder("movies.admission.concurrency.in.flight", concurrencyLimiter, AdaptiveConcurrencyLimiter::inFlight)
+                    .description("Requests holding a concurrency permit")
+                    .register(registry);
+        }
+    }
+
+    private static Counter rejections(MeterRegistry registry, String reason) {
+        return Counter.builder(REJECTED)
+                .tag("reason", reason)
+                .description("Requests refused with 429 by admission control")
+                .register(registry);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws IOException {
+        if (request.getDispatcherType() == DispatcherType.ASYNC) return true;
+        if (rateLimiter != null && isWrite(request)) {
+            long waitNanos = rateLimiter.tryAcquire(clientKey(request));
+            if (waitNanos > 0) {
+                rateLimited.increment();
+                reject(response, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1),
+                        "Rate limit exceeded for this client");
+                return false;
+            }
+        }
+        if (concurrencyLimiter != null) {
+            if (!concurrencyLimiter.tryAcquire()) {
+                overCapacity.increment();
+                reject(response, 1, "Server is at capacity, retry shortly");
+                return false;
+            }
+            request.setAttribute(STARTED, System.nanoTime());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        if (request.getAttribute(STARTED) == null) return;
+        request.removeAttribute(STARTED);
+        concurrencyLimiter.release();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        Object started = request.getAttribute(STARTED);
+        if (started == null) return;
+        request.removeAttribute(STARTED);
+        concurrencyLimiter.release(System.nanoTime() - (Long) started);
+    }
+
+    static boolean isWrite(HttpServletRequest request) {
+        if (!"POST".equals(request.getMethod())) return false;
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null && WRITE_PATTERNS.contains(pattern.toString());
+    }
+
+    static String clientKey(HttpServletRequest request) {
+        String apiKey = request.getHeader(CLIENT_HEADER);
+        if (apiKey != null && !apiKey.isBlank()) return "key:" + apiKey;
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private static void reject(HttpServletResponse response, long retryAfterSeconds, String message)
+            throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, retryAfterSeconds)));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\":\"" + message + "\"}");
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.movierating.admission;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * A token bucket per client, each held as a single theoretical arrival time (the generic cell rate
+ * algorithm): a request is admitted while that time is less than {@code burst} intervals ahead of
+ * now, and admitting it moves the time one interval further. Buckets are {@link AtomicLong}s updated
+ * by compare-and-set, so admission never takes a lock. They live in a Caffeine cache bounded to
+ * {@code maxClients}, which evicts rarely and least recently used buckets first, and which drops
+ * buckets idle for {@code idle}; an idle bucket has refilled by then, so dropping it loses nothing.
+ */
+public class ClientRateLimiter {
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final Cache<String, AtomicLong> buckets;
+    private final LongSupplier nanoClock;
+
+    public ClientRateLimiter(double permitsPerSecond, int burst, long maxClients, Duration idle) {
+        this(permitsPerSecond, burst, maxClients, idle, System::nanoTime);
+    }
+
+    ClientRateLimiter(double permitsPerSecond, int burst, long maxClients, Duration idle, LongSupplier nanoClock) {
+        if (permitsPerSecond <= 0) throw new IllegalArgumentException("permitsPerSecond must be positive");
+        this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+        this.toleranceNanos = intervalNanos * (Math.max(1, burst) - 1L);
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(idle)
+                .ticker(nanoClock::getAsLong)
+                .build();
+        this.nanoClock = nanoClock;
+    }
+
+    /** Takes a token for {@code client}. Returns 0 when admitted, otherwise nanoseconds until a token is free. */
+    public long tryAcquire(String client) {
+        long now = nanoClock.getAsLong();
+        AtomicLong bucket = buckets.get(client, k -> new AtomicLong(now));
+        while (true) {
+            long arrival = bucket.get();
+            long start = arrival - now < 0 ? now : arrival;
+            long wait = start - now - toleranceNanos;
+            if (wait > 0) return wait;
+            if (bucket.compareAndSet(arrival, start + intervalNanos)) return 0;
+        }
+    }
+
+    public long clients() {
+        return buckets.estimatedSize();
+    }
+
+    void cleanUp() {
+        buckets.cleanUp();
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.movierating.config;
+
+import com.example.movierating.admission.AdaptiveConcurrencyLimiter;
+import com.example.movierating.admission.AdmissionControlInterceptor;
+import com.example.movierating.admission.ClientRateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+/**
+ * Rate limiting and concurrency limiting for {@code /api/**}, each switched by its
+ * {@code movies.admission.*.enabled} property. The interceptor runs before all others, so refused
+ * requests cost no further work.
+ */
+@Configuration
+public class AdmissionConfig {
+
+    @Bean
+    public AdmissionControlInterceptor admissionControlInterceptor(
+            MeterRegistry registry,
+            @Value("${movies.admission.rate-limit.enabled:true}") boolean rateLimitEnabled,
+            @Value("${movies.admission.rate-limit.permits-per-second:100}") double permitsPerSecond,
+            @Value("${movies.admission.rate-limit.burst:500}") int burst,
+            @Value("${movies.admission.rate-limit.max-clients:100000}") long maxClients,
+            @Value("${movies.admission.rate-limit.idle-seconds:300}") long idleSeconds,
+            @Value("${movies.admission.concurrency.enabled:true}") boolean concurrencyEnabled,
+            @Value("${movies.admission.concurrency.initial-limit:50}") int initialLimit,
+            @Value("${movies.admission.concurrency.min-limit:10}") int minLimit,
+            @Value("${movies.admission.concurrency.max-limit:400}") int maxLimit) {
+        ClientRateLimiter rateLimiter = rateLimitEnabled
+                ? new ClientRateLimiter(permitsPerSecond, burst, maxClients, Duration.ofSeconds(idleSeconds))
+                : null;
+        AdaptiveConcurrencyLimiter concurrencyLimiter = concurrencyEnabled
+                ? new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit)
+                : null;
+        return new AdmissionControlInterceptor(rateLimiter, concurrencyLimiter, registry);
+    }
+
+    @Bean
+    public WebMvcConfigurer admissionControl(AdmissionControlInterceptor interceptor) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(interceptor).addPathPatterns("/api/**").order(Ordered.HIGHEST_PRECEDENCE);
+            }
+        };
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.movierating.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Caches sit outside the transaction interceptor, so evictions run after the write has committed.
+ */
+@Configuration
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+public class CacheConfig {
+    public static final String MOVIE_PAGES = "moviePages";
+    public static final String MOVIE_AVERAGES = "movieAverages";
+
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> movieCaches(
+            @Value("${movies.cache.pages.spec}") String pagesSpec,
+            @Value("${movies.cache.averages.spec}") String averagesSpec) {
+        return manager -> {
+            manager.registerCustomCache(MOVIE_PAGES, Caffeine.from(pagesSpec).build());
+            manager.registerCustomCache(MOVIE_AVERAGES, Caffeine.from(averagesSpec).build());
+        };
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.movierating.config;
+
+import com.example.movierating.metrics.RequestDataAccessMetrics;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Service timers come from {@code @Timed} through {@link TimedAspect}; Hikari, Hibernate and
+ * {@code http.server.requests} meters are auto-configured and scraped from {@code /actuator/prometheus}.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    @Bean
+    public RequestDataAccessMetrics requestDataAccessMetrics(MeterRegistry registry) {
+        return new RequestDataAccessMetrics(registry);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer requestDataAccessHibernateCustomizer(RequestDataAccessMetrics metrics) {
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, metrics);
+            properties.put(AvailableSettings.INTERCEPTOR, metrics);
+        };
+    }
+
+    @Bean
+    public WebMvcConfigurer requestDataAccessInterceptor(RequestDataAccessMetrics metrics) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(metrics);
+            }
+        };
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.movierating.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Binary Jackson formats for service-to-service callers, picked by {@code Accept} and {@code Content-Type}.
+ * JSON stays the default. The CBOR and Smile mappers are copies of the application {@link ObjectMapper},
+ * so they serialize DTOs exactly as JSON does.
+ */
+@Configuration
+public class WireFormatConfig {
+    public static final String SMILE_VALUE = "application/x-jackson-smile";
+    public static final MediaType SMILE = MediaType.valueOf(SMILE_VALUE);
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(ObjectMapper objectMapper) {
+        return new MappingJackson2CborHttpMessageConverter(cborMapper(objectMapper));
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(ObjectMapper objectMapper) {
+        return new MappingJackson2SmileHttpMessageConverter(smileMapper(objectMapper));
+    }
+
+    public static ObjectMapper cborMapper(ObjectMapper json) {
+        return json.copyWith(new CBORFactory());
+    }
+
+    public static ObjectMapper smileMapper(ObjectMapper json) {
+        return json.copyWith(new SmileFactory());
+    }
+}
@@ -1,55 +1,280 @@
 package com.example.movierating.controller;
 
+import com.example.movierating.config.WireFormatConfig;
+import com.example.movierating.dto.CursorPageDTO;
+import com.example.movierating.dto.MovieAverageDTO;
 import com.example.movierating.dto.MovieRequestDTO;
 import com.example.movierating.dto.MovieResponseDTO;
+import com.example.movierating.dto.MovieStatsDTO;
+import com.example.movierating.dto.RatingBatchResultDTO;
 import com.example.movierating.dto.RatingRequestDTO;
 import com.example.movierating.dto.RatingResponseDTO;
+import com.example.movierating.dto.TopMovieDTO;
+import com.example.movierating.dto.TrendingMovieDTO;
+import com.example.movierating.exception.InvalidCursorException;
+import com.example.movierating.exception.InvalidRatingException;
+import com.example.movierating.exception.InvalidSortException;
+import com.example.movierating.exception.InvalidWindowException;
 import com.example.movierating.exception.MovieAlreadyExistsException;
+import com.example.movierating.exception.RatingBufferFullException;
+import com.example.movierating.exception.TooManyIdsException;
+import com.example.movierating.reactive.ReactiveConfig;
+import com.example.movierating.service.ContentVersions;
+import com.example.movierating.service.MovieLeaderboard;
 import com.example.movierating.service.MovieService;
+import com.example.movierating.service.MovieTitleIndex;
+import com.example.movierating.service.RatingBatchService;
 import com.example.movierating.service.RatingService;
+import com.example.movierating.service.RatingWriteBehindBuffer;
+import com.example.movierating.service.TrendingWindows;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @RestController
+@Profile("!" + ReactiveConfig.PROFILE)
 @RequestMapping("/api")
 public class MovieController {
     private final MovieService movieService;
     private final RatingService ratingService;
+    private final RatingBatchService ratingBatchService;
+    private final MovieLeaderboard movieLeaderboard;
+    private final MovieTitleIndex movieTitleIndex;
+    private final TrendingWindows trendingWindows;
+    private final RatingWriteBehindBuffer ratingWriteBehindBuffer;
+    private final ObjectMapper objectMapper;
+    private final ObjectMapper cborMapper;
+    private final ObjectMapper smileMapper;
+    private final ContentVersions contentVersions;
+    private final CacheControl listingCacheControl;
+    private final CacheControl averageCacheControl;
 
-    public MovieController(MovieService movieService, RatingService ratingService) {
+    public MovieController(MovieService movieService, RatingService ratingService,
+                           RatingBatchService ratingBatchService, MovieLeaderboard movieLeaderboard,
+                           MovieTitleIndex movieTitleIndex, TrendingWindows trendingWindows,
+                           RatingWriteBehindBuffer ratingWriteBehindBuffer,
+                           ObjectMapper objectMapper, ContentVersions contentVersions,
+                           @Value("${movies.http.listing.max-age-seconds:5}") long listingMaxAge,
+                           @Value("${movies.http.average.max-age-seconds:5}") long averageMaxAge) {
         this.movieService = movieService;
         this.ratingService = ratingService;
+        this.ratingBatchService = ratingBatchService;
+        this.movieLeaderboard = movieLeaderboard;
+        this.movieTitleIndex = movieTitleIndex;
+        this.trendingWindows = trendingWindows;
+        this.ratingWriteBehindBuffer = ratingWriteBehindBuffer;
+        this.objectMapper = objectMapper;
+        this.cborMapper = WireFormatConfig.cborMapper(objectMapper);
+        this.smileMapper = WireFormatConfig.smileMapper(objectMapper);
+        this.contentVersions = contentVersions;
+        this.listingCacheControl = CacheControl.maxAge(Math.max(0, listingMaxAge), TimeUnit.SECONDS).cachePublic();
+        this.averageCacheControl = CacheControl.maxAge(Math.max(0, averageMaxAge), TimeUnit.SECONDS).cachePublic();
     }
 
     @PostMapping("/movies")
-    public ResponseEntity<?> createMovie(@RequestBody MovieRequestDTO dto) {
+    public ResponseEntity<?> createMovie(@RequestBody MovieRequestDTO dto,
+                                         @RequestParam(required = false) String ifExists) {
+        if ("return".equals(ifExists)) {
+            return ResponseEntity.ok(movieService.createOrGetMovie(dto));
+        }
+        if (ifExists != null && !"conflict".equals(ifExists)) {
+            return error(HttpStatus.BAD_REQUEST, String.format("Invalid ifExists '%s'", ifExists));
+        }
         try {
             MovieResponseDTO result = movieService.createMovie(dto);
             return ResponseEntity.ok(result);
         } catch (MovieAlreadyExistsException e) {
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+            return error(HttpStatus.CONFLICT, e.getMessage());
         }
     }
 
     @GetMapping("/movies")
-    public ResponseEntity<List<MovieResponseDTO>> listMovies() {
-        return ResponseEntity.ok(movieService.listMovies());
+    public ResponseEntity<?> listMovies(@RequestParam(required = false) String cursor,
+                                        @RequestParam(required = false) Integer limit,
+                                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                        String ifNoneMatch) {
+        String etag = contentVersions.catalogueTag();
+        if (ContentVersions.matches(ifNoneMatch, etag)) {
+            return notModified(etag, listingCacheControl);
+        }
+        try {
+            CursorPageDTO<MovieResponseDTO> page = movieService.listMovies(cursor, limit);
+            return ResponseEntity.ok().eTag(etag).cacheControl(listingCacheControl).varyBy(HttpHeaders.ACCEPT)
+                    .body(page);
+        } catch (InvalidCursorException e) {
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @GetMapping(value = "/movies/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamMovies() {
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.setRootValueSeparator(null);
+                movieService.streamMovies(movie -> writeLine(generator, movie));
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @GetMapping("/movies/top")
+    public ResponseEntity<List<TopMovieDTO>> topMovies(@RequestParam(required = false) Integer year,
+                                                       @RequestParam(required = false) Long minVotes,
+                                                       @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(movieLeaderboard.top(year, minVotes, limit));
+    }
+
+    @GetMapping("/movies/trending")
+    public ResponseEntity<?> trendingMovies(@RequestParam(required = false) String window,
+                                            @RequestParam(required = false) Integer limit) {
+        try {
+            List<TrendingMovieDTO> movies = trendingWindows.trending(window, limit);
+            return ResponseEntity.ok(movies);
+        } catch (InvalidWindowException e) {
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @GetMapping("/movies/search")
+    public ResponseEntity<List<MovieResponseDTO>> searchMovies(@RequestParam String q,
+                                                               @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(movieTitleIndex.search(q, limit));
     }
 
     @PostMapping("/ratings")
-    public ResponseEntity<RatingResponseDTO> addRating(@RequestBody RatingRequestDTO dto) {
-        return ResponseEntity.ok(ratingService.addRating(dto));
+    public ResponseEntity<?> addRating(@RequestBody RatingRequestDTO dto) {
+        try {
+            if (!ratingWriteBehindBuffer.isEnabled()) {
+                return ResponseEntity.ok(ratingService.addRating(dto));
+            }
+            ratingWriteBehindBuffer.submit(dto);
+            return ResponseEntity.accepted()
+                    .body(new RatingResponseDTO(null, dto.getMovieId(), dto.getScore(), dto.getComment()));
+        } catch (InvalidRatingException e) {
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (RatingBufferFullException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping(value = "/ratings/batch", consumes = {MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, WireFormatConfig.SMILE_VALUE})
+    public ResponseEntity<?> addRatingsBatch(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                             InputStream body) throws IOException {
+        ObjectMapper reader = mapperFor(MediaType.parseMediaType(contentType));
+        try (MappingIterator<RatingRequestDTO> rows = reader.readerFor(RatingRequestDTO.class).readValues(body)) {
+            RatingBatchResultDTO result = ratingBatchService.ingest(rows);
+            // A body that breaks off part-way still reports the rows written before the break.
+            return result.getError() == null ? ResponseEntity.ok(result) : ResponseEntity.badRequest().body(result);
+        } catch (JsonProcessingException e) {
+            return error(HttpStatus.BAD_REQUEST, e.getOriginalMessage());
+        }
     }
 
     @GetMapping("/movies/{id}/average")
-    public ResponseEntity<Double> average(@PathVariable Long id) {
-        return ResponseEntity.ok(ratingService.averageForMovie(id));
+    public ResponseEntity<Double> average(@PathVariable Long id,
+                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                          String ifNoneMatch) {
+        String etag = contentVersions.movieTag(id);
+        if (ContentVersions.matches(ifNoneMatch, etag)) {
+            return notModified(etag, averageCacheControl);
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(averageCacheControl).varyBy(HttpHeaders.ACCEPT)
+                .body(ratingService.averageForMovie(id));
+    }
+
+    @GetMapping("/movies/{id}/stats")
+    public ResponseEntity<MovieStatsDTO> stats(@PathVariable Long id) {
+        return ResponseEntity.ok(ratingService.statsForMovie(id));
+    }
+
+    @GetMapping("/movies/{id}/ratings")
+    public ResponseEntity<?> listRatings(@PathVariable Long id,
+                                         @RequestParam(required = false) String cursor,
+                                         @RequestParam(required = false) Integer limit,
+                                         @RequestParam(required = false) String sort) {
+        try {
+            CursorPageDTO<RatingResponseDTO> page = ratingService.listRatings(id, cursor, limit, sort);
+            return ResponseEntity.ok(page);
+        } catch (InvalidCursorException | InvalidSortException e) {
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @GetMapping(value = "/movies/{id}/ratings/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamRatings(@PathVariable Long id) {
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.setRootValueSeparator(null);
+                ratingService.streamRatings(id, rating -> writeLine(generator, rating));
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @GetMapping("/movies/averages")
+    public ResponseEntity<?> averages(@RequestParam List<Long> ids) {
+        return averagesFor(ids);
+    }
+
+    @PostMapping("/movies/averages")
+    public ResponseEntity<?> averagesForIds(@RequestBody List<Long> ids) {
+        return averagesFor(ids);
+    }
+
+    private ResponseEntity<?> averagesFor(List<Long> ids) {
+        try {
+            Map<Long, MovieAverageDTO> averages = ratingService.averagesForMovies(ids);
+            return ResponseEntity.ok(averages);
+        } catch (TooManyIdsException e) {
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /** Answered from the version counters alone: no repository call and no serialization. */
+    private static <T> ResponseEntity<T> notModified(String etag, CacheControl cacheControl) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT).build();
+    }
+
+    private ObjectMapper mapperFor(MediaType contentType) {
+        if (MediaType.APPLICATION_CBOR.includes(contentType)) return cborMapper;
+        if (WireFormatConfig.SMILE.includes(contentType)) return smileMapper;
+        return objectMapper;
+    }
+
+    private static void writeLine(JsonGenerator generator, Object value) {
+        try {
+            generator.writeObject(value);
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static ResponseEntity<Map<String, String>> error(HttpStatus status, String message) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", message);
+        return ResponseEntity.status(status).body(error);
     }
 }
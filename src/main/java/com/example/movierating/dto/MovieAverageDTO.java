@@ -0,0 +1,22 @@
+package com.example.movierating.dto;
+
+public class MovieAverageDTO {
+    private Long movieId;
+    private double average;
+    private long count;
+
+    public MovieAverageDTO() {}
+
+    public MovieAverageDTO(Long movieId, double average, long count) {
+        this.movieId = movieId;
+        this.average = average;
+        this.count = count;
+    }
+
+    public Long getMovieId() { return movieId; }
+    public void setMovieId(Long movieId) { this.movieId = movieId; }
+    public double getAverage() { return average; }
+    public void setAverage(double average) { this.average = average; }
+    public long getCount() { return count; }
+    public void setCount(long count) { this.count = count; }
+}
@@ -0,0 +1,41 @@
+package com.example.movierating.dto;
+
+import java.util.Map;
+
+public class MovieStatsDTO {
+    private Long movieId;
+    private long count;
+    private double mean;
+    private double standardDeviation;
+    private Integer median;
+    private Integer p90;
+    private Map<Integer, Long> histogram;
+
+    public MovieStatsDTO() {}
+
+    public MovieStatsDTO(Long movieId, long count, double mean, double standardDeviation,
+                         Integer median, Integer p90, Map<Integer, Long> histogram) {
+        this.movieId = movieId;
+        this.count = count;
+        this.mean = mean;
+        this.standardDeviation = standardDeviation;
+        this.median = median;
+        this.p90 = p90;
+        this.histogram = histogram;
+    }
+
+    public Long getMovieId() { return movieId; }
+    public void setMovieId(Long movieId) { this.movieId = movieId; }
+    public long getCount() { return count; }
+    public void setCount(long count) { this.count = count; }
+    public double getMean() { return mean; }
+    public void setMean(double mean) { this.mean = mean; }
+    public double getStandardDeviation() { return standardDeviation; }
+    public void setStandardDeviation(double standardDeviation) { this.standardDeviation = standardDeviation; }
+    public Integer getMedian() { return median; }
+    public void setMedian(Integer median) { this.median = median; }
+    public Integer getP90() { return p90; }
+    public void setP90(Integer p90) { this.p90 = p90; }
+    public Map<Integer, Long> getHistogram() { return histogram; }
+    public void setHistogram(Map<Integer, Long> histogram) { this.histogram = histogram; }
+}
@@ -0,0 +1,31 @@
+package com.example.movierating.dto;
+
+import java.util.List;
+
+public class RatingBatchResultDTO {
+    private int created;
+    private int rejected;
+    private int failed;
+    private List<RatingBatchRowDTO> rows;
+    private String error;
+
+    public RatingBatchResultDTO() {}
+
+    public RatingBatchResultDTO(int created, int rejected, int failed, List<RatingBatchRowDTO> rows) {
+        this.created = created;
+        this.rejected = rejected;
+        this.failed = failed;
+        this.rows = rows;
+    }
+
+    public int getCreated() { return created; }
+    public void setCreated(int created) { this.created = created; }
+    public int getRejected() { return rejected; }
+    public void setRejected(int rejected) { this.rejected = rejected; }
+    public int getFailed() { return failed; }
+    public void setFailed(int failed) { this.failed = failed; }
+    public List<RatingBatchRowDTO> getRows() { return rows; }
+    public void setRows(List<RatingBatchRowDTO> rows) { this.rows = rows; }
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
@@ -0,0 +1,30 @@
+package com.example.movierating.dto;
+
+public class RatingBatchRowDTO {
+    public static final String CREATED = "CREATED";
+    public static final String REJECTED = "REJECTED";
+    public static final String FAILED = "FAILED";
+
+    private int index;
+    private Long id;
+    private String status;
+    private String error;
+
+    public RatingBatchRowDTO() {}
+
+    public RatingBatchRowDTO(int index, Long id, String status, String error) {
+        this.index = index;
+        this.id = id;
+        this.status = status;
+        this.error = error;
+    }
+
+    public int getIndex() { return index; }
+    public void setIndex(int index) { this.index = index; }
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
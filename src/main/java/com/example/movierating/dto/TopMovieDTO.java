@@ -0,0 +1,34 @@
+package com.example.movierating.dto;
+
+public class TopMovieDTO {
+    private Long id;
+    private String title;
+    private Integer year;
+    private long ratingCount;
+    private double average;
+    private double weightedAverage;
+
+    public TopMovieDTO() {}
+
+    public TopMovieDTO(Long id, String title, Integer year, long ratingCount, double average, double weightedAverage) {
+        this.id = id;
+        this.title = title;
+        this.year = year;
+        this.ratingCount = ratingCount;
+        this.average = average;
+        this.weightedAverage = weightedAverage;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+    public Integer getYear() { return year; }
+    public void setYear(Integer year) { this.year = year; }
+    public long getRatingCount() { return ratingCount; }
+    public void setRatingCount(long ratingCount) { this.ratingCount = ratingCount; }
+    public double getAverage() { return average; }
+    public void setAverage(double average) { this.average = average; }
+    public double getWeightedAverage() { return weightedAverage; }
+    public void setWeightedAverage(double weightedAverage) { this.weightedAverage = weightedAverage; }
+}
@@ -0,0 +1,26 @@
+package com.example.movierating.dto;
+
+public class TrendingMovieDTO {
+    private Long id;
+    private String title;
+    private Integer year;
+    private long ratingCount;
+
+    public TrendingMovieDTO() {}
+
+    public TrendingMovieDTO(Long id, String title, Integer year, long ratingCount) {
+        this.id = id;
+        this.title = title;
+        this.year = year;
+        this.ratingCount = ratingCount;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+    public Integer getYear() { return year; }
+    public void setYear(Integer year) { this.year = year; }
+    public long getRatingCount() { return ratingCount; }
+    public void setRatingCount(long ratingCount) { this.ratingCount = ratingCount; }
+}
@@ -1,10 +1,10 @@
 package com.example.movierating.entity;
 
-import javax.persistence.*;
+import jakarta.persistence.*;
 import java.util.Objects;
 
 @Entity
-@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"title", "year"}))
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_movie_title_year", columnNames = {"title", "year"}))
 public class Movie {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
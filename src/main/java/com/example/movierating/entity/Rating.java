@@ -1,16 +1,27 @@
 package com.example.movierating.entity;
 
-import javax.persistence.*;
+import jakarta.persistence.*;
+import java.time.Instant;
 import java.util.Objects;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_rating_movie_id_score", columnList = "movieId, score"),
+        @Index(name = "idx_rating_movie_id_id", columnList = "movieId, id"),
+        @Index(name = "idx_rating_created_at", columnList = "createdAt")
+})
 public class Rating {
+    public static final int MIN_SCORE = 1;
+    public static final int MAX_SCORE = 10;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "rating_seq")
+    @SequenceGenerator(name = "rating_seq", sequenceName = "rating_seq", allocationSize = 50)
     private Long id;
     private Long movieId;
     private int score;
     private String comment;
+    private Instant createdAt;
 
     public Rating() {}
 
@@ -18,6 +29,7 @@ public class Rating {
         this.movieId = movieId;
         this.score = score;
         this.comment = comment;
+        this.createdAt = Instant.now();
     }
 
     public Long getId() { return id; }
@@ -28,6 +40,8 @@ public class Rating {
     public void setScore(int score) { this.score = score; }
     public String getComment() { return comment; }
     public void setComment(String comment) { this.comment = comment; }
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
 
     @Override
     public boolean equals(Object o) {
@@ -0,0 +1,47 @@
+package com.example.movierating.entity;
+
+import jakarta.persistence.*;
+import java.util.Objects;
+
+@Entity
+@Table(name = "rating_aggregate")
+public class RatingAggregate {
+    @Id
+    private Long movieId;
+    private long ratingCount;
+    private long scoreSum;
+    private long scoreSquareSum;
+
+    public RatingAggregate() {}
+
+    public RatingAggregate(Long movieId, long ratingCount, long scoreSum, long scoreSquareSum) {
+        this.movieId = movieId;
+        this.ratingCount = ratingCount;
+        this.scoreSum = scoreSum;
+        this.scoreSquareSum = scoreSquareSum;
+    }
+
+    public double getAverage() {
+        return ratingCount == 0 ? 0.0 : (double) scoreSum / ratingCount;
+    }
+
+    public Long getMovieId() { return movieId; }
+    public void setMovieId(Long movieId) { this.movieId = movieId; }
+    public long getRatingCount() { return ratingCount; }
+    public void setRatingCount(long ratingCount) { this.ratingCount = ratingCount; }
+    public long getScoreSum() { return scoreSum; }
+    public void setScoreSum(long scoreSum) { this.scoreSum = scoreSum; }
+    public long getScoreSquareSum() { return scoreSquareSum; }
+    public void setScoreSquareSum(long scoreSquareSum) { this.scoreSquareSum = scoreSquareSum; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RatingAggregate that = (RatingAggregate) o;
+        return Objects.equals(movieId, that.movieId);
+    }
+
+    @Override
+    public int hashCode() { return Objects.hash(movieId); }
+}
@@ -0,0 +1,7 @@
+package com.example.movierating.exception;
+
+public class InvalidRatingException extends RuntimeException {
+    public InvalidRatingException(String message) {
+        super(message);
+    }
+}
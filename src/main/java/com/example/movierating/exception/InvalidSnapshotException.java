@@ -0,0 +1,7 @@
+package com.example.movierating.exception;
+
+public class InvalidSnapshotException extends RuntimeException {
+    public InvalidSnapshotException(String message) {
+        super(message);
+    }
+}
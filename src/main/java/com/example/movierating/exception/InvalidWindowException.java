@@ -0,0 +1,7 @@
+package com.example.movierating.exception;
+
+public class InvalidWindowException extends RuntimeException {
+    public InvalidWindowException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.movierating.exception;
+
+public class RatingBufferFullException extends RuntimeException {
+    public RatingBufferFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.movierating.exception;
+
+public class TooManyIdsException extends RuntimeException {
+    public TooManyIdsException(String message) {
+        super(message);
+    }
+}
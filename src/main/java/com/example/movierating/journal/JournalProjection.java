@@ -0,0 +1,24 @@
+package com.example.movierating.journal;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * A view derived from the rating journal. Every bean implementing this is fed by
+ * {@link JournalProjector} from a single thread, in offset order, and checkpointed with the offset it
+ * has reached, so a restart resumes from the checkpoint instead of replaying the whole journal.
+ */
+public interface JournalProjection {
+    /** Stable name; the checkpoint file is named after it. */
+    String name();
+
+    void apply(long movieId, int score);
+
+    /** Drops all state before a replay from offset zero. */
+    void reset();
+
+    void writeState(DataOutput out) throws IOException;
+
+    void readState(DataInput in) throws IOException;
+}
@@ -0,0 +1,217 @@
+package com.example.movierating.journal;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Feeds every {@link JournalProjection} from the rating journal on one background thread. Each
+ * projection keeps its own offset and is checkpointed, state and offset together, to
+ * {@code <journal dir>/checkpoints/<name>.checkpoint} every {@code checkpoint-every} records and on
+ * shutdown. On start a projection loads its checkpoint and reads on from there. It replays from
+ * offset zero instead when there is no checkpoint, or when the checkpoint does not match the journal:
+ * the offset is past the end, or the rating at that offset differs.
+ */
+@Component
+public class JournalProjector implements SmartLifecycle {
+    static final int CHECKPOINT_MAGIC = 0x4A505243;
+    private static final int READ_BATCH = 4096;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private static final Logger log = LoggerFactory.getLogger(JournalProjector.class);
+
+    private final RatingJournal journal;
+    private final List<Cursor> cursors;
+    private final long checkpointEvery;
+    private volatile boolean running;
+    private volatile Thread worker;
+
+    public JournalProjector(RatingJournal journal, List<JournalProjection> projections, MeterRegistry registry,
+                            @Value("${ratings.journal.checkpoint-every:100000}") long checkpointEvery) {
+        this.journal = journal;
+        this.cursors = projections.stream().map(Cursor::new).toList();
+        this.checkpointEvery = Math.max(1, checkpointEvery);
+        for (Cursor cursor : cursors) {
+            Gauge.builder("ratings.journal.lag", cursor, c -> journal.endOffset() - c.offset)
+                    .tag("projection", cursor.projection.name())
+                    .description("Journal records not yet applied to the projection")
+                    .register(registry);
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!journal.isEnabled() || running) return;
+        for (Cursor cursor : cursors) load(cursor);
+        startWorker();
+    }
+
+    private void startWorker() {
+        running = true;
+        Thread thread = new Thread(this::projectLoop, "journal-projector");
+        worker = thread;
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!running) return;
+        running = false;
+        Thread thread = worker;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        worker = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Between the journal and the write-behind buffer: starts after the journal is open and stops
+        // after the buffer has drained into it.
+        return DEFAULT_PHASE - 6144;
+    }
+
+    /** Offset the named projection has reached, or -1 if there is no such projection. */
+    public long offset(String name) {
+        for (Cursor cursor : cursors) {
+            if (cursor.projection.name().equals(name)) return cursor.offset;
+        }
+        return -1;
+    }
+
+    /**
+     * Resets every projection and rebuilds it from offset zero on the calling thread, pausing the
+     * background thread meanwhile. Returns the number of records replayed per projection.
+     */
+    public long replay() {
+        if (!journal.isEnabled()) return 0;
+        boolean wasRunning = running;
+        stop();
+        for (Cursor cursor : cursors) {
+            cursor.projection.reset();
+            cursor.offset = 0;
+            catchUp(cursor, Long.MAX_VALUE);
+            checkpoint(cursor);
+        }
+        long end = cursors.isEmpty() ? 0 : cursors.get(0).offset;
+        if (wasRunning) startWorker();
+        return end;
+    }
+
+    private void projectLoop() {
+        while (running) {
+            boolean progressed = false;
+            for (Cursor cursor : cursors) {
+                progressed |= catchUp(cursor, READ_BATCH);
+                if (cursor.offset - cursor.checkpointed >= checkpointEvery) checkpoint(cursor);
+            }
+            if (!progressed) LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+        }
+        for (Cursor cursor : cursors) {
+            catchUp(cursor, Long.MAX_VALUE);
+            checkpoint(cursor);
+        }
+    }
+
+    private boolean catchUp(Cursor cursor, long limit) {
+        long start = cursor.offset;
+        long remaining = limit;
+        while (remaining > 0) {
+            long before = cursor.offset;
+            long next = journal.read(before, (int) Math.min(READ_BATCH, remaining),
+                    (offset, ratingId, movieId, score) -> cursor.projection.apply(movieId, score));
+            if (next == before) break;
+            cursor.offset = next;
+            remaining -= next - before;
+        }
+        return cursor.offset != start;
+    }
+
+    private void load(Cursor cursor) {
+        Path file = checkpointFile(cursor);
+        if (Files.exists(file)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+                if (in.readInt() == CHECKPOINT_MAGIC) {
+                    long offset = in.readLong();
+                    long lastRatingId = in.readLong();
+                    if (offset <= journal.endOffset() && ratingIdBefore(offset) == lastRatingId) {
+                        cursor.projection.readState(in);
+                        cursor.offset = offset;
+                        cursor.checkpointed = offset;
+                        return;
+                    }
+                }
+            } catch (IOException e) {
+                log.warn("Ignoring unreadable checkpoint {}: {}", file, e.getMessage());
+            }
+        }
+        cursor.projection.reset();
+        cursor.offset = 0;
+        cursor.checkpointed = 0;
+        log.info("Replaying rating journal into projection '{}'", cursor.projection.name());
+    }
+
+    private void checkpoint(Cursor cursor) {
+        Path file = checkpointFile(cursor);
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(file.getParent());
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+                out.writeInt(CHECKPOINT_MAGIC);
+                out.writeLong(cursor.offset);
+                out.writeLong(ratingIdBefore(cursor.offset));
+                cursor.projection.writeState(out);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            cursor.checkpointed = cursor.offset;
+        } catch (IOException e) {
+            log.error("Could not checkpoint projection '{}': {}", cursor.projection.name(), e.getMessage());
+        }
+    }
+
+    /** Identifies the journal a checkpoint was taken against, so a re-created journal is not mistaken for it. */
+    private long ratingIdBefore(long offset) {
+        if (offset == 0) return -1;
+        long[] ratingId = {-1};
+        journal.read(offset - 1, 1, (o, id, movieId, score) -> ratingId[0] = id);
+        return ratingId[0];
+    }
+
+    private Path checkpointFile(Cursor cursor) {
+        return journal.directory().resolve("checkpoints").resolve(cursor.projection.name() + ".checkpoint");
+    }
+
+    private static final class Cursor {
+        final JournalProjection projection;
+        volatile long offset;
+        long checkpointed;
+
+        Cursor(JournalProjection projection) {
+            this.projection = projection;
+        }
+    }
+}
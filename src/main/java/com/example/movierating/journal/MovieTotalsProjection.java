@@ -0,0 +1,85 @@
+package com.example.movierating.journal;
+
+import com.example.movierating.dto.MovieAverageDTO;
+import org.springframework.stereotype.Component;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rating count and score sum per movie, built from the journal alone. Answers averages, counts and
+ * top lists by plain average; entries are replaced rather than mutated, so readers never see a count
+ * without its sum.
+ */
+@Component
+public class MovieTotalsProjection implements JournalProjection {
+    static final String NAME = "movie-totals";
+
+    private volatile Map<Long, long[]> totals = new ConcurrentHashMap<>();
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public void apply(long movieId, int score) {
+        totals.merge(movieId, new long[] {1, score}, (t, d) -> new long[] {t[0] + 1, t[1] + d[1]});
+    }
+
+    @Override
+    public void reset() {
+        totals = new ConcurrentHashMap<>();
+    }
+
+    public long count(long movieId) {
+        long[] t = totals.get(movieId);
+        return t == null ? 0 : t[0];
+    }
+
+    public double average(long movieId) {
+        long[] t = totals.get(movieId);
+        return t == null ? 0.0 : (double) t[1] / t[0];
+    }
+
+    public List<MovieAverageDTO> top(int limit, long minVotes) {
+        return totals.entrySet().stream()
+                .filter(e -> e.getValue()[0] >= minVotes)
+                .map(e -> new MovieAverageDTO(e.getKey(), (double) e.getValue()[1] / e.getValue()[0], e.getValue()[0]))
+                .sorted(Comparator.comparingDouble(MovieAverageDTO::getAverage).reversed()
+                        .thenComparing(MovieAverageDTO::getMovieId))
+                .limit(Math.max(0, limit))
+                .toList();
+    }
+
+    public int size() {
+        return totals.size();
+    }
+
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        Map<Long, long[]> snapshot = totals;
+        out.writeInt(snapshot.size());
+        for (Map.Entry<Long, long[]> e : snapshot.entrySet()) {
+            out.writeLong(e.getKey());
+            out.writeLong(e.getValue()[0]);
+            out.writeLong(e.getValue()[1]);
+        }
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        int size = in.readInt();
+        Map<Long, long[]> loaded = new ConcurrentHashMap<>(Math.max(16, size * 4 / 3 + 1));
+        for (int i = 0; i < size; i++) {
+            long movieId = in.readLong();
+            loaded.put(movieId, new long[] {in.readLong(), in.readLong()});
+        }
+        totals = loaded;
+    }
+}
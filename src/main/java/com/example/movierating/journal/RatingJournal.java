@@ -0,0 +1,333 @@
+package com.example.movierating.journal;
+
+import com.example.movierating.entity.Rating;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+/**
+ * Optional append-only log of committed ratings, kept in memory-mapped segment files on local disk.
+ * Each record is 24 bytes: rating id, movie id, score and a check value, so a record's offset is its
+ * position in the journal and a segment file is named after the offset of its first record. On open,
+ * the last segment is scanned up to the first record whose check value does not match, which drops
+ * a record torn by a crash. Writes go to the page cache and survive a process crash; segments are
+ * forced to disk when a segment fills up and on shutdown.
+ *
+ * <p>The journal starts before the rating write-behind buffer and the web server and stops after
+ * them, so every committed rating is appended. Ratings are appended in commit order, which is not
+ * id order. On start the journal is caught up with the {@code rating} table: table rows from the
+ * lowest id among the last {@value #CATCH_UP_WINDOW} records on that are not among those records are
+ * appended in id order. That picks up ratings committed while the journal was disabled or whose
+ * append was lost in a crash, without appending one twice, and seeds an empty journal. A journal
+ * whose last rating is not in the table, for example after the database was replaced, is discarded
+ * and rebuilt from the table; projections then replay because their checkpoints no longer match.
+ */
+@Component
+public class RatingJournal implements SmartLifecycle {
+    static final int RECORD_BYTES = 24;
+    private static final String SUFFIX = ".journal";
+    private static final int SEED_FETCH_SIZE = 1000;
+    // Far more records than can commit out of id order with each other.
+    static final int CATCH_UP_WINDOW = 65_536;
+
+    private static final Logger log = LoggerFactory.getLogger(RatingJournal.class);
+
+    private final DataSource dataSource;
+    private final boolean enabled;
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+    private final Object appendLock = new Object();
+    private volatile long endOffset;
+    private volatile boolean running;
+
+    /** Receives journal records in offset order. */
+    @FunctionalInterface
+    public interface RecordHandler {
+        void accept(long offset, long ratingId, long movieId, int score);
+    }
+
+    public RatingJournal(DataSource dataSource,
+                         @Value("${ratings.journal.enabled:false}") boolean enabled,
+                         @Value("${ratings.journal.dir:${movies.data-dir:./data}/journal}") String directory,
+                         @Value("${ratings.journal.segment-bytes:67108864}") long segmentBytes) {
+        this.dataSource = dataSource;
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.recordsPerSegment = (int) Math.max(1, Math.min(segmentBytes, Integer.MAX_VALUE) / RECORD_BYTES);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Path directory() {
+        return directory;
+    }
+
+    /** Offset the next record will get, which is also the number of records in the journal. */
+    public long endOffset() {
+        return endOffset;
+    }
+
+    @Override
+    public void start() {
+        if (!enabled || running) return;
+        open();
+        running = true;
+        if (catchUp() < 0) {
+            log.warn("Rebuilding rating journal in {} from the rating table", directory);
+            reset();
+            catchUp();
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (!running) return;
+        running = false;
+        close();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Below the write-behind buffer and the web server: starts before and stops after both.
+        return DEFAULT_PHASE - 8192;
+    }
+
+    /** Appends committed ratings; call after the transaction that saved them has committed. */
+    public void appendAll(List<Rating> ratings) {
+        if (!running) {
+            log.warn("Rating journal is not running; {} ratings were not journaled", ratings.size());
+            return;
+        }
+        synchronized (appendLock) {
+            for (Rating rating : ratings) append(rating.getId(), rating.getMovieId(), rating.getScore());
+        }
+    }
+
+    public long append(long ratingId, long movieId, int score) {
+        synchronized (appendLock) {
+            long offset = endOffset;
+            Segment segment = segments.get(segments.size() - 1);
+            if (offset - segment.base == segment.capacity) {
+                segment.buffer.force();
+                segment = roll(offset);
+            }
+            int position = (int) (offset - segment.base) * RECORD_BYTES;
+            MappedByteBuffer buffer = segment.buffer;
+            buffer.putLong(position, ratingId);
+            buffer.putLong(position + 8, movieId);
+            buffer.putInt(position + 16, score);
+            buffer.putInt(position + 20, check(ratingId, movieId, score));
+            endOffset = offset + 1;
+            return offset;
+        }
+    }
+
+    /**
+     * Hands up to {@code max} records starting at {@code from} to the handler and returns the offset
+     * after the last one. Safe to call from any thread while records are being appended.
+     */
+    public long read(long from, int max, RecordHandler handler) {
+        long end = Math.min(endOffset, from + max);
+        long offset = from;
+        while (offset < end) {
+            Segment segment = segmentFor(offset);
+            long segmentEnd = Math.min(end, segment.base + segment.capacity);
+            MappedByteBuffer buffer = segment.buffer;
+            for (; offset < segmentEnd; offset++) {
+                int position = (int) (offset - segment.base) * RECORD_BYTES;
+                handler.accept(offset, buffer.getLong(position), buffer.getLong(position + 8), buffer.getInt(position + 16));
+            }
+        }
+        return offset;
+    }
+
+    /**
+     * Appends the ratings in the {@code rating} table that are missing from the journal's last
+     * {@value #CATCH_UP_WINDOW} records and not older than any of them, and returns how many. Returns
+     * -1 without appending if the last journaled rating is not in the table, which means the journal
+     * does not belong to this database.
+     */
+    public long catchUp() {
+        if (!running) return 0;
+        synchronized (appendLock) {
+            long start = System.nanoTime();
+            JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+            long[] last = {0};
+            long[] lowest = {Long.MIN_VALUE};
+            Set<Long> journaled = new HashSet<>();
+            if (endOffset > 0) {
+                lowest[0] = Long.MAX_VALUE;
+                long from = Math.max(0, endOffset - CATCH_UP_WINDOW);
+                read(from, (int) (endOffset - from), (offset, ratingId, movieId, score) -> {
+                    journaled.add(ratingId);
+                    lowest[0] = Math.min(lowest[0], ratingId);
+                    last[0] = ratingId;
+                });
+                Integer found = jdbc.queryForObject("SELECT COUNT(*) FROM rating WHERE id = ?", Integer.class, last[0]);
+                if (found == null || found == 0) {
+                    log.error("Rating journal ends with rating {}, which is not in the rating table", last[0]);
+                    return -1;
+                }
+            }
+            long before = endOffset;
+            jdbc.setFetchSize(SEED_FETCH_SIZE);
+            jdbc.query("SELECT id, movie_id, score FROM rating WHERE id >= ? AND movie_id IS NOT NULL ORDER BY id",
+                    rs -> {
+                        long ratingId = rs.getLong(1);
+                        if (!journaled.contains(ratingId)) append(ratingId, rs.getLong(2), rs.getInt(3));
+                    }, lowest[0]);
+            long appended = endOffset - before;
+            if (appended > 0) {
+                log.info("Appended {} ratings from the rating table to the journal in {} ms", appended,
+                        (System.nanoTime() - start) / 1_000_000);
+            }
+            return appended;
+        }
+    }
+
+    void open() {
+        try {
+            Files.createDirectories(directory);
+            List<Path> files;
+            try (Stream<Path> listing = Files.list(directory)) {
+                files = listing.filter(p -> p.getFileName().toString().endsWith(SUFFIX)).sorted().toList();
+            }
+            List<Segment> opened = new ArrayList<>();
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                long base = Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+                opened.add(map(file, base, (int) (Files.size(file) / RECORD_BYTES)));
+            }
+            segments.clear();
+            segments.addAll(opened);
+            if (segments.isEmpty()) {
+                endOffset = 0;
+                roll(0);
+            } else {
+                Segment last = segments.get(segments.size() - 1);
+                endOffset = last.base + validRecords(last);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void close() {
+        synchronized (appendLock) {
+            for (Segment segment : segments) {
+                segment.buffer.force();
+                try {
+                    segment.channel.close();
+                } catch (IOException e) {
+                    log.warn("Could not close journal segment {}: {}", segment.base, e.getMessage());
+                }
+            }
+            segments.clear();
+        }
+    }
+
+    /** Deletes every segment and starts an empty journal. */
+    private void reset() {
+        close();
+        try (Stream<Path> listing = Files.list(directory)) {
+            for (Path file : listing.filter(p -> p.getFileName().toString().endsWith(SUFFIX)).toList()) {
+                Files.delete(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        open();
+    }
+
+    private Segment roll(long base) {
+        try {
+            Segment segment = map(directory.resolve(String.format("%020d%s", base, SUFFIX)), base, recordsPerSegment);
+            segments.add(segment);
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Segment segmentFor(long offset) {
+        int low = 0;
+        int high = segments.size() - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (segments.get(mid).base <= offset) low = mid;
+            else high = mid - 1;
+        }
+        return segments.get(low);
+    }
+
+    private static Segment map(Path file, long base, int capacity) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) capacity * RECORD_BYTES);
+        return new Segment(base, capacity, channel, buffer);
+    }
+
+    private static int validRecords(Segment segment) {
+        MappedByteBuffer buffer = segment.buffer;
+        int count = 0;
+        while (count < segment.capacity) {
+            int position = count * RECORD_BYTES;
+            long ratingId = buffer.getLong(position);
+            long movieId = buffer.getLong(position + 8);
+            int score = buffer.getInt(position + 16);
+            if (buffer.getInt(position + 20) != check(ratingId, movieId, score)) break;
+            count++;
+        }
+        return count;
+    }
+
+    /** Never zero, so the zero-filled tail of a segment never reads as a record. */
+    static int check(long ratingId, long movieId, int score) {
+        long h = ratingId * 0x9E3779B97F4A7C15L + movieId * 0xC2B2AE3D27D4EB4FL + score;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return (int) (h ^ (h >>> 32)) | 1;
+    }
+
+    private static final class Segment {
+        final long base;
+        final int capacity;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+
+        Segment(long base, int capacity, FileChannel channel, MappedByteBuffer buffer) {
+            this.base = base;
+            this.capacity = capacity;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.movierating.maintenance;
+
+import com.example.movierating.exception.InvalidSnapshotException;
+import com.example.movierating.journal.RatingJournal;
+import com.example.movierating.service.RatingService;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Dumps the {@code movie} and {@code rating} tables to a compact binary file and loads them back
+ * with JDBC batch inserts. Derived tables are not stored; a restore rebuilds them from the ratings.
+ * The file is a magic number and version, one tagged record per row ({@code M} movie, {@code R}
+ * rating, nullable columns prefixed by a presence flag), and an {@code E} trailer with both row counts.
+ * Version 2 added the rating's creation time in epoch milliseconds; version 1 files restore without it.
+ */
+@Component
+public class DatabaseSnapshot {
+    static final int MAGIC = 0x4D52534E;
+    static final int VERSION = 2;
+    private static final byte MOVIE = 'M';
+    private static final byte RATING = 'R';
+    private static final byte END = 'E';
+    private static final int INSERT_BATCH = 1000;
+    // rating_seq hands out blocks of 50 that end at the fetched value, see Rating.
+    private static final int RATING_ID_BLOCK = 50;
+
+    private final JdbcTemplate jdbc;
+    private final RatingService ratingService;
+    private final RatingJournal journal;
+
+    public DatabaseSnapshot(DataSource dataSource, RatingService ratingService, RatingJournal journal) {
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.jdbc.setFetchSize(INSERT_BATCH);
+        this.ratingService = ratingService;
+        this.journal = journal;
+    }
+
+    /** Returns {movies, ratings} written. */
+    public long[] write(Path file) {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            return write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    long[] write(OutputStream target) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(target, 1 << 16));
+        long[] counts = new long[2];
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        jdbc.query("SELECT id, title, \"year\" FROM movie ORDER BY id", rs -> {
+            try {
+                out.writeByte(MOVIE);
+                out.writeLong(rs.getLong(1));
+                writeNullableString(out, rs.getString(2));
+                int year = rs.getInt(3);
+                boolean hasYear = !rs.wasNull();
+                out.writeBoolean(hasYear);
+                if (hasYear) out.writeInt(year);
+                counts[0]++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        jdbc.query("SELECT id, movie_id, score, comment, created_at FROM rating ORDER BY id", rs -> {
+            try {
+                out.writeByte(RATING);
+                out.writeLong(rs.getLong(1));
+                long movieId = rs.getLong(2);
+                boolean hasMovie = !rs.wasNull();
+                out.writeBoolean(hasMovie);
+                if (hasMovie) out.writeLong(movieId);
+                out.writeByte(rs.getInt(3));
+                writeNullableString(out, rs.getString(4));
+                Timestamp createdAt = rs.getTimestamp(5);
+                out.writeBoolean(createdAt != null);
+                if (createdAt != null) out.writeLong(createdAt.getTime());
+                counts[1]++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        out.writeByte(END);
+        out.writeLong(counts[0]);
+        out.writeLong(counts[1]);
+        out.flush();
+        return counts;
+    }
+
+    /**
+     * Loads a snapshot into empty tables, rebuilds the aggregates and catches the rating journal up with the restored ratings.
+     * Returns {movies, ratings} read.
+     */
+    public long[] restore(Path file) {
+        try (InputStream in = Files.newInputStream(file)) {
+            return restore(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    long[] restore(InputStream source) throws IOException {
+        Long existing = jdbc.queryForObject("SELECT (SELECT COUNT(*) FROM movie) + (SELECT COUNT(*) FROM rating)", Long.class);
+        if (existing != null && existing > 0) {
+            throw new IllegalStateException("Refusing to restore a snapshot into a database that already has movies or ratings");
+        }
+        DataInputStream in = new DataInputStream(new BufferedInputStream(source, 1 << 16));
+        if (in.readInt() != MAGIC) throw new InvalidSnapshotException("Not a movie rating snapshot");
+        int version = in.readInt();
+        if (version != 1 && version != VERSION) throw new InvalidSnapshotException(String.format("Unsupported snapshot version %d", version));
+
+        List<Object[]> movies = new ArrayList<>(INSERT_BATCH);
+        List<Object[]> ratings = new ArrayList<>(INSERT_BATCH);
+        long[] counts = new long[2];
+        long maxMovieId = 0;
+        long maxRatingId = 0;
+        while (true) {
+            byte tag = in.readByte();
+            if (tag == MOVIE) {
+                long id = in.readLong();
+                String title = readNullableString(in);
+                Integer year = in.readBoolean() ? in.readInt() : null;
+                movies.add(new Object[] {id, title, year});
+                maxMovieId = Math.max(maxMovieId, id);
+                counts[0]++;
+                if (movies.size() == INSERT_BATCH) insertMovies(movies);
+            } else if (tag == RATING) {
+                insertMovies(movies);
+                long id = in.readLong();
+                Long movieId = in.readBoolean() ? in.readLong() : null;
+                int score = in.readByte();
+                String comment = readNullableString(in);
+                Timestamp createdAt = version > 1 && in.readBoolean() ? new Timestamp(in.readLong()) : null;
+                ratings.add(new Object[] {id, movieId, score, comment, createdAt});
+                maxRatingId = Math.max(maxRatingId, id);
+                counts[1]++;
+                if (ratings.size() == INSERT_BATCH) insertRatings(ratings);
+            } else if (tag == END) {
+                insertMovies(movies);
+                insertRatings(ratings);
+                if (in.readLong() != counts[0] || in.readLong() != counts[1]) {
+                    throw new InvalidSnapshotException("Snapshot trailer does not match its row counts");
+                }
+                break;
+            } else {
+                throw new InvalidSnapshotException(String.format("Unknown snapshot record '%c'", (char) tag));
+            }
+        }
+        jdbc.execute("ALTER TABLE movie ALTER COLUMN id RESTART WITH " + (maxMovieId + 1));
+        jdbc.execute("ALTER SEQUENCE rating_seq RESTART WITH " + (maxRatingId + RATING_ID_BLOCK + 1));
+        ratingService.rebuildAggregates();
+        journal.catchUp();
+        return counts;
+    }
+
+    private void insertMovies(List<Object[]> rows) {
+        if (rows.isEmpty()) return;
+        jdbc.batchUpdate("INSERT INTO movie (id, title, \"year\") VALUES (?, ?, ?)", rows);
+        rows.clear();
+    }
+
+    private void insertRatings(List<Object[]> rows) {
+        if (rows.isEmpty()) return;
+        jdbc.batchUpdate("INSERT INTO rating (id, movie_id, score, comment, created_at) VALUES (?, ?, ?, ?, ?)", rows);
+        rows.clear();
+    }
+
+    private static void writeNullableString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) out.writeUTF(value);
+    }
+
+    private static String readNullableString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
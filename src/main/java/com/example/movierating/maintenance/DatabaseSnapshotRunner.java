@@ -0,0 +1,48 @@
+package com.example.movierating.maintenance;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.List;
+
+@Component
+public class DatabaseSnapshotRunner implements ApplicationRunner {
+    static final String RESTORE_OPTION = "restore";
+    static final String SNAPSHOT_OPTION = "snapshot";
+
+    private static final Logger log = LoggerFactory.getLogger(DatabaseSnapshotRunner.class);
+
+    private final DatabaseSnapshot snapshot;
+
+    public DatabaseSnapshotRunner(DatabaseSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Path restore = path(args, RESTORE_OPTION);
+        if (restore != null) {
+            long start = System.nanoTime();
+            long[] counts = snapshot.restore(restore);
+            log.info("Restored {} movies and {} ratings from {} in {} ms",
+                    counts[0], counts[1], restore, (System.nanoTime() - start) / 1_000_000);
+        }
+        Path target = path(args, SNAPSHOT_OPTION);
+        if (target != null) {
+            long start = System.nanoTime();
+            long[] counts = snapshot.write(target);
+            log.info("Wrote {} movies and {} ratings to {} in {} ms",
+                    counts[0], counts[1], target, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    private static Path path(ApplicationArguments args, String option) {
+        List<String> values = args.getOptionValues(option);
+        if (values == null || values.isEmpty() || values.get(0).isEmpty()) return null;
+        return Path.of(values.get(0));
+    }
+}
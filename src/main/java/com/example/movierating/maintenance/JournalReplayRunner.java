@@ -0,0 +1,36 @@
+package com.example.movierating.maintenance;
+
+import com.example.movierating.journal.JournalProjector;
+import com.example.movierating.journal.RatingJournal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+@Component
+public class JournalReplayRunner implements ApplicationRunner {
+    static final String OPTION = "replay-projections";
+
+    private static final Logger log = LoggerFactory.getLogger(JournalReplayRunner.class);
+
+    private final RatingJournal journal;
+    private final JournalProjector projector;
+
+    public JournalReplayRunner(RatingJournal journal, JournalProjector projector) {
+        this.journal = journal;
+        this.projector = projector;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(OPTION)) return;
+        if (!journal.isEnabled()) {
+            log.warn("--{} ignored: the rating journal is disabled", OPTION);
+            return;
+        }
+        long start = System.nanoTime();
+        long records = projector.replay();
+        log.info("Replayed {} journal records into the projections in {} ms", records, (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.movierating.maintenance;
+
+import com.example.movierating.service.RatingService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+@Component
+public class RatingAggregateRebuildRunner implements ApplicationRunner {
+    static final String OPTION = "rebuild-aggregates";
+
+    private static final Logger log = LoggerFactory.getLogger(RatingAggregateRebuildRunner.class);
+
+    private final RatingService ratingService;
+
+    public RatingAggregateRebuildRunner(RatingService ratingService) {
+        this.ratingService = ratingService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(OPTION)) return;
+        long start = System.nanoTime();
+        int movies = ratingService.rebuildAggregates();
+        log.info("Rebuilt rating aggregates for {} movies in {} ms", movies, (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.movierating.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.hibernate.Interceptor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.type.Type;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Counts the SQL statements Hibernate prepares and the entities it loads on the request thread, and
+ * records both per request, tagged with the URI pattern. A jump in entity loads for one endpoint is
+ * the signature of an N+1 or load-everything query.
+ */
+public class RequestDataAccessMetrics implements HandlerInterceptor, StatementInspector, Interceptor {
+    static final String STATEMENTS = "http.server.requests.statements";
+    static final String ENTITY_LOADS = "http.server.requests.entity.loads";
+
+    private static final int STATEMENT = 0;
+    private static final int ENTITY_LOAD = 1;
+
+    private final ThreadLocal<long[]> counts = new ThreadLocal<>();
+    private final MeterRegistry registry;
+
+    public RequestDataAccessMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        counts.set(new long[2]);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        long[] current = counts.get();
+        counts.remove();
+        if (current == null) return;
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+        summary(STATEMENTS, uri).record(current[STATEMENT]);
+        summary(ENTITY_LOADS, uri).record(current[ENTITY_LOAD]);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        increment(STATEMENT);
+        return sql;
+    }
+
+    @Override
+    public boolean onLoad(Object entity, Object id, Object[] state, String[] propertyNames, Type[] types) {
+        increment(ENTITY_LOAD);
+        return false;
+    }
+
+    private void increment(int counter) {
+        long[] current = counts.get();
+        if (current != null) current[counter]++;
+    }
+
+    private DistributionSummary summary(String name, String uri) {
+        return DistributionSummary.builder(name)
+                .tag("uri", uri)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.movierating.reactive;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.GET;
+import static org.springframework.web.reactive.function.server.RequestPredicates.POST;
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+/**
+ * WebFlux + R2DBC variant of the movie API, active with the {@code reactive} profile. It shares the
+ * Flyway-managed schema with the JPA stack. The JDBC pool is declared here because Boot's data
+ * source auto-configuration backs off once an R2DBC {@link ConnectionFactory} exists, and Flyway,
+ * JPA and the maintenance tasks still need it. The handlers run on Reactor Netty rather than Tomcat,
+ * which Boot would otherwise pick because the servlet stack keeps it on the classpath. The R2DBC
+ * transaction manager is deliberately not a bean, so {@code @Transactional} on the JPA services
+ * keeps resolving to the single JPA transaction manager.
+ */
+@Configuration
+@Profile(ReactiveConfig.PROFILE)
+public class ReactiveConfig {
+    public static final String PROFILE = "reactive";
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean
+    public DatabaseClient databaseClient(ConnectionFactory connectionFactory) {
+        return DatabaseClient.create(connectionFactory);
+    }
+
+    @Bean
+    public TransactionalOperator reactiveTransactionalOperator(ConnectionFactory connectionFactory) {
+        return TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory));
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> movieRoutes(ReactiveMovieHandler handler) {
+        return route(POST("/api/movies"), handler::createMovie)
+                .andRoute(GET("/api/movies"), handler::listMovies)
+                .andRoute(GET("/api/movies/stream"), handler::streamMovies)
+                .andRoute(POST("/api/ratings"), handler::addRating)
+                .andRoute(GET("/api/movies/{id}/average"), handler::average);
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.movierating.reactive;
+
+import com.example.movierating.dto.CursorPageDTO;
+import com.example.movierating.dto.MovieRequestDTO;
+import com.example.movierating.dto.MovieResponseDTO;
+import com.example.movierating.dto.RatingRequestDTO;
+import com.example.movierating.service.RatingService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Same endpoints and DTOs as {@code MovieController}. Listings stream rows from R2DBC as the
+ * client reads them, so a slow reader slows the query instead of buffering the catalogue.
+ */
+@Component
+@Profile(ReactiveConfig.PROFILE)
+public class ReactiveMovieHandler {
+    static final int DEFAULT_PAGE_SIZE = 100;
+    static final int MAX_PAGE_SIZE = 1000;
+
+    private final ReactiveMovieRepository movies;
+    private final ReactiveRatingRepository ratings;
+    private final TransactionalOperator transactionalOperator;
+
+    public ReactiveMovieHandler(ReactiveMovieRepository movies, ReactiveRatingRepository ratings,
+                                TransactionalOperator transactionalOperator) {
+        this.movies = movies;
+        this.ratings = ratings;
+        this.transactionalOperator = transactionalOperator;
+    }
+
+    public Mono<ServerResponse> createMovie(ServerRequest request) {
+        return request.bodyToMono(MovieRequestDTO.class)
+                .flatMap(dto -> movies.insert(dto.getTitle(), dto.getYear())
+                        .flatMap(saved -> ServerResponse.ok().bodyValue(saved))
+                        .onErrorResume(DataIntegrityViolationException.class, e -> error(HttpStatus.CONFLICT,
+                                String.format("Movie with title '%s' and year %d already exists",
+                                        dto.getTitle(), dto.getYear()))));
+    }
+
+    public Mono<ServerResponse> listMovies(ServerRequest request) {
+        int size = pageSize(request.queryParam("limit").orElse(null));
+        String cursor = request.queryParam("cursor").orElse("");
+        long afterId;
+        try {
+            afterId = cursor.isEmpty() ? 0L : Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            return error(HttpStatus.BAD_REQUEST, String.format("Invalid cursor '%s'", cursor));
+        }
+        return movies.findPageAfter(afterId, size + 1)
+                .collectList()
+                .flatMap(rows -> {
+                    if (rows.size() <= size) {
+                        return ServerResponse.ok().bodyValue(new CursorPageDTO<>(rows, null));
+                    }
+                    List<MovieResponseDTO> page = rows.subList(0, size);
+                    return ServerResponse.ok().bodyValue(
+                            new CursorPageDTO<>(page, String.valueOf(page.get(size - 1).getId())));
+                });
+    }
+
+    public Mono<ServerResponse> streamMovies(ServerRequest request) {
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(movies.streamAll(), MovieResponseDTO.class);
+    }
+
+    public Mono<ServerResponse> addRating(ServerRequest request) {
+        return request.bodyToMono(RatingRequestDTO.class)
+                .flatMap(dto -> {
+                    String error = RatingService.validate(dto);
+                    if (error != null) return error(HttpStatus.BAD_REQUEST, error);
+                    long score = dto.getScore();
+                    return ratings.insert(dto.getMovieId(), dto.getScore(), dto.getComment())
+                            .flatMap(saved -> ratings.incrementAggregate(dto.getMovieId(), 1, score, score * score)
+                                    .then(ratings.incrementHistogram(dto.getMovieId(), dto.getScore()))
+                                    .thenReturn(saved))
+                            .as(transactionalOperator::transactional)
+                            .flatMap(saved -> ServerResponse.ok().bodyValue(saved));
+                })
+                .switchIfEmpty(Mono.defer(() -> error(HttpStatus.BAD_REQUEST, RatingService.validate(null))));
+    }
+
+    public Mono<ServerResponse> average(ServerRequest request) {
+        String id = request.pathVariable("id");
+        long movieId;
+        try {
+            movieId = Long.parseLong(id);
+        } catch (NumberFormatException e) {
+            return error(HttpStatus.BAD_REQUEST, String.format("Invalid movie id '%s'", id));
+        }
+        return ratings.averageForMovie(movieId).flatMap(avg -> ServerResponse.ok().bodyValue(avg));
+    }
+
+    static int pageSize(String limit) {
+        try {
+            int value = limit == null ? 0 : Integer.parseInt(limit);
+            return value < 1 ? DEFAULT_PAGE_SIZE : Math.min(value, MAX_PAGE_SIZE);
+        } catch (NumberFormatException e) {
+            return DEFAULT_PAGE_SIZE;
+        }
+    }
+
+    private static Mono<ServerResponse> error(HttpStatus status, String message) {
+        return ServerResponse.status(status).bodyValue(Map.of("error", message));
+    }
+}
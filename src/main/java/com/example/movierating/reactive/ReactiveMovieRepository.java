@@ -0,0 +1,48 @@
+package com.example.movierating.reactive;
+
+import com.example.movierating.dto.MovieResponseDTO;
+import io.r2dbc.spi.Readable;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Repository
+@Profile(ReactiveConfig.PROFILE)
+public class ReactiveMovieRepository {
+    private final DatabaseClient client;
+
+    public ReactiveMovieRepository(DatabaseClient client) {
+        this.client = client;
+    }
+
+    public Mono<MovieResponseDTO> insert(String title, Integer year) {
+        DatabaseClient.GenericExecuteSpec spec = client.sql("INSERT INTO movie (title, \"year\") VALUES (:title, :year)");
+        spec = title == null ? spec.bindNull("title", String.class) : spec.bind("title", title);
+        spec = year == null ? spec.bindNull("year", Integer.class) : spec.bind("year", year);
+        return spec.filter(statement -> statement.returnGeneratedValues("id"))
+                .map(row -> row.get("id", Long.class))
+                .one()
+                .map(id -> new MovieResponseDTO(id, title, year));
+    }
+
+    public Flux<MovieResponseDTO> findPageAfter(long afterId, int limit) {
+        return client.sql("SELECT id, title, \"year\" FROM movie WHERE id > :afterId ORDER BY id LIMIT :limit")
+                .bind("afterId", afterId)
+                .bind("limit", limit)
+                .map(ReactiveMovieRepository::toMovie)
+                .all();
+    }
+
+    public Flux<MovieResponseDTO> streamAll() {
+        return client.sql("SELECT id, title, \"year\" FROM movie ORDER BY id")
+                .map(ReactiveMovieRepository::toMovie)
+                .all();
+    }
+
+    private static MovieResponseDTO toMovie(Readable row) {
+        return new MovieResponseDTO(row.get("id", Long.class), row.get("title", String.class),
+                row.get("year", Integer.class));
+    }
+}
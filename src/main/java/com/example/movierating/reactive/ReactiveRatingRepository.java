@@ -0,0 +1,70 @@
+package com.example.movierating.reactive;
+
+import com.example.movierating.dto.RatingResponseDTO;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+@Repository
+@Profile(ReactiveConfig.PROFILE)
+public class ReactiveRatingRepository {
+    private final DatabaseClient client;
+
+    public ReactiveRatingRepository(DatabaseClient client) {
+        this.client = client;
+    }
+
+    /**
+     * Takes one value of {@code rating_seq} as the id. Hibernate's pooled optimizer only uses the
+     * block ending at each value it fetches itself, so the two stacks never hand out the same id.
+     */
+    public Mono<RatingResponseDTO> insert(Long movieId, int score, String comment) {
+        return client.sql("SELECT NEXT VALUE FOR rating_seq")
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .flatMap(id -> {
+                    DatabaseClient.GenericExecuteSpec spec = client
+                            .sql("INSERT INTO rating (id, movie_id, score, comment) VALUES (:id, :movieId, :score, :comment)")
+                            .bind("id", id)
+                            .bind("score", score);
+                    spec = movieId == null ? spec.bindNull("movieId", Long.class) : spec.bind("movieId", movieId);
+                    spec = comment == null ? spec.bindNull("comment", String.class) : spec.bind("comment", comment);
+                    return spec.then().thenReturn(new RatingResponseDTO(id, movieId, score, comment));
+                });
+    }
+
+    public Mono<Void> incrementAggregate(Long movieId, long count, long sum, long squareSum) {
+        return client.sql("MERGE INTO rating_aggregate a "
+                        + "USING (VALUES (CAST(:movieId AS BIGINT), CAST(:count AS BIGINT), CAST(:sum AS BIGINT), CAST(:squareSum AS BIGINT))) "
+                        + "AS d(movie_id, rating_count, score_sum, score_square_sum) ON a.movie_id = d.movie_id "
+                        + "WHEN MATCHED THEN UPDATE SET rating_count = a.rating_count + d.rating_count, "
+                        + "score_sum = a.score_sum + d.score_sum, score_square_sum = a.score_square_sum + d.score_square_sum "
+                        + "WHEN NOT MATCHED THEN INSERT (movie_id, rating_count, score_sum, score_square_sum) "
+                        + "VALUES (d.movie_id, d.rating_count, d.score_sum, d.score_square_sum)")
+                .bind("movieId", movieId)
+                .bind("count", count)
+                .bind("sum", sum)
+                .bind("squareSum", squareSum)
+                .then();
+    }
+
+    public Mono<Void> incrementHistogram(Long movieId, int score) {
+        return client.sql("MERGE INTO rating_histogram h "
+                        + "USING (VALUES (CAST(:movieId AS BIGINT), CAST(:score AS INTEGER), CAST(1 AS BIGINT))) "
+                        + "AS d(movie_id, score, rating_count) ON h.movie_id = d.movie_id AND h.score = d.score "
+                        + "WHEN MATCHED THEN UPDATE SET rating_count = h.rating_count + d.rating_count "
+                        + "WHEN NOT MATCHED THEN INSERT (movie_id, score, rating_count) VALUES (d.movie_id, d.score, d.rating_count)")
+                .bind("movieId", movieId)
+                .bind("score", score)
+                .then();
+    }
+
+    public Mono<Double> averageForMovie(Long movieId) {
+        return client.sql("SELECT score_sum, rating_count FROM rating_aggregate WHERE movie_id = :movieId")
+                .bind("movieId", movieId)
+                .map(row -> (double) row.get("score_sum", Long.class) / row.get("rating_count", Long.class))
+                .one()
+                .defaultIfEmpty(0.0);
+    }
+}
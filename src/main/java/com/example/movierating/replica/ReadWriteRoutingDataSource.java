@@ -0,0 +1,36 @@
+package com.example.movierating.replica;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions to the replica and everything else, including work outside a
+ * transaction, to the primary. A read falls back to the primary while the replica lags more than
+ * allowed or when it runs under {@link ReplicaRouting#onPrimary}. The target is chosen when a
+ * connection is first requested, so this must sit behind a lazy connection proxy for the
+ * transaction's read-only flag to be visible by then.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+    static final String PRIMARY = "primary";
+    static final String REPLICA = "replica";
+
+    private final ReplicaLagMonitor lagMonitor;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor) {
+        this.lagMonitor = lagMonitor;
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        boolean replica = TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && !ReplicaRouting.primaryRequired()
+                && lagMonitor.replicaUsable();
+        return replica ? REPLICA : PRIMARY;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.movierating.replica;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Read/write split, active with the {@code replica} profile. The primary pool is configured from
+ * {@code spring.datasource.*} as usual and is the one Flyway migrates; the replica pool comes from
+ * {@code movies.replica.datasource.*}. Everything else, JPA included, gets the routing data source,
+ * which sends read-only transactions to the replica (see {@link ReadWriteRoutingDataSource}).
+ */
+@Configuration
+@Profile(ReplicaConfig.PROFILE)
+public class ReplicaConfig {
+    public static final String PROFILE = "replica";
+    public static final String PRIMARY = "primaryDataSource";
+    public static final String REPLICA = "replicaDataSource";
+
+    @Bean(PRIMARY)
+    @FlywayDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean(REPLICA)
+    @ConfigurationProperties("movies.replica.datasource")
+    public HikariDataSource replicaDataSource() {
+        HikariDataSource dataSource = DataSourceBuilder.create().type(HikariDataSource.class).build();
+        dataSource.setPoolName("replica");
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier(PRIMARY) DataSource primary, @Qualifier(REPLICA) DataSource replica,
+                                 ReplicaLagMonitor lagMonitor) {
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, replica, lagMonitor));
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.movierating.replica;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how far the replica is behind the primary. Every {@code heartbeat-ms} it writes the
+ * current time to the {@code replica_heartbeat} row on the primary and reads the row back from the
+ * replica; the difference is the replication lag, give or take one heartbeat. Until the first
+ * heartbeat has arrived on the replica, or while the replica cannot be read, the lag is unknown.
+ *
+ * <p>{@code movies.replica.max-lag-ms} decides how stale a read may be: read-only transactions go to
+ * the replica only while the lag is known and within it, and to the primary otherwise. A negative
+ * value accepts any lag, which is plain eventual consistency.
+ */
+@Component
+@Profile(ReplicaConfig.PROFILE)
+public class ReplicaLagMonitor implements SmartLifecycle {
+    static final long UNKNOWN = Long.MAX_VALUE;
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final long maxLagMillis;
+    private final long heartbeatMillis;
+    private volatile long lagMillis = UNKNOWN;
+    private volatile ScheduledExecutorService scheduler;
+
+    public ReplicaLagMonitor(@Qualifier(ReplicaConfig.PRIMARY) DataSource primary,
+                             @Qualifier(ReplicaConfig.REPLICA) DataSource replica,
+                             MeterRegistry registry,
+                             @Value("${movies.replica.max-lag-ms:5000}") long maxLagMillis,
+                             @Value("${movies.replica.heartbeat-ms:1000}") long heartbeatMillis) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.maxLagMillis = maxLagMillis;
+        this.heartbeatMillis = Math.max(1, heartbeatMillis);
+        Gauge.builder("movies.replica.lag", this, m -> m.lagMillis == UNKNOWN ? Double.NaN : m.lagMillis)
+                .baseUnit("milliseconds")
+                .description("How far the read replica is behind the primary")
+                .register(registry);
+    }
+
+    /** Whether a read-only transaction starting now may read from the replica. */
+    public boolean replicaUsable() {
+        return maxLagMillis < 0 || lagMillis <= maxLagMillis;
+    }
+
+    /** Last measured lag in milliseconds, or {@link Long#MAX_VALUE} while it is unknown. */
+    public long lagMillis() {
+        return lagMillis;
+    }
+
+    /** Writes a heartbeat to the primary and measures the replica against it. */
+    public void check() {
+        long now = System.currentTimeMillis();
+        try {
+            primary.update("UPDATE replica_heartbeat SET beat_millis = ? WHERE id = 1", now);
+        } catch (DataAccessException e) {
+            log.warn("Could not write replica heartbeat: {}", e.getMessage());
+        }
+        try {
+            Long beat = replica.queryForObject("SELECT beat_millis FROM replica_heartbeat WHERE id = 1", Long.class);
+            lagMillis = beat == null || beat == 0 ? UNKNOWN : Math.max(0, now - beat);
+        } catch (DataAccessException e) {
+            if (lagMillis != UNKNOWN) log.warn("Replica unreadable, routing reads to the primary: {}", e.getMessage());
+            lagMillis = UNKNOWN;
+        }
+    }
+
+    @Override
+    public void start() {
+        if (scheduler != null) return;
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "replica-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::check, 0, heartbeatMillis, TimeUnit.MILLISECONDS);
+        scheduler = executor;
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService executor = scheduler;
+        if (executor == null) return;
+        scheduler = null;
+        executor.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.movierating.replica;
+
+import java.util.function.Supplier;
+
+/**
+ * Pins read-only work to the primary. Reads that rebuild in-memory state must not load a replica
+ * that is behind, or the state would miss writes that are already committed and never catch up.
+ * Outside the {@code replica} profile every read goes to the primary anyway and this is a no-op.
+ */
+public final class ReplicaRouting {
+    private static final ThreadLocal<Boolean> PRIMARY = new ThreadLocal<>();
+
+    private ReplicaRouting() {
+    }
+
+    /**
+     * Runs {@code action} with read-only transactions routed to the primary. The routing data source
+     * picks its target when a transaction first asks for a connection, so this may be called from
+     * inside a read-only transaction that has not touched the database yet.
+     */
+    public static void onPrimary(Runnable action) {
+        onPrimary(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public static <T> T onPrimary(Supplier<T> action) {
+        Boolean previous = PRIMARY.get();
+        PRIMARY.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) PRIMARY.remove();
+            else PRIMARY.set(previous);
+        }
+    }
+
+    static boolean primaryRequired() {
+        return PRIMARY.get() != null;
+    }
+}
@@ -1,10 +1,40 @@
 package com.example.movierating.repository;
 
+import com.example.movierating.dto.MovieResponseDTO;
 import com.example.movierating.entity.Movie;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 public interface MovieRepository extends JpaRepository<Movie, Long> {
     Optional<Movie> findByTitleAndYear(String title, Integer year);
+
+    @Query("select new com.example.movierating.dto.MovieResponseDTO(m.id, m.title, m.year) "
+            + "from Movie m where m.id > :afterId order by m.id")
+    List<MovieResponseDTO> findPageAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("select new com.example.movierating.dto.MovieResponseDTO(m.id, m.title, m.year) "
+            + "from Movie m where m.id in :ids")
+    List<MovieResponseDTO> findAllByIds(@Param("ids") Collection<Long> ids);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.example.movierating.dto.MovieResponseDTO(m.id, m.title, m.year) "
+            + "from Movie m order by m.id")
+    Stream<MovieResponseDTO> streamAll();
+
+    /** Rows of {id, title, year, ratingCount, scoreSum} for every movie that has an aggregate. */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select m.id, m.title, m.year, a.ratingCount, a.scoreSum "
+            + "from Movie m, RatingAggregate a where a.movieId = m.id")
+    Stream<Object[]> streamRated();
 }
@@ -0,0 +1,72 @@
+package com.example.movierating.repository;
+
+import com.example.movierating.dto.MovieAverageDTO;
+import com.example.movierating.entity.RatingAggregate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+public interface RatingAggregateRepository extends JpaRepository<RatingAggregate, Long> {
+
+    @Modifying
+    @Query(value = "MERGE INTO rating_aggregate a "
+            + "USING (VALUES (CAST(:movieId AS BIGINT), CAST(:count AS BIGINT), CAST(:sum AS BIGINT), CAST(:squareSum AS BIGINT))) "
+            + "AS d(movie_id, rating_count, score_sum, score_square_sum) ON a.movie_id = d.movie_id "
+            + "WHEN MATCHED THEN UPDATE SET rating_count = a.rating_count + d.rating_count, "
+            + "score_sum = a.score_sum + d.score_sum, score_square_sum = a.score_square_sum + d.score_square_sum "
+            + "WHEN NOT MATCHED THEN INSERT (movie_id, rating_count, score_sum, score_square_sum) "
+            + "VALUES (d.movie_id, d.rating_count, d.score_sum, d.score_square_sum)",
+            nativeQuery = true)
+    int increment(@Param("movieId") Long movieId, @Param("count") long count,
+                  @Param("sum") long sum, @Param("squareSum") long squareSum);
+
+    @Modifying
+    @Query(value = "INSERT INTO rating_aggregate (movie_id, rating_count, score_sum, score_square_sum) "
+            + "SELECT movie_id, COUNT(*), SUM(score), SUM(CAST(score AS BIGINT) * score) FROM rating GROUP BY movie_id",
+            nativeQuery = true)
+    int rebuildFromRatings();
+
+    @Modifying
+    @Query(value = "MERGE INTO rating_histogram h "
+            + "USING (VALUES (CAST(:movieId AS BIGINT), CAST(:score AS INTEGER), CAST(:count AS BIGINT))) "
+            + "AS d(movie_id, score, rating_count) ON h.movie_id = d.movie_id AND h.score = d.score "
+            + "WHEN MATCHED THEN UPDATE SET rating_count = h.rating_count + d.rating_count "
+            + "WHEN NOT MATCHED THEN INSERT (movie_id, score, rating_count) VALUES (d.movie_id, d.score, d.rating_count)",
+            nativeQuery = true)
+    int incrementHistogram(@Param("movieId") Long movieId, @Param("score") int score, @Param("count") long count);
+
+    @Query(value = "SELECT score, rating_count FROM rating_histogram WHERE movie_id = :movieId", nativeQuery = true)
+    List<Object[]> findHistogram(@Param("movieId") Long movieId);
+
+    @Modifying
+    @Query(value = "DELETE FROM rating_histogram", nativeQuery = true)
+    int deleteHistograms();
+
+    @Modifying
+    @Query(value = "INSERT INTO rating_histogram (movie_id, score, rating_count) "
+            + "SELECT movie_id, score, COUNT(*) FROM rating WHERE movie_id IS NOT NULL GROUP BY movie_id, score",
+            nativeQuery = true)
+    int rebuildHistogramsFromRatings();
+
+    @Query("select sum(a.scoreSum) * 1.0 / sum(a.ratingCount) from RatingAggregate a")
+    Double meanScore();
+
+    @Transactional(readOnly = true)
+    @Query("select new com.example.movierating.dto.MovieAverageDTO(a.movieId, a.scoreSum * 1.0 / a.ratingCount, a.ratingCount) "
+            + "from RatingAggregate a where a.movieId in :movieIds")
+    List<MovieAverageDTO> findAverages(@Param("movieIds") Collection<Long> movieIds);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select a.movieId, a.ratingCount, a.scoreSum, a.scoreSquareSum from RatingAggregate a")
+    Stream<Object[]> streamTotals();
+}
@@ -1,10 +1,45 @@
 package com.example.movierating.repository;
 
+import com.example.movierating.dto.RatingResponseDTO;
 import com.example.movierating.entity.Rating;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import jakarta.persistence.QueryHint;
+import java.time.Instant;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 public interface RatingRepository extends JpaRepository<Rating, Long> {
     List<Rating> findByMovieId(Long movieId);
+
+    @Query("select new com.example.movierating.dto.RatingResponseDTO(r.id, r.movieId, r.score, r.comment) "
+            + "from Rating r where r.movieId = :movieId order by r.id")
+    List<RatingResponseDTO> listByMovieId(@Param("movieId") Long movieId);
+
+    @Query("select new com.example.movierating.dto.RatingResponseDTO(r.id, r.movieId, r.score, r.comment) "
+            + "from Rating r where r.movieId = :movieId and r.id > :afterId order by r.id")
+    List<RatingResponseDTO> findPageAfter(@Param("movieId") Long movieId, @Param("afterId") Long afterId,
+                                          Pageable pageable);
+
+    @Query("select new com.example.movierating.dto.RatingResponseDTO(r.id, r.movieId, r.score, r.comment) "
+            + "from Rating r where r.movieId = :movieId "
+            + "and (r.score < :score or (r.score = :score and r.id > :afterId)) order by r.score desc, r.id")
+    List<RatingResponseDTO> findPageByScoreAfter(@Param("movieId") Long movieId, @Param("score") int score,
+                                                 @Param("afterId") Long afterId, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.example.movierating.dto.RatingResponseDTO(r.id, r.movieId, r.score, r.comment) "
+            + "from Rating r where r.movieId = :movieId order by r.id")
+    Stream<RatingResponseDTO> streamByMovieId(@Param("movieId") Long movieId);
+
+    /** Rows of {id, movieId, createdAt} for every rating created at or after {@code since}. */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select r.id, r.movieId, r.createdAt from Rating r where r.createdAt >= :since")
+    Stream<Object[]> streamCreatedSince(@Param("since") Instant since);
 }
@@ -0,0 +1,68 @@
+package com.example.movierating.service;
+
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Version counters behind the ETags of the movie listing and of per-movie averages. The catalogue has
+ * one counter; movies share 65,536 hashed slots, so a rating also changes the tag of the few movies in
+ * its slot, which costs those clients one full response and never serves stale data. Tags start with
+ * the startup time, so counters restarting from zero cannot repeat a tag from an earlier run.
+ *
+ * <p>Counters are bumped after the change is committed and read before the response is built, so a
+ * tag may describe older data than the body but never newer.
+ */
+@Service
+public class ContentVersions {
+    private static final int MOVIE_SLOTS = 1 << 16;
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong catalogue = new AtomicLong();
+    private final AtomicLong ratingGeneration = new AtomicLong();
+    private final AtomicLongArray movies = new AtomicLongArray(MOVIE_SLOTS);
+
+    public String catalogueTag() {
+        return "W/\"" + epoch + "-" + catalogue.get() + "\"";
+    }
+
+    public String movieTag(long movieId) {
+        return "W/\"" + epoch + "-" + ratingGeneration.get() + "-" + movies.get(slot(movieId)) + "\"";
+    }
+
+    public void catalogueChangedAfterCommit() {
+        TransactionCallbacks.afterCommit(catalogue::incrementAndGet);
+    }
+
+    public void movieChangedAfterCommit(long movieId) {
+        TransactionCallbacks.afterCommit(() -> movieChanged(movieId));
+    }
+
+    public void movieChanged(long movieId) {
+        movies.incrementAndGet(slot(movieId));
+    }
+
+    public void allMoviesChanged() {
+        ratingGeneration.incrementAndGet();
+    }
+
+    /** Weak comparison of an {@code If-None-Match} header against a tag, as RFC 9110 requires for GET. */
+    public static boolean matches(String ifNoneMatch, String tag) {
+        if (ifNoneMatch == null) return false;
+        String opaque = opaque(tag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals("*") || opaque(trimmed).equals(opaque)) return true;
+        }
+        return false;
+    }
+
+    private static String opaque(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    private static int slot(long movieId) {
+        return (int) ((movieId * 0x9E3779B97F4A7C15L) >>> (Long.SIZE - Integer.numberOfTrailingZeros(MOVIE_SLOTS)));
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.movierating.service;
+
+import com.example.movierating.dto.MovieResponseDTO;
+import com.example.movierating.replica.ReplicaRouting;
+import com.example.movierating.repository.MovieRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+/**
+ * Bloom filter over the normalized title and year of every movie. A negative answer means no movie
+ * with that title and year exists, so {@link MovieService} can insert without first querying; a
+ * positive answer only means "maybe" and is confirmed with {@code findByTitleAndYear}. Normalizing
+ * can only merge keys, never split them, so it adds false positives but no false negatives.
+ *
+ * <p>Movies are never deleted, so bits are only ever set. Setting a bit is a lock-free OR, which
+ * makes a rebuild safe to run while movies are being added.
+ */
+@Service
+public class MovieKeyFilter {
+    private final MovieRepository movieRepository;
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    public MovieKeyFilter(MovieRepository movieRepository,
+                          @Value("${movies.duplicate-filter.expected-movies:1000000}") long expectedMovies,
+                          @Value("${movies.duplicate-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.movieRepository = movieRepository;
+        double n = Math.max(1, expectedMovies);
+        double p = Math.min(0.5, Math.max(1e-9, falsePositiveRate));
+        long words = Math.max(1, (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)) / Long.SIZE));
+        this.bits = new AtomicLongArray(Math.toIntExact(words));
+        this.bitCount = words * Long.SIZE;
+        this.hashCount = Math.max(1, (int) Math.round(bitCount / n * Math.log(2)));
+    }
+
+    public boolean mightContain(String title, Integer year) {
+        long hash = hash(title, year);
+        long h1 = hash >>> 32;
+        long h2 = hash & 0xFFFFFFFFL | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    public void add(String title, Integer year) {
+        long hash = hash(title, year);
+        long h1 = hash >>> 32;
+        long h2 = hash & 0xFFFFFFFFL | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            long mask = 1L << bit;
+            int word = (int) (bit >>> 6);
+            long current = bits.get(word);
+            while ((current & mask) == 0) {
+                long witness = bits.compareAndExchange(word, current, current | mask);
+                if (witness == current) break;
+                current = witness;
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true, propagation = Propagation.REQUIRES_NEW)
+    public void rebuild() {
+        try (Stream<MovieResponseDTO> movies = ReplicaRouting.onPrimary(movieRepository::streamAll)) {
+            movies.forEach(m -> add(m.getTitle(), m.getYear()));
+        }
+    }
+
+    public long bitCount() {
+        return bitCount;
+    }
+
+    public int hashCount() {
+        return hashCount;
+    }
+
+    /** 64-bit FNV-1a over the normalized title and the year, finished with a murmur3 mix. */
+    private static long hash(String title, Integer year) {
+        long h = 0xCBF29CE484222325L;
+        String key = MovieTitleIndex.normalize(title);
+        for (int i = 0; i < key.length(); i++) {
+            h = (h ^ key.charAt(i)) * 0x100000001B3L;
+        }
+        h = (h ^ (year == null ? -1 : year)) * 0x100000001B3L;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB93FE1A85A4FL;
+        return h ^ (h >>> 33);
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.movierating.service;
+
+import com.example.movierating.dto.TopMovieDTO;
+import com.example.movierating.entity.Movie;
+import com.example.movierating.entity.Rating;
+import com.example.movierating.entity.RatingAggregate;
+import com.example.movierating.replica.ReplicaRouting;
+import com.example.movierating.repository.MovieRepository;
+import com.example.movierating.repository.RatingAggregateRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Rated movies kept in skip lists ordered by Bayesian-weighted average, globally and per year, so a
+ * top-N query walks the head of a list instead of touching every movie. Each ranking is also kept
+ * per vote tier (at least 1, 10, 100, ... votes), so a {@code minVotes} filter starts from the tier
+ * just below it and only steps over movies with at least a tenth of the votes asked for. Updates carry absolute
+ * counts and sums read from {@code rating_aggregate} and only ever move a movie forward, so they can
+ * arrive out of order. The prior mean is the catalogue-wide mean at the last rebuild.
+ */
+@Service
+public class MovieLeaderboard {
+    static final int DEFAULT_LIMIT = 10;
+    static final int MAX_LIMIT = 100;
+
+    private static final Comparator<Entry> RANKING = Comparator
+            .comparingDouble((Entry e) -> e.weightedAverage).reversed()
+            .thenComparing(e -> e.movieId);
+
+    private final MovieRepository movieRepository;
+    private final RatingAggregateRepository aggregateRepository;
+    private final double priorWeight;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final Ranking ranked = new Ranking();
+    private final Map<Integer, Ranking> rankedByYear = new ConcurrentHashMap<>();
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+    private volatile double priorMean = (Rating.MIN_SCORE + Rating.MAX_SCORE) / 2.0;
+
+    public MovieLeaderboard(MovieRepository movieRepository, RatingAggregateRepository aggregateRepository,
+                            @Value("${movies.top.prior-weight:25}") double priorWeight) {
+        this.movieRepository = movieRepository;
+        this.aggregateRepository = aggregateRepository;
+        this.priorWeight = priorWeight;
+    }
+
+    public List<TopMovieDTO> top(Integer year, Long minVotes, Integer limit) {
+        int size = limit(limit);
+        long votes = minVotes == null || minVotes < 1 ? 1 : minVotes;
+        Ranking ranking = year == null ? ranked : rankedByYear.get(year);
+        List<TopMovieDTO> result = new ArrayList<>(size);
+        if (ranking == null) return result;
+        for (Entry e : ranking.atLeast(votes)) {
+            if (e.ratingCount < votes) continue;
+            result.add(new TopMovieDTO(e.movieId, e.title, e.year, e.ratingCount,
+                    (double) e.scoreSum / e.ratingCount, e.weightedAverage));
+            if (result.size() == size) break;
+        }
+        return result;
+    }
+
+    /**
+     * Ranks the movie with the aggregate's totals once the surrounding transaction commits. The
+     * title is looked up now, while the transaction is still usable.
+     */
+    public void recordAfterCommit(RatingAggregate aggregate) {
+        Long movieId = aggregate.getMovieId();
+        long count = aggregate.getRatingCount();
+        long sum = aggregate.getScoreSum();
+        Entry known = entries.get(movieId);
+        if (known != null) {
+            TransactionCallbacks.afterCommit(() -> update(movieId, known.title, known.year, count, sum));
+            return;
+        }
+        Optional<Movie> movie = movieRepository.findById(movieId);
+        movie.ifPresent(m -> TransactionCallbacks.afterCommit(() -> update(movieId, m.getTitle(), m.getYear(), count, sum)));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true, propagation = Propagation.REQUIRES_NEW)
+    public void rebuild() {
+        Double mean = ReplicaRouting.onPrimary(aggregateRepository::meanScore);
+        rebuildLock.writeLock().lock();
+        try {
+            if (mean != null) priorMean = mean;
+            entries.clear();
+            ranked.clear();
+            rankedByYear.clear();
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+        try (Stream<Object[]> rows = movieRepository.streamRated()) {
+            rows.forEach(r -> update((Long) r[0], (String) r[1], (Integer) r[2],
+                    ((Number) r[3]).longValue(), ((Number) r[4]).longValue()));
+        }
+    }
+
+    void update(Long movieId, String title, Integer year, long ratingCount, long scoreSum) {
+        if (ratingCount < 1) return;
+        rebuildLock.readLock().lock();
+        try {
+            entries.compute(movieId, (id, current) -> {
+                if (current != null && current.ratingCount >= ratingCount) return current;
+                Entry next = new Entry(id, title, year, ratingCount, scoreSum,
+                        (priorWeight * priorMean + scoreSum) / (priorWeight + ratingCount));
+                if (current != null) {
+                    ranked.remove(current);
+                    if (current.year != null) rankedByYear.get(current.year).remove(current);
+                }
+                ranked.add(next);
+                if (year != null) {
+                    rankedByYear.computeIfAbsent(year, y -> new Ranking()).add(next);
+                }
+                return next;
+            });
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    static int limit(Integer limit) {
+        if (limit == null || limit < 1) return DEFAULT_LIMIT;
+        return Math.min(limit, MAX_LIMIT);
+    }
+
+    /** One ranking, held once per vote tier; tier {@code t} holds the movies with at least 10^t votes. */
+    private static final class Ranking {
+        private static final int TIERS = 7;
+
+        @SuppressWarnings("unchecked")
+        private final NavigableSet<Entry>[] tiers = new NavigableSet[TIERS];
+
+        Ranking() {
+            for (int t = 0; t < TIERS; t++) tiers[t] = new ConcurrentSkipListSet<>(RANKING);
+        }
+
+        void add(Entry e) {
+            for (int t = 0; t <= tier(e.ratingCount); t++) tiers[t].add(e);
+        }
+
+        void remove(Entry e) {
+            for (int t = 0; t <= tier(e.ratingCount); t++) tiers[t].remove(e);
+        }
+
+        void clear() {
+            for (NavigableSet<Entry> tier : tiers) tier.clear();
+        }
+
+        NavigableSet<Entry> atLeast(long votes) {
+            return tiers[tier(votes)];
+        }
+
+        private static int tier(long votes) {
+            int t = 0;
+            for (long floor = 10; floor <= votes && t < TIERS - 1; floor *= 10) t++;
+            return t;
+        }
+    }
+
+    private static final class Entry {
+        private final Long movieId;
+        private final String title;
+        private final Integer year;
+        private final long ratingCount;
+        private final long scoreSum;
+        private final double weightedAverage;
+
+        private Entry(Long movieId, String title, Integer year, long ratingCount, long scoreSum,
+                      double weightedAverage) {
+            this.movieId = movieId;
+            this.title = title;
+            this.year = year;
+            this.ratingCount = ratingCount;
+            this.scoreSum = scoreSum;
+            this.weightedAverage = weightedAverage;
+        }
+    }
+}
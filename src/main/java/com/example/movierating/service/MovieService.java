@@ -1,39 +1,143 @@
 package com.example.movierating.service;
 
+import com.example.movierating.config.CacheConfig;
+import com.example.movierating.dto.CursorPageDTO;
 import com.example.movierating.dto.MovieRequestDTO;
 import com.example.movierating.dto.MovieResponseDTO;
 import com.example.movierating.entity.Movie;
+import com.example.movierating.exception.InvalidCursorException;
 import com.example.movierating.exception.MovieAlreadyExistsException;
 import com.example.movierating.repository.MovieRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = "movierating.service", histogram = true)
 public class MovieService {
+    static final int DEFAULT_PAGE_SIZE = 100;
+    static final int MAX_PAGE_SIZE = 1000;
+
     private final MovieRepository repository;
+    private final MovieTitleIndex titleIndex;
+    private final MovieKeyFilter keyFilter;
+    private final ContentVersions versions;
+    private final TransactionOperations transactions;
 
-    public MovieService(MovieRepository repository) {
+    public MovieService(MovieRepository repository, MovieTitleIndex titleIndex, MovieKeyFilter keyFilter,
+                        ContentVersions versions, TransactionOperations transactions) {
         this.repository = repository;
+        this.titleIndex = titleIndex;
+        this.keyFilter = keyFilter;
+        this.versions = versions;
+        this.transactions = transactions;
     }
 
+    @CacheEvict(cacheNames = CacheConfig.MOVIE_PAGES, allEntries = true)
     public MovieResponseDTO createMovie(MovieRequestDTO dto) {
+        if (findExisting(dto).isPresent()) {
+            throw duplicate(dto);
+        }
+        try {
+            return insert(dto);
+        } catch (DataIntegrityViolationException e) {
+            // Only reached before the filter has been rebuilt at startup, or on a concurrent insert.
+            keyFilter.add(dto.getTitle(), dto.getYear());
+            throw duplicate(dto);
+        }
+    }
+
+    /** Like {@link #createMovie}, but a movie that already exists is returned instead of rejected. */
+    @CacheEvict(cacheNames = CacheConfig.MOVIE_PAGES, allEntries = true)
+    public MovieResponseDTO createOrGetMovie(MovieRequestDTO dto) {
+        Optional<MovieResponseDTO> existing = findExisting(dto);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
         try {
-            Movie m = new Movie(dto.getTitle(), dto.getYear());
-            Movie saved = repository.save(m);
-            return new MovieResponseDTO(saved.getId(), saved.getTitle(), saved.getYear());
+            return insert(dto);
         } catch (DataIntegrityViolationException e) {
-            throw new MovieAlreadyExistsException(
-                    String.format("Movie with title '%s' and year %d already exists", 
-                            dto.getTitle(), dto.getYear()));
+            // A concurrent request inserted the same movie between the lookup and the insert.
+            keyFilter.add(dto.getTitle(), dto.getYear());
+            return repository.findByTitleAndYear(dto.getTitle(), dto.getYear())
+                    .map(MovieService::toDto)
+                    .orElseThrow(() -> e);
+        }
+    }
+
+    @Cacheable(CacheConfig.MOVIE_PAGES)
+    @Transactional(readOnly = true)
+    public CursorPageDTO<MovieResponseDTO> listMovies(String cursor, Integer limit) {
+        int size = pageSize(limit);
+        List<MovieResponseDTO> rows = repository.findPageAfter(parseCursor(cursor), PageRequest.of(0, size + 1));
+        if (rows.size() <= size) {
+            return new CursorPageDTO<>(rows, null);
+        }
+        List<MovieResponseDTO> page = rows.subList(0, size);
+        return new CursorPageDTO<>(page, String.valueOf(page.get(size - 1).getId()));
+    }
+
+    @Transactional(readOnly = true)
+    public void streamMovies(Consumer<MovieResponseDTO> sink) {
+        try (Stream<MovieResponseDTO> movies = repository.streamAll()) {
+            movies.forEach(sink);
         }
     }
 
-    public List<MovieResponseDTO> listMovies() {
-        return repository.findAll().stream()
-                .map(m -> new MovieResponseDTO(m.getId(), m.getTitle(), m.getYear()))
-                .collect(Collectors.toList());
+    /** Only movies the key filter might already hold cost a query; new titles go straight to insert. */
+    private Optional<MovieResponseDTO> findExisting(MovieRequestDTO dto) {
+        if (!keyFilter.mightContain(dto.getTitle(), dto.getYear())) {
+            return Optional.empty();
+        }
+        return repository.findByTitleAndYear(dto.getTitle(), dto.getYear()).map(MovieService::toDto);
+    }
+
+    /**
+     * Inserts in a transaction of its own, so the in-memory indexes only see committed movies and a
+     * duplicate key rolls back before the callers fall back to a lookup.
+     */
+    private MovieResponseDTO insert(MovieRequestDTO dto) {
+        return transactions.execute(status -> {
+            Movie saved = repository.save(new Movie(dto.getTitle(), dto.getYear()));
+            MovieResponseDTO result = toDto(saved);
+            keyFilter.add(saved.getTitle(), saved.getYear());
+            titleIndex.addAfterCommit(result);
+            versions.catalogueChangedAfterCommit();
+            return result;
+        });
+    }
+
+    private static MovieResponseDTO toDto(Movie movie) {
+        return new MovieResponseDTO(movie.getId(), movie.getTitle(), movie.getYear());
+    }
+
+    private static MovieAlreadyExistsException duplicate(MovieRequestDTO dto) {
+        return new MovieAlreadyExistsException(
+                String.format("Movie with title '%s' and year %d already exists",
+                        dto.getTitle(), dto.getYear()));
+    }
+
+    static int pageSize(Integer limit) {
+        if (limit == null || limit < 1) return DEFAULT_PAGE_SIZE;
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
+    private static long parseCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) return 0L;
+        try {
+            return Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException(String.format("Invalid cursor '%s'", cursor));
+        }
     }
 }
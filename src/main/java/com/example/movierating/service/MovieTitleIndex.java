@@ -0,0 +1,452 @@
+package com.example.movierating.service;
+
+import com.example.movierating.dto.MovieResponseDTO;
+import com.example.movierating.replica.ReplicaRouting;
+import com.example.movierating.repository.MovieRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Type-ahead index over movie titles. Titles are normalized (lower case, accents and punctuation
+ * dropped) and split into words. A sorted word map answers prefix queries the way a trie would. When
+ * prefix matching returns fewer than {@code limit} hits, trigram postings over the vocabulary find
+ * words with typos. Postings are growable {@code int[]} lists in insertion order, so they stay sorted.
+ * A rebuild loads a fresh index and swaps it in, so searches never see a half-loaded catalogue.
+ */
+@Service
+public class MovieTitleIndex {
+    static final int DEFAULT_LIMIT = 10;
+    static final int MAX_LIMIT = 50;
+    private static final int MAX_CANDIDATES = 2000;
+    private static final int MAX_SIMILAR_WORDS = 20;
+    private static final double MIN_SIMILARITY = 0.3;
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    private final MovieRepository movieRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Index index = new Index();
+    private List<MovieResponseDTO> addedDuringRebuild;
+
+    public MovieTitleIndex(MovieRepository movieRepository) {
+        this.movieRepository = movieRepository;
+    }
+
+    /**
+     * Titles whose words start with the query's words, best first: titles starting with the whole
+     * query, then other word-prefix matches (shorter titles first), then fuzzy trigram matches by
+     * similarity.
+     */
+    public List<MovieResponseDTO> search(String query, Integer limit) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty()) return new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            return index.search(normalized, limit(limit));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Indexes the movie once the surrounding transaction commits, or now when there is none. */
+    public void addAfterCommit(MovieResponseDTO movie) {
+        TransactionCallbacks.afterCommit(() -> add(movie));
+    }
+
+    void add(MovieResponseDTO movie) {
+        lock.writeLock().lock();
+        try {
+            index.add(movie);
+            if (addedDuringRebuild != null) addedDuringRebuild.add(movie);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true, propagation = Propagation.REQUIRES_NEW)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            addedDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Index fresh = new Index();
+        boolean loaded = false;
+        try {
+            try (Stream<MovieResponseDTO> movies = ReplicaRouting.onPrimary(movieRepository::streamAll)) {
+                movies.forEach(fresh::add);
+            }
+            loaded = true;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (loaded) {
+                    // Movies committed while the stream was open may or may not be in it.
+                    for (MovieResponseDTO movie : addedDuringRebuild) {
+                        if (!fresh.contains(movie)) fresh.add(movie);
+                    }
+                    index = fresh;
+                }
+                addedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static int limit(Integer limit) {
+        if (limit == null || limit < 1) return DEFAULT_LIMIT;
+        return Math.min(limit, MAX_LIMIT);
+    }
+
+    static String normalize(String text) {
+        if (text == null) return "";
+        String stripped = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARATORS.matcher(stripped.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    /** Distinct trigrams of a word padded with two spaces in front and one behind, as pg_trgm does. */
+    static Set<String> trigrams(String word) {
+        Set<String> grams = new LinkedHashSet<>();
+        String padded = "  " + word + " ";
+        for (int i = 0; i + 3 <= padded.length(); i++) grams.add(padded.substring(i, i + 3));
+        return grams;
+    }
+
+    /**
+     * Documents are numbered in insertion order, which is id order after a rebuild. Words map to the
+     * documents that contain them, and trigrams map to word numbers, so fuzzy matching runs over the
+     * vocabulary rather than over every title.
+     */
+    private static final class Index {
+        private final NavigableMap<String, Word> words = new TreeMap<>();
+        private final List<Word> vocabulary = new ArrayList<>();
+        private final Map<String, IntList> grams = new HashMap<>();
+        private long[] movieIds = new long[1024];
+        private MovieResponseDTO[] movies = new MovieResponseDTO[1024];
+        private String[] normalized = new String[1024];
+        private int[][] docWords = new int[1024][];
+        private int size;
+
+        void add(MovieResponseDTO movie) {
+            String text = normalize(movie.getTitle());
+            if (text.isEmpty()) return;
+            if (size == movieIds.length) {
+                int capacity = size * 2;
+                movieIds = Arrays.copyOf(movieIds, capacity);
+                movies = Arrays.copyOf(movies, capacity);
+                normalized = Arrays.copyOf(normalized, capacity);
+                docWords = Arrays.copyOf(docWords, capacity);
+            }
+            int doc = size++;
+            movieIds[doc] = movie.getId();
+            movies[doc] = movie;
+            normalized[doc] = text;
+            Set<String> terms = new LinkedHashSet<>(Arrays.asList(text.split(" ")));
+            int[] ids = new int[terms.size()];
+            int n = 0;
+            for (String term : terms) {
+                Word word = words.get(term);
+                if (word == null) {
+                    Set<String> wordGrams = trigrams(term);
+                    word = new Word(vocabulary.size(), term, wordGrams.size());
+                    words.put(term, word);
+                    vocabulary.add(word);
+                    for (String gram : wordGrams) grams.computeIfAbsent(gram, g -> new IntList()).add(word.id);
+                }
+                word.docs.add(doc);
+                ids[n++] = word.id;
+            }
+            docWords[doc] = ids;
+        }
+
+        boolean contains(MovieResponseDTO movie) {
+            IntList rarest = null;
+            for (String term : normalize(movie.getTitle()).split(" ")) {
+                Word word = words.get(term);
+                if (word == null) return false;
+                if (rarest == null || word.docs.size < rarest.size) rarest = word.docs;
+            }
+            if (rarest == null) return false;
+            for (int i = 0; i < rarest.size; i++) {
+                if (movieIds[rarest.values[i]] == movie.getId()) return true;
+            }
+            return false;
+        }
+
+        List<MovieResponseDTO> search(String query, int limit) {
+            String[] terms = query.split(" ");
+            TopHits top = new TopHits(limit);
+            prefixCandidates(query, terms, top);
+            if (top.size < limit) fuzzyCandidates(terms, top);
+            List<MovieResponseDTO> result = new ArrayList<>(top.size);
+            for (int i = 0; i < top.size; i++) result.add(movies[TopHits.doc(top.keys[i])]);
+            return result;
+        }
+
+        /**
+         * Documents containing every complete query word and a word starting with the last one:
+         * titles starting with the whole query first, then shorter titles.
+         */
+        private void prefixCandidates(String query, String[] terms, TopHits top) {
+            String last = terms[terms.length - 1];
+            int[] complete = new int[terms.length - 1];
+            IntList rarest = null;
+            for (int i = 0; i < complete.length; i++) {
+                Word word = words.get(terms[i]);
+                if (word == null) return;
+                complete[i] = word.id;
+                if (rarest == null || word.docs.size < rarest.size) rarest = word.docs;
+            }
+            if (rarest == null) {
+                int visited = 0;
+                for (Word word : words.subMap(last, true, last + Character.MAX_VALUE, false).values()) {
+                    for (int i = 0; i < word.docs.size; i++) {
+                        if (visited++ == MAX_CANDIDATES) return;
+                        offerPrefix(query, word.docs.values[i], top);
+                    }
+                }
+                return;
+            }
+            for (int i = 0; i < rarest.size && i < MAX_CANDIDATES; i++) {
+                int doc = rarest.values[i];
+                if (matchesTerms(docWords[doc], complete, last)) offerPrefix(query, doc, top);
+            }
+        }
+
+        private void offerPrefix(String query, int doc, TopHits top) {
+            top.offer(TopHits.key(normalized[doc].startsWith(query) ? 0 : 1, 1.0, normalized[doc].length(), doc));
+        }
+
+        private boolean matchesTerms(int[] titleWords, int[] complete, String last) {
+            for (int id : complete) {
+                if (indexOf(titleWords, id) < 0) return false;
+            }
+            for (int id : titleWords) {
+                if (vocabulary.get(id).text.startsWith(last)) return true;
+            }
+            return false;
+        }
+
+        /**
+         * Titles with a word similar to every query word, scored by the mean similarity. Candidates
+         * come from the query word whose similar words cover the fewest documents.
+         */
+        private void fuzzyCandidates(String[] terms, TopHits top) {
+            List<SimilarWords> matches = new ArrayList<>(terms.length);
+            SimilarWords narrowest = null;
+            for (String term : terms) {
+                SimilarWords similar = similarWords(term);
+                if (similar.ids.length == 0) return;
+                if (narrowest == null || similar.docs < narrowest.docs) narrowest = similar;
+                matches.add(similar);
+            }
+            int visited = 0;
+            for (int w = 0; w < narrowest.ids.length && visited < MAX_CANDIDATES; w++) {
+                IntList docs = vocabulary.get(narrowest.ids[w]).docs;
+                visited += docs.size;
+                for (int i = 0; i < docs.size; i++) {
+                    int doc = docs.values[i];
+                    if (top.containsDoc(doc)) continue;
+                    double total = 0;
+                    for (SimilarWords similar : matches) {
+                        double best = similar.best(docWords[doc]);
+                        if (best == 0) {
+                            total = -1;
+                            break;
+                        }
+                        total += best;
+                    }
+                    if (total > 0) top.offer(TopHits.key(2, total / matches.size(), normalized[doc].length(), doc));
+                }
+            }
+        }
+
+        /**
+         * Vocabulary words within {@link #MIN_SIMILARITY} (Dice coefficient over trigrams) of the term,
+         * best first. A word sharing at least {@code s} of the term's {@code k} trigrams must appear in
+         * one of the {@code k - s + 1} rarest posting lists, so only those are scanned; shared counts
+         * against the remaining lists are completed by binary search.
+         */
+        private SimilarWords similarWords(String term) {
+            Set<String> termGrams = trigrams(term);
+            List<IntList> lists = new ArrayList<>();
+            for (String gram : termGrams) {
+                IntList ids = grams.get(gram);
+                if (ids != null) lists.add(ids);
+            }
+            lists.sort(Comparator.comparingInt(l -> l.size));
+            int k = termGrams.size();
+            int minShared = Math.max(1, (int) Math.ceil(MIN_SIMILARITY * (k + 1) / 2));
+            int probed = Math.min(lists.size(), k - minShared + 1);
+            IntList found = new IntList();
+            for (int i = 0; i < probed && found.size < MAX_CANDIDATES; i++) found.addAll(lists.get(i));
+            int[] ids = found.sorted();
+            TopHits best = new TopHits(MAX_SIMILAR_WORDS);
+            for (int i = 0; i < ids.length; ) {
+                int id = ids[i];
+                int shared = 0;
+                while (i < ids.length && ids[i] == id) {
+                    shared++;
+                    i++;
+                }
+                for (int j = probed; j < lists.size(); j++) {
+                    IntList list = lists.get(j);
+                    if (Arrays.binarySearch(list.values, 0, list.size, id) >= 0) shared++;
+                }
+                double similarity = 2.0 * shared / (k + vocabulary.get(id).gramCount);
+                if (similarity >= MIN_SIMILARITY) best.offer(TopHits.key(0, similarity, 0, id));
+            }
+            SimilarWords similar = new SimilarWords(best.size);
+            for (int i = 0; i < best.size; i++) {
+                Word word = vocabulary.get(TopHits.doc(best.keys[i]));
+                similar.ids[i] = word.id;
+                similar.similarities[i] = TopHits.similarity(best.keys[i]);
+                similar.docs += word.docs.size;
+            }
+            return similar;
+        }
+
+        private static int indexOf(int[] values, int value) {
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] == value) return i;
+            }
+            return -1;
+        }
+    }
+
+    private static final class Word {
+        private final int id;
+        private final String text;
+        private final int gramCount;
+        private final IntList docs = new IntList();
+
+        private Word(int id, String text, int gramCount) {
+            this.id = id;
+            this.text = text;
+            this.gramCount = gramCount;
+        }
+    }
+
+    private static final class SimilarWords {
+        private final int[] ids;
+        private final double[] similarities;
+        private long docs;
+
+        private SimilarWords(int size) {
+            this.ids = new int[size];
+            this.similarities = new double[size];
+        }
+
+        double best(int[] titleWords) {
+            double best = 0;
+            for (int id : titleWords) {
+                int i = Index.indexOf(ids, id);
+                if (i >= 0) best = Math.max(best, similarities[i]);
+            }
+            return best;
+        }
+    }
+
+    /**
+     * The {@code limit} smallest ranking keys seen, kept sorted. A key packs tier (2 bits), inverted
+     * similarity (12 bits), title length (12 bits) and document number (31 bits), so comparing keys
+     * ranks hits without allocating one object per candidate.
+     */
+    private static final class TopHits {
+        private static final int SIMILARITY_STEPS = 4095;
+        private final long[] keys;
+        private int size;
+
+        TopHits(int limit) {
+            keys = new long[limit];
+        }
+
+        static long key(int tier, double similarity, int length, int doc) {
+            long dissimilarity = Math.round((1.0 - similarity) * SIMILARITY_STEPS);
+            return (long) tier << 55 | dissimilarity << 43 | (long) Math.min(length, 4095) << 31 | doc;
+        }
+
+        static int doc(long key) {
+            return (int) (key & Integer.MAX_VALUE);
+        }
+
+        static double similarity(long key) {
+            return 1.0 - ((key >>> 43) & SIMILARITY_STEPS) / (double) SIMILARITY_STEPS;
+        }
+
+        boolean containsDoc(int doc) {
+            for (int i = 0; i < size; i++) {
+                if (doc(keys[i]) == doc) return true;
+            }
+            return false;
+        }
+
+        void offer(long key) {
+            if (keys.length == 0 || (size == keys.length && key >= keys[size - 1])) return;
+            if (containsDoc(doc(key))) return;
+            int i = size == keys.length ? size - 1 : size++;
+            while (i > 0 && keys[i - 1] > key) {
+                keys[i] = keys[i - 1];
+                i--;
+            }
+            keys[i] = key;
+        }
+    }
+
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        void addAll(IntList other) {
+            if (size + other.size > values.length) {
+                values = Arrays.copyOf(values, Math.max(values.length * 2, size + other.size));
+            }
+            System.arraycopy(other.values, 0, values, size, other.size);
+            size += other.size;
+        }
+
+        int[] sorted() {
+            int[] copy = Arrays.copyOf(values, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
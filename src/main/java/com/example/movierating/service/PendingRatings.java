@@ -0,0 +1,37 @@
+package com.example.movierating.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Count and score sum per movie of ratings accepted by {@link RatingWriteBehindBuffer} but not yet
+ * committed, so averages can include them.
+ */
+@Component
+public class PendingRatings {
+    private final Map<Long, long[]> totals = new ConcurrentHashMap<>();
+
+    void add(Long movieId, int score) {
+        totals.compute(movieId, (id, t) -> {
+            long[] next = t == null ? new long[2] : t.clone();
+            next[0]++;
+            next[1] += score;
+            return next;
+        });
+    }
+
+    void settle(Long movieId, long count, long sum) {
+        totals.computeIfPresent(movieId, (id, t) -> {
+            long remaining = t[0] - count;
+            return remaining <= 0 ? null : new long[] {remaining, t[1] - sum};
+        });
+    }
+
+    /** {count, sum} of pending ratings for the movie; both zero when nothing is pending. */
+    long[] totals(Long movieId) {
+        long[] t = totals.get(movieId);
+        return t == null ? new long[2] : t;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.movierating.service;
+
+import com.example.movierating.config.CacheConfig;
+import com.example.movierating.dto.RatingBatchResultDTO;
+import com.example.movierating.dto.RatingBatchRowDTO;
+import com.example.movierating.dto.RatingRequestDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+@Service
+public class RatingBatchService {
+    private final RatingService ratingService;
+    private final CacheManager cacheManager;
+    private final int chunkSize;
+
+    public RatingBatchService(RatingService ratingService, CacheManager cacheManager,
+                              @Value("${ratings.batch.chunk-size:1000}") int chunkSize) {
+        this.ratingService = ratingService;
+        this.cacheManager = cacheManager;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     * Writes {@code rows} in chunks as they are read. When the input turns unreadable part-way, the
+     * rows read before it are still written, and the result carries the error next to their
+     * outcomes, so the caller knows exactly which rows were stored.
+     */
+    public RatingBatchResultDTO ingest(Iterator<RatingRequestDTO> rows) {
+        List<RatingBatchRowDTO> results = new ArrayList<>();
+        List<RatingRequestDTO> chunk = new ArrayList<>(chunkSize);
+        String error = null;
+        while (true) {
+            try {
+                if (!rows.hasNext()) break;
+                chunk.add(rows.next());
+            } catch (RuntimeException e) {
+                error = String.format("Row %d could not be read: %s", results.size() + chunk.size(), e.getMessage());
+                break;
+            }
+            if (chunk.size() == chunkSize) {
+                results.addAll(writeChunk(chunk, results.size()));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            results.addAll(writeChunk(chunk, results.size()));
+        }
+
+        int created = 0;
+        int rejected = 0;
+        for (RatingBatchRowDTO row : results) {
+            if (RatingBatchRowDTO.CREATED.equals(row.getStatus())) created++;
+            else if (RatingBatchRowDTO.REJECTED.equals(row.getStatus())) rejected++;
+        }
+        RatingBatchResultDTO result = new RatingBatchResultDTO(created, rejected, results.size() - created - rejected, results);
+        result.setError(error);
+        return result;
+    }
+
+    private List<RatingBatchRowDTO> writeChunk(List<RatingRequestDTO> chunk, int firstIndex) {
+        try {
+            List<RatingBatchRowDTO> written = ratingService.addRatings(chunk, firstIndex);
+            evictAverages(chunk);
+            return written;
+        } catch (DataAccessException e) {
+            List<RatingBatchRowDTO> failed = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                failed.add(new RatingBatchRowDTO(firstIndex + i, null, RatingBatchRowDTO.FAILED,
+                        e.getMostSpecificCause().getMessage()));
+            }
+            return failed;
+        }
+    }
+
+    private void evictAverages(List<RatingRequestDTO> chunk) {
+        Cache averages = cacheManager.getCache(CacheConfig.MOVIE_AVERAGES);
+        if (averages == null) return;
+        chunk.stream()
+                .filter(dto -> dto != null && dto.getMovieId() != null)
+                .map(RatingRequestDTO::getMovieId)
+                .distinct()
+                .forEach(averages::evict);
+    }
+}
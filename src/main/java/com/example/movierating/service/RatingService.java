@@ -1,28 +1,88 @@
 package com.example.movierating.service;
 
+import com.example.movierating.config.CacheConfig;
+import com.example.movierating.dto.CursorPageDTO;
+import com.example.movierating.dto.MovieAverageDTO;
+import com.example.movierating.dto.MovieStatsDTO;
+import com.example.movierating.dto.RatingBatchRowDTO;
 import com.example.movierating.dto.RatingRequestDTO;
 import com.example.movierating.dto.RatingResponseDTO;
 import com.example.movierating.entity.Rating;
+import com.example.movierating.entity.RatingAggregate;
+import com.example.movierating.exception.InvalidCursorException;
+import com.example.movierating.exception.InvalidRatingException;
+import com.example.movierating.exception.InvalidSortException;
 import com.example.movierating.exception.RatingAlreadyExistsException;
+import com.example.movierating.exception.TooManyIdsException;
+import com.example.movierating.journal.RatingJournal;
+import com.example.movierating.repository.RatingAggregateRepository;
 import com.example.movierating.repository.RatingRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = "movierating.service", histogram = true)
 public class RatingService {
+    static final int MAX_AVERAGE_IDS = 1000;
+    static final String SORT_BY_ID = "id";
+    static final String SORT_BY_SCORE = "score";
+    static final int HISTOGRAM_SIZE = Rating.MAX_SCORE - Rating.MIN_SCORE + 1;
+
     private final RatingRepository repository;
+    private final RatingAggregateRepository aggregateRepository;
+    private final MovieLeaderboard leaderboard;
+    private final PendingRatings pendingRatings;
+    private final RatingStatisticsStore statisticsStore;
+    private final ContentVersions versions;
+    private final RatingJournal journal;
+    private final TrendingWindows trending;
 
-    public RatingService(RatingRepository repository) {
+    public RatingService(RatingRepository repository, RatingAggregateRepository aggregateRepository,
+                         MovieLeaderboard leaderboard, PendingRatings pendingRatings,
+                         RatingStatisticsStore statisticsStore, ContentVersions versions, RatingJournal journal,
+                         TrendingWindows trending) {
         this.repository = repository;
+        this.aggregateRepository = aggregateRepository;
+        this.leaderboard = leaderboard;
+        this.pendingRatings = pendingRatings;
+        this.statisticsStore = statisticsStore;
+        this.versions = versions;
+        this.journal = journal;
+        this.trending = trending;
     }
 
+    @CacheEvict(cacheNames = CacheConfig.MOVIE_AVERAGES, key = "#dto.movieId")
+    @Transactional
     public RatingResponseDTO addRating(RatingRequestDTO dto) {
+        String error = validate(dto);
+        if (error != null) throw new InvalidRatingException(error);
         try {
             Rating r = new Rating(dto.getMovieId(), dto.getScore(), dto.getComment());
             Rating saved = repository.save(r);
+            long score = saved.getScore();
+            aggregateRepository.increment(saved.getMovieId(), 1, score, score * score);
+            aggregateRepository.incrementHistogram(saved.getMovieId(), saved.getScore(), 1);
+            aggregateRepository.findById(saved.getMovieId()).ifPresent(this::recordAfterCommit);
+            journalAfterCommit(List.of(saved));
+            trending.recordAfterCommit(List.of(saved));
             return new RatingResponseDTO(saved.getId(), saved.getMovieId(), saved.getScore(), saved.getComment());
         } catch (DataIntegrityViolationException e) {
             throw new RatingAlreadyExistsException(
@@ -31,15 +91,256 @@ public class RatingService {
         }
     }
 
+    @Transactional
+    public List<RatingBatchRowDTO> addRatings(List<RatingRequestDTO> rows, int firstIndex) {
+        return insert(rows, firstIndex, null);
+    }
+
+    /**
+     * Stores ratings taken by {@link RatingWriteBehindBuffer}. {@code settlePending} runs in the same
+     * after-commit step that publishes the movies' new totals to the statistics store, so an average
+     * never counts a rating both as pending and as stored.
+     */
+    @Transactional
+    public List<RatingBatchRowDTO> addBufferedRatings(List<RatingRequestDTO> rows, Runnable settlePending) {
+        return insert(rows, 0, settlePending);
+    }
+
+    private List<RatingBatchRowDTO> insert(List<RatingRequestDTO> rows, int firstIndex, Runnable settlePending) {
+        RatingBatchRowDTO[] results = new RatingBatchRowDTO[rows.size()];
+        List<Rating> accepted = new ArrayList<>(rows.size());
+        int[] acceptedPositions = new int[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            RatingRequestDTO dto = rows.get(i);
+            String error = validate(dto);
+            if (error != null) {
+                results[i] = new RatingBatchRowDTO(firstIndex + i, null, RatingBatchRowDTO.REJECTED, error);
+            } else {
+                acceptedPositions[accepted.size()] = i;
+                accepted.add(new Rating(dto.getMovieId(), dto.getScore(), dto.getComment()));
+            }
+        }
+
+        List<Rating> saved = repository.saveAll(accepted);
+        Map<Long, long[]> deltas = new HashMap<>();
+        Map<Long, long[]> histograms = new HashMap<>();
+        for (int j = 0; j < saved.size(); j++) {
+            Rating r = saved.get(j);
+            int position = acceptedPositions[j];
+            results[position] = new RatingBatchRowDTO(firstIndex + position, r.getId(), RatingBatchRowDTO.CREATED, null);
+            long[] delta = deltas.computeIfAbsent(r.getMovieId(), id -> new long[3]);
+            delta[0]++;
+            delta[1] += r.getScore();
+            delta[2] += (long) r.getScore() * r.getScore();
+            histograms.computeIfAbsent(r.getMovieId(), id -> new long[HISTOGRAM_SIZE])[r.getScore() - Rating.MIN_SCORE]++;
+        }
+        deltas.forEach((movieId, d) -> aggregateRepository.increment(movieId, d[0], d[1], d[2]));
+        histograms.forEach((movieId, h) -> {
+            for (int i = 0; i < h.length; i++) {
+                if (h[i] > 0) aggregateRepository.incrementHistogram(movieId, Rating.MIN_SCORE + i, h[i]);
+            }
+        });
+        recordAfterCommit(aggregateRepository.findAllById(deltas.keySet()), settlePending);
+        journalAfterCommit(saved);
+        trending.recordAfterCommit(saved);
+        return Arrays.asList(results);
+    }
+
+    private void recordAfterCommit(RatingAggregate aggregate) {
+        recordAfterCommit(List.of(aggregate), null);
+    }
+
+    private void recordAfterCommit(List<RatingAggregate> aggregates, Runnable settlePending) {
+        for (RatingAggregate aggregate : aggregates) {
+            leaderboard.recordAfterCommit(aggregate);
+            versions.movieChangedAfterCommit(aggregate.getMovieId());
+        }
+        TransactionCallbacks.afterCommit(() -> {
+            aggregates.forEach(statisticsStore::record);
+            if (settlePending != null) settlePending.run();
+        });
+    }
+
+    private void journalAfterCommit(List<Rating> saved) {
+        if (journal.isEnabled() && !saved.isEmpty()) {
+            TransactionCallbacks.afterCommit(() -> journal.appendAll(saved));
+        }
+    }
+
+    /** Why the rating cannot be stored, or null if it can. Shared with the write-behind and reactive paths. */
+    public static String validate(RatingRequestDTO dto) {
+        if (dto == null) return "Rating is missing";
+        if (dto.getMovieId() == null) return "movieId is required";
+        if (dto.getScore() < Rating.MIN_SCORE || dto.getScore() > Rating.MAX_SCORE) {
+            return String.format("score must be between %d and %d", Rating.MIN_SCORE, Rating.MAX_SCORE);
+        }
+        return null;
+    }
+
+    @Cacheable(CacheConfig.MOVIE_AVERAGES)
     public double averageForMovie(Long movieId) {
-        List<Rating> list = repository.findByMovieId(movieId);
-        if (list.isEmpty()) return 0.0;
-        return list.stream().mapToInt(Rating::getScore).average().orElse(0.0);
+        long count;
+        long sum;
+        if (statisticsStore.isWarm()) {
+            long[] totals = statisticsStore.totals(movieId);
+            count = totals[0];
+            sum = totals[1];
+        } else {
+            RatingAggregate aggregate = aggregateRepository.findById(movieId).orElse(null);
+            count = aggregate == null ? 0 : aggregate.getRatingCount();
+            sum = aggregate == null ? 0 : aggregate.getScoreSum();
+        }
+        long[] pending = pendingRatings.totals(movieId);
+        count += pending[0];
+        sum += pending[1];
+        return count == 0 ? 0.0 : (double) sum / count;
+    }
+
+    /**
+     * Averages for many movies, keyed in request order: from the statistics store once it is warm,
+     * otherwise in one aggregate query. Movies without ratings map to an average and count of zero,
+     * matching {@link #averageForMovie}.
+     */
+    public Map<Long, MovieAverageDTO> averagesForMovies(Collection<Long> movieIds) {
+        Set<Long> ids = new LinkedHashSet<>();
+        if (movieIds != null) movieIds.stream().filter(Objects::nonNull).forEach(ids::add);
+        if (ids.size() > MAX_AVERAGE_IDS) {
+            throw new TooManyIdsException(String.format("At most %d movie ids per request, got %d",
+                    MAX_AVERAGE_IDS, ids.size()));
+        }
+        Map<Long, MovieAverageDTO> averages = new LinkedHashMap<>();
+        if (ids.isEmpty()) return averages;
+        if (statisticsStore.isWarm()) {
+            ids.forEach(id -> {
+                long[] totals = statisticsStore.totals(id);
+                averages.put(id, new MovieAverageDTO(id, totals[0] == 0 ? 0.0 : (double) totals[1] / totals[0], totals[0]));
+            });
+        } else {
+            ids.forEach(id -> averages.put(id, new MovieAverageDTO(id, 0.0, 0)));
+            aggregateRepository.findAverages(ids).forEach(a -> averages.put(a.getMovieId(), a));
+        }
+        averages.values().forEach(this::includePending);
+        return averages;
+    }
+
+    private void includePending(MovieAverageDTO average) {
+        long[] pending = pendingRatings.totals(average.getMovieId());
+        if (pending[0] == 0) return;
+        long count = average.getCount() + pending[0];
+        average.setAverage((average.getAverage() * average.getCount() + pending[1]) / count);
+        average.setCount(count);
+    }
+
+    /**
+     * Count, mean, population standard deviation and nearest-rank median and p90, all read from the
+     * movie's score histogram (one row per score), so the cost does not grow with its ratings.
+     */
+    @Transactional(readOnly = true)
+    public MovieStatsDTO statsForMovie(Long movieId) {
+        long[] counts = new long[HISTOGRAM_SIZE];
+        for (Object[] row : aggregateRepository.findHistogram(movieId)) {
+            int score = ((Number) row[0]).intValue();
+            // Rows from before scores were validated on every write path can lie outside the range.
+            if (score < Rating.MIN_SCORE || score > Rating.MAX_SCORE) continue;
+            counts[score - Rating.MIN_SCORE] = ((Number) row[1]).longValue();
+        }
+        Map<Integer, Long> histogram = new LinkedHashMap<>();
+        long count = 0;
+        long sum = 0;
+        long squareSum = 0;
+        for (int i = 0; i < counts.length; i++) {
+            long score = Rating.MIN_SCORE + i;
+            histogram.put((int) score, counts[i]);
+            count += counts[i];
+            sum += counts[i] * score;
+            squareSum += counts[i] * score * score;
+        }
+        if (count == 0) return new MovieStatsDTO(movieId, 0, 0.0, 0.0, null, null, histogram);
+        double mean = (double) sum / count;
+        double variance = Math.max(0.0, (double) squareSum / count - mean * mean);
+        return new MovieStatsDTO(movieId, count, mean, Math.sqrt(variance),
+                percentile(counts, count, 0.5), percentile(counts, count, 0.9), histogram);
+    }
+
+    static int percentile(long[] counts, long total, double fraction) {
+        long rank = Math.max(1, (long) Math.ceil(fraction * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) return Rating.MIN_SCORE + i;
+        }
+        return Rating.MAX_SCORE;
     }
 
+    @Transactional(readOnly = true)
     public List<RatingResponseDTO> ratingsForMovie(Long movieId) {
-        return repository.findByMovieId(movieId).stream()
-                .map(r -> new RatingResponseDTO(r.getId(), r.getMovieId(), r.getScore(), r.getComment()))
-                .collect(Collectors.toList());
+        return repository.listByMovieId(movieId);
+    }
+
+    /**
+     * One keyset page of a movie's ratings. Sorted by id the cursor is the last id; sorted by score
+     * (highest first, ties by id) it is {@code score:id} of the last row.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<RatingResponseDTO> listRatings(Long movieId, String cursor, Integer limit, String sort) {
+        int size = MovieService.pageSize(limit);
+        PageRequest page = PageRequest.of(0, size + 1);
+        List<RatingResponseDTO> rows;
+        boolean byScore;
+        if (sort == null || sort.isEmpty() || SORT_BY_ID.equals(sort)) {
+            byScore = false;
+            long afterId = cursor == null || cursor.isEmpty() ? 0L : parseCursorPart(cursor, cursor);
+            rows = repository.findPageAfter(movieId, afterId, page);
+        } else if (SORT_BY_SCORE.equals(sort)) {
+            byScore = true;
+            if (cursor == null || cursor.isEmpty()) {
+                rows = repository.findPageByScoreAfter(movieId, Rating.MAX_SCORE + 1, 0L, page);
+            } else {
+                int separator = cursor.indexOf(':');
+                if (separator < 0) throw new InvalidCursorException(String.format("Invalid cursor '%s'", cursor));
+                int score = (int) parseCursorPart(cursor.substring(0, separator), cursor);
+                long afterId = parseCursorPart(cursor.substring(separator + 1), cursor);
+                rows = repository.findPageByScoreAfter(movieId, score, afterId, page);
+            }
+        } else {
+            throw new InvalidSortException(String.format("Unknown sort '%s', expected '%s' or '%s'",
+                    sort, SORT_BY_ID, SORT_BY_SCORE));
+        }
+        if (rows.size() <= size) {
+            return new CursorPageDTO<>(rows, null);
+        }
+        List<RatingResponseDTO> items = rows.subList(0, size);
+        RatingResponseDTO last = items.get(size - 1);
+        return new CursorPageDTO<>(items, byScore ? last.getScore() + ":" + last.getId() : String.valueOf(last.getId()));
+    }
+
+    @Transactional(readOnly = true)
+    public void streamRatings(Long movieId, Consumer<RatingResponseDTO> sink) {
+        try (Stream<RatingResponseDTO> ratings = repository.streamByMovieId(movieId)) {
+            ratings.forEach(sink);
+        }
+    }
+
+    private static long parseCursorPart(String part, String cursor) {
+        try {
+            return Long.parseLong(part);
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException(String.format("Invalid cursor '%s'", cursor));
+        }
+    }
+
+    @CacheEvict(cacheNames = CacheConfig.MOVIE_AVERAGES, allEntries = true)
+    @Transactional
+    public int rebuildAggregates() {
+        aggregateRepository.deleteAllInBatch();
+        aggregateRepository.deleteHistograms();
+        int movies = aggregateRepository.rebuildFromRatings();
+        aggregateRepository.rebuildHistogramsFromRatings();
+        TransactionCallbacks.afterCommit(() -> {
+            leaderboard.rebuild();
+            statisticsStore.warm();
+            versions.allMoviesChanged();
+        });
+        return movies;
     }
 }
@@ -0,0 +1,246 @@
+package com.example.movierating.service;
+
+import com.example.movierating.entity.RatingAggregate;
+import com.example.movierating.replica.ReplicaRouting;
+import com.example.movierating.repository.RatingAggregateRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.concurrent.locks.StampedLock;
+import java.util.stream.Stream;
+
+/**
+ * Per-movie rating count, sum and sum of squares held in primitive arrays: 64 stripes, each an
+ * open-addressing long-keyed table with parallel {@code long[]} columns guarded by its own
+ * {@link StampedLock}. Reads are optimistic and never write shared memory, so they scale with cores;
+ * a slot costs 32 bytes. Like {@link MovieLeaderboard}, it stores absolute totals and ignores
+ * older ones, so commit order does not matter.
+ */
+@Service
+public class RatingStatisticsStore {
+    private static final int STRIPES = 64;
+    private static final int STRIPE_SHIFT = Long.SIZE - Integer.numberOfTrailingZeros(STRIPES);
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final RatingAggregateRepository aggregateRepository;
+    private volatile Stripe[] stripes = newStripes();
+    // The stripes being loaded by warm(); writes go to both until they replace the live ones.
+    private volatile Stripe[] loading;
+    private volatile boolean warm;
+
+    public RatingStatisticsStore(RatingAggregateRepository aggregateRepository) {
+        this.aggregateRepository = aggregateRepository;
+    }
+
+    /** Whether the store has been loaded and can answer for every movie. */
+    public boolean isWarm() {
+        return warm;
+    }
+
+    /** {count, sum, sumOfSquares} for the movie; all zero when it has no ratings. */
+    public long[] totals(long movieId) {
+        long hash = mix(movieId);
+        return stripes[(int) (hash >>> STRIPE_SHIFT)].read(movieId, (int) hash);
+    }
+
+    /** The movie's average score without allocating; 0 when it has no ratings. */
+    public double average(long movieId) {
+        long hash = mix(movieId);
+        return stripes[(int) (hash >>> STRIPE_SHIFT)].average(movieId, (int) hash);
+    }
+
+    public void record(long movieId, long count, long sum, long squareSum) {
+        if (count < 1) return;
+        long hash = mix(movieId);
+        int stripe = (int) (hash >>> STRIPE_SHIFT);
+        Stripe[] next = loading;
+        Stripe[] live = stripes;
+        live[stripe].write(movieId, (int) hash, count, sum, squareSum);
+        if (next != null && next != live) next[stripe].write(movieId, (int) hash, count, sum, squareSum);
+    }
+
+    public void record(RatingAggregate aggregate) {
+        record(aggregate.getMovieId(), aggregate.getRatingCount(), aggregate.getScoreSum(),
+                aggregate.getScoreSquareSum());
+    }
+
+    /**
+     * Loads every aggregate into fresh stripes and then swaps them in, so readers keep getting the
+     * previous totals rather than zeros while a reload runs. Totals recorded meanwhile go to both.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true, propagation = Propagation.REQUIRES_NEW)
+    public synchronized void warm() {
+        Stripe[] fresh = newStripes();
+        loading = fresh;
+        try (Stream<Object[]> rows = ReplicaRouting.onPrimary(aggregateRepository::streamTotals)) {
+            rows.forEach(r -> {
+                long movieId = ((Number) r[0]).longValue();
+                long hash = mix(movieId);
+                fresh[(int) (hash >>> STRIPE_SHIFT)].write(movieId, (int) hash, ((Number) r[1]).longValue(),
+                        ((Number) r[2]).longValue(), ((Number) r[3]).longValue());
+            });
+            stripes = fresh;
+            warm = true;
+        } finally {
+            loading = null;
+        }
+    }
+
+    public long size() {
+        long size = 0;
+        for (Stripe stripe : stripes) size += stripe.size();
+        return size;
+    }
+
+    /** Bytes held by the slot arrays, excluding array headers. */
+    public long footprintBytes() {
+        long bytes = 0;
+        for (Stripe stripe : stripes) bytes += stripe.capacity() * 4L * Long.BYTES;
+        return bytes;
+    }
+
+    private static long mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+
+    private static Stripe[] newStripes() {
+        Stripe[] stripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new Stripe();
+        return stripes;
+    }
+
+    /** A slot is empty while its count is zero; stored movies always have at least one rating. */
+    private static final class Stripe {
+        private final StampedLock lock = new StampedLock();
+        private long[] keys;
+        private long[] counts;
+        private long[] sums;
+        private long[] squareSums;
+        private int size;
+
+        Stripe() {
+            allocate(INITIAL_CAPACITY);
+        }
+
+        long[] read(long key, int hash) {
+            long stamp = lock.tryOptimisticRead();
+            long[] k = keys;
+            long[] c = counts;
+            long[] s = sums;
+            long[] q = squareSums;
+            int i = find(k, c, s, q, key, hash);
+            long count = i < 0 ? 0 : c[i];
+            long sum = i < 0 ? 0 : s[i];
+            long squareSum = i < 0 ? 0 : q[i];
+            if (!lock.validate(stamp)) {
+                stamp = lock.readLock();
+                try {
+                    i = find(keys, counts, sums, squareSums, key, hash);
+                    count = i < 0 ? 0 : counts[i];
+                    sum = i < 0 ? 0 : sums[i];
+                    squareSum = i < 0 ? 0 : squareSums[i];
+                } finally {
+                    lock.unlockRead(stamp);
+                }
+            }
+            return new long[] {count, sum, squareSum};
+        }
+
+        double average(long key, int hash) {
+            long stamp = lock.tryOptimisticRead();
+            long[] c = counts;
+            long[] s = sums;
+            int i = find(keys, c, s, squareSums, key, hash);
+            long count = i < 0 ? 0 : c[i];
+            long sum = i < 0 ? 0 : s[i];
+            if (!lock.validate(stamp)) {
+                stamp = lock.readLock();
+                try {
+                    i = find(keys, counts, sums, squareSums, key, hash);
+                    count = i < 0 ? 0 : counts[i];
+                    sum = i < 0 ? 0 : sums[i];
+                } finally {
+                    lock.unlockRead(stamp);
+                }
+            }
+            return count == 0 ? 0.0 : (double) sum / count;
+        }
+
+        /** Slot of {@code key} in the given arrays, or -1 when it is not stored. */
+        private static int find(long[] k, long[] c, long[] s, long[] q, long key, int hash) {
+            // An optimistic reader can see arrays from both sides of a resize; bound by the shortest.
+            int mask = Math.min(Math.min(k.length, c.length), Math.min(s.length, q.length)) - 1;
+            for (int i = hash & mask, probes = 0; probes <= mask; i = (i + 1) & mask, probes++) {
+                if (c[i] == 0) return -1;
+                if (k[i] == key) return i;
+            }
+            return -1;
+        }
+
+        void write(long key, int hash, long count, long sum, long squareSum) {
+            long stamp = lock.writeLock();
+            try {
+                int mask = keys.length - 1;
+                int i = hash & mask;
+                while (counts[i] != 0 && keys[i] != key) i = (i + 1) & mask;
+                if (counts[i] != 0 && counts[i] >= count) return;
+                if (counts[i] == 0) size++;
+                keys[i] = key;
+                counts[i] = count;
+                sums[i] = sum;
+                squareSums[i] = squareSum;
+                if (size * 4 > keys.length * 3) resize();
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            long[] oldCounts = counts;
+            long[] oldSums = sums;
+            long[] oldSquareSums = squareSums;
+            allocate(oldKeys.length * 2);
+            int mask = keys.length - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldCounts[j] == 0) continue;
+                int i = (int) mix(oldKeys[j]) & mask;
+                while (counts[i] != 0) i = (i + 1) & mask;
+                keys[i] = oldKeys[j];
+                counts[i] = oldCounts[j];
+                sums[i] = oldSums[j];
+                squareSums[i] = oldSquareSums[j];
+            }
+        }
+
+        int size() {
+            long stamp = lock.readLock();
+            try {
+                return size;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        int capacity() {
+            long stamp = lock.readLock();
+            try {
+                return keys.length;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        private void allocate(int capacity) {
+            keys = new long[capacity];
+            counts = new long[capacity];
+            sums = new long[capacity];
+            squareSums = new long[capacity];
+        }
+    }
+}
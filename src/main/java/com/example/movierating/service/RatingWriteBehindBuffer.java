@@ -0,0 +1,242 @@
+package com.example.movierating.service;
+
+import com.example.movierating.config.CacheConfig;
+import com.example.movierating.dto.RatingRequestDTO;
+import com.example.movierating.exception.InvalidRatingException;
+import com.example.movierating.exception.RatingBufferFullException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Optional write-behind path for single ratings: requests enqueue and return, and one writer thread
+ * commits the queue in batches of up to {@code batch-size} rows, waiting at most {@code max-latency-ms}
+ * after the first row of a batch. Stops after the web server so in-flight requests still land in the
+ * queue, then drains it before the data source closes.
+ *
+ * <p>A batch that fails is retried {@value #WRITE_ATTEMPTS} times with doubling backoff, then written
+ * row by row so one bad row does not take the others down. Only a row that still fails is dropped;
+ * it is settled so it stops counting as pending, and counted in {@code ratings.write-behind.dropped}.
+ */
+@Service
+public class RatingWriteBehindBuffer implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(RatingWriteBehindBuffer.class);
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final int WRITE_ATTEMPTS = 3;
+    private static final long RETRY_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final RatingService ratingService;
+    private final PendingRatings pendingRatings;
+    private final ContentVersions versions;
+    private final CacheManager cacheManager;
+    private final boolean enabled;
+    private final int capacity;
+    private final int batchSize;
+    private final long maxLatencyNanos;
+    private final Counter dropped;
+
+    private final Queue<RatingRequestDTO> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    // Held shared by submit and exclusively by stop, so nothing is enqueued after the writer has exited.
+    private final ReadWriteLock lifecycleLock = new ReentrantReadWriteLock();
+    private volatile boolean running;
+    private volatile Thread writer;
+
+    public RatingWriteBehindBuffer(RatingService ratingService, PendingRatings pendingRatings,
+                                   ContentVersions versions, CacheManager cacheManager, MeterRegistry registry,
+                                   @Value("${ratings.write-behind.enabled:false}") boolean enabled,
+                                   @Value("${ratings.write-behind.capacity:10000}") int capacity,
+                                   @Value("${ratings.write-behind.batch-size:500}") int batchSize,
+                                   @Value("${ratings.write-behind.max-latency-ms:5}") long maxLatencyMs) {
+        this.ratingService = ratingService;
+        this.pendingRatings = pendingRatings;
+        this.versions = versions;
+        this.cacheManager = cacheManager;
+        this.enabled = enabled;
+        this.capacity = Math.max(1, capacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.maxLatencyNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxLatencyMs));
+        this.dropped = Counter.builder("ratings.write-behind.dropped")
+                .description("Accepted ratings that could not be written and were dropped")
+                .register(registry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void submit(RatingRequestDTO dto) {
+        String error = RatingService.validate(dto);
+        if (error != null) throw new InvalidRatingException(error);
+        lifecycleLock.readLock().lock();
+        try {
+            if (!running) throw new RatingBufferFullException("Rating writer is not running");
+            if (size.incrementAndGet() > capacity) {
+                size.decrementAndGet();
+                throw new RatingBufferFullException(String.format("Rating buffer is full (%d pending)", capacity));
+            }
+            pendingRatings.add(dto.getMovieId(), dto.getScore());
+            averageChanged(dto.getMovieId());
+            queue.add(dto);
+        } finally {
+            lifecycleLock.readLock().unlock();
+        }
+        Thread current = writer;
+        if (current != null) LockSupport.unpark(current);
+    }
+
+    int size() {
+        return size.get();
+    }
+
+    @Override
+    public void start() {
+        if (!enabled || running) return;
+        running = true;
+        Thread thread = new Thread(this::writeLoop, "rating-write-behind");
+        writer = thread;
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        lifecycleLock.writeLock().lock();
+        try {
+            if (!running) return;
+            running = false;
+        } finally {
+            lifecycleLock.writeLock().unlock();
+        }
+        Thread thread = writer;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Lower than the embedded web server's phase, so it is stopped first.
+        return DEFAULT_PHASE - 4096;
+    }
+
+    private void writeLoop() {
+        while (running || !queue.isEmpty()) {
+            List<RatingRequestDTO> batch = nextBatch();
+            if (!batch.isEmpty()) flush(batch);
+        }
+        log.info("Rating write-behind buffer drained");
+    }
+
+    private List<RatingRequestDTO> nextBatch() {
+        List<RatingRequestDTO> batch = new ArrayList<>(batchSize);
+        long deadline = 0;
+        while (batch.size() < batchSize) {
+            RatingRequestDTO row = queue.poll();
+            if (row != null) {
+                if (batch.isEmpty()) deadline = System.nanoTime() + maxLatencyNanos;
+                batch.add(row);
+                continue;
+            }
+            if (!running) break;
+            if (batch.isEmpty()) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                if (queue.isEmpty()) break;
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) break;
+            LockSupport.parkNanos(this, remaining);
+        }
+        size.addAndGet(-batch.size());
+        return batch;
+    }
+
+    void flush(List<RatingRequestDTO> batch) {
+        if (!write(batch, WRITE_ATTEMPTS)) {
+            for (RatingRequestDTO row : batch) {
+                if (batch.size() == 1 || !write(List.of(row), 1)) drop(row);
+            }
+        }
+        batch.stream().map(RatingRequestDTO::getMovieId).distinct().forEach(this::averageChanged);
+    }
+
+    /**
+     * Writes the rows in one transaction, up to {@code attempts} times, and settles them once it
+     * commits. Returns false, leaving them pending, if every attempt failed.
+     */
+    private boolean write(List<RatingRequestDTO> rows, int attempts) {
+        Map<Long, long[]> totals = new HashMap<>();
+        for (RatingRequestDTO dto : rows) {
+            long[] t = totals.computeIfAbsent(dto.getMovieId(), id -> new long[2]);
+            t[0]++;
+            t[1] += dto.getScore();
+        }
+        AtomicBoolean settled = new AtomicBoolean();
+        Runnable settle = () -> {
+            if (settled.compareAndSet(false, true)) {
+                totals.forEach((movieId, t) -> pendingRatings.settle(movieId, t[0], t[1]));
+            }
+        };
+        long backoff = RETRY_BACKOFF_NANOS;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                // Settles in the commit's callback, together with the new statistics.
+                ratingService.addBufferedRatings(rows, settle);
+                settle.run();
+                return true;
+            } catch (RuntimeException e) {
+                // Anything thrown here would end the writer thread while submit keeps accepting.
+                if (settled.get()) {
+                    log.error("Buffered ratings were committed but updating in-memory state failed", e);
+                    return true;
+                }
+                if (attempt >= attempts) {
+                    log.warn("Could not write {} buffered ratings after {} attempts", rows.size(), attempts, e);
+                    return false;
+                }
+                LockSupport.parkNanos(this, backoff);
+                backoff *= 2;
+            }
+        }
+    }
+
+    private void drop(RatingRequestDTO row) {
+        log.error("Dropped buffered rating of {} for movie {}", row.getScore(), row.getMovieId());
+        pendingRatings.settle(row.getMovieId(), 1, row.getScore());
+        dropped.increment();
+    }
+
+    private void averageChanged(Long movieId) {
+        versions.movieChanged(movieId);
+        Cache averages = cacheManager.getCache(CacheConfig.MOVIE_AVERAGES);
+        if (averages != null) averages.evict(movieId);
+    }
+}
@@ -0,0 +1,285 @@
+package com.example.movierating.service;
+
+import com.example.movierating.dto.MovieResponseDTO;
+import com.example.movierating.dto.TrendingMovieDTO;
+import com.example.movierating.entity.Rating;
+import com.example.movierating.exception.InvalidWindowException;
+import com.example.movierating.replica.ReplicaRouting;
+import com.example.movierating.repository.MovieRepository;
+import com.example.movierating.repository.RatingRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Rating counts per movie over the last hour, day and week, so trending queries never scan the
+ * {@code rating} table. Each window is a ring of time buckets plus a running total per movie: a
+ * rating is added to the current bucket and to its movie's total, and when the ring turns the
+ * oldest bucket's counts are subtracted again. A window therefore reaches back between its length
+ * less one bucket and its full length. The rings are rebuilt from the last week's ratings once the
+ * application is ready; ratings without a creation time never count.
+ */
+@Service
+public class TrendingWindows {
+    public static final String HOUR = "1h";
+    public static final String DAY = "24h";
+    public static final String WEEK = "7d";
+
+    private static final Comparator<long[]> RANKING = Comparator
+            .comparingLong((long[] e) -> e[1]).reversed()
+            .thenComparingLong(e -> e[0]);
+
+    private final MovieRepository movieRepository;
+    private final RatingRepository ratingRepository;
+    private final Map<String, Window> windows = new LinkedHashMap<>();
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+    // Ratings committed while a rebuild streams the table, keyed by rating id: {movieId, createdAtMillis}.
+    private volatile Map<Long, long[]> addedDuringRebuild;
+
+    public TrendingWindows(MovieRepository movieRepository, RatingRepository ratingRepository) {
+        this.movieRepository = movieRepository;
+        this.ratingRepository = ratingRepository;
+        windows.put(HOUR, new Window(TimeUnit.MINUTES.toMillis(1), 60));
+        windows.put(DAY, new Window(TimeUnit.MINUTES.toMillis(15), 96));
+        windows.put(WEEK, new Window(TimeUnit.HOURS.toMillis(1), 168));
+    }
+
+    /** Most rated movies within {@code window} (default {@value #DAY}), most ratings first. */
+    @Transactional(readOnly = true)
+    public List<TrendingMovieDTO> trending(String window, Integer limit) {
+        return trending(window, limit, System.currentTimeMillis());
+    }
+
+    List<TrendingMovieDTO> trending(String window, Integer limit, long nowMillis) {
+        List<long[]> counts = window(window).top(MovieLeaderboard.limit(limit), nowMillis);
+        if (counts.isEmpty()) return new ArrayList<>();
+        Map<Long, MovieResponseDTO> movies = movieRepository
+                .findAllByIds(counts.stream().map(c -> c[0]).toList()).stream()
+                .collect(Collectors.toMap(MovieResponseDTO::getId, Function.identity()));
+        List<TrendingMovieDTO> result = new ArrayList<>(counts.size());
+        for (long[] c : counts) {
+            MovieResponseDTO movie = movies.get(c[0]);
+            if (movie != null) result.add(new TrendingMovieDTO(movie.getId(), movie.getTitle(), movie.getYear(), c[1]));
+        }
+        return result;
+    }
+
+    /** Counts the ratings once the surrounding transaction commits, or now when there is none. */
+    public void recordAfterCommit(List<Rating> ratings) {
+        long[][] rows = new long[ratings.size()][];
+        for (int i = 0; i < rows.length; i++) {
+            Rating r = ratings.get(i);
+            if (r.getCreatedAt() == null || r.getMovieId() == null) continue;
+            rows[i] = new long[] {r.getId() == null ? 0 : r.getId(), r.getMovieId(), r.getCreatedAt().toEpochMilli()};
+        }
+        TransactionCallbacks.afterCommit(() -> {
+            long now = System.currentTimeMillis();
+            for (long[] row : rows) {
+                if (row != null) record(row[0], row[1], row[2], now);
+            }
+        });
+    }
+
+    void record(long ratingId, long movieId, long createdAtMillis, long nowMillis) {
+        // Checked and added under one lock, so a rebuild cannot clear the windows in between.
+        rebuildLock.readLock().lock();
+        try {
+            Map<Long, long[]> pending = addedDuringRebuild;
+            if (pending != null) {
+                pending.put(ratingId, new long[] {movieId, createdAtMillis});
+            } else {
+                add(movieId, createdAtMillis, nowMillis);
+            }
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    private void add(long movieId, long createdAtMillis, long nowMillis) {
+        for (Window w : windows.values()) w.add(movieId, createdAtMillis, nowMillis);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true, propagation = Propagation.REQUIRES_NEW)
+    public void rebuild() {
+        rebuild(System.currentTimeMillis());
+    }
+
+    void rebuild(long nowMillis) {
+        rebuildLock.writeLock().lock();
+        try {
+            addedDuringRebuild = new ConcurrentHashMap<>();
+            windows.values().forEach(Window::clear);
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+        Instant since = Instant.ofEpochMilli(nowMillis - windows.get(WEEK).spanMillis());
+        try {
+            try (Stream<Object[]> rows = ReplicaRouting.onPrimary(() -> ratingRepository.streamCreatedSince(since))) {
+                rows.forEach(r -> {
+                    long ratingId = ((Number) r[0]).longValue();
+                    if (r[1] == null) return;
+                    // Committed while the stream was open and also in it: count it once.
+                    addedDuringRebuild.remove(ratingId);
+                    add(((Number) r[1]).longValue(), ((Instant) r[2]).toEpochMilli(), nowMillis);
+                });
+            }
+        } finally {
+            rebuildLock.writeLock().lock();
+            try {
+                addedDuringRebuild.values().forEach(p -> add(p[0], p[1], nowMillis));
+                addedDuringRebuild = null;
+            } finally {
+                rebuildLock.writeLock().unlock();
+            }
+        }
+    }
+
+    private Window window(String name) {
+        if (name == null || name.isEmpty()) return windows.get(DAY);
+        Window window = windows.get(name);
+        if (window == null) {
+            throw new InvalidWindowException(String.format("Unknown window '%s', expected one of %s",
+                    name, String.join(", ", windows.keySet())));
+        }
+        return window;
+    }
+
+    /**
+     * One window, split by movie id into {@value #STRIPES} stripes that each keep their own ring and
+     * totals under their own monitor, so a {@link #top} scan only holds up writers of one stripe at
+     * a time.
+     */
+    static final class Window {
+        private static final int STRIPES = 16;
+
+        private final long bucketMillis;
+        private final int bucketCount;
+        private final Stripe[] stripes = new Stripe[STRIPES];
+
+        Window(long bucketMillis, int bucketCount) {
+            this.bucketMillis = bucketMillis;
+            this.bucketCount = bucketCount;
+            for (int i = 0; i < STRIPES; i++) stripes[i] = new Stripe(bucketMillis, bucketCount);
+        }
+
+        long spanMillis() {
+            return bucketMillis * bucketCount;
+        }
+
+        void add(long movieId, long atMillis, long nowMillis) {
+            Stripe stripe = stripes[(int) Math.floorMod(movieId, (long) STRIPES)];
+            synchronized (stripe) {
+                stripe.add(movieId, atMillis, nowMillis);
+            }
+        }
+
+        /** Up to {@code limit} rows of {movieId, count}, most ratings first and ties by movie id. */
+        List<long[]> top(int limit, long nowMillis) {
+            PriorityQueue<long[]> heap = new PriorityQueue<>(limit + 1, RANKING.reversed());
+            for (Stripe stripe : stripes) {
+                synchronized (stripe) {
+                    stripe.advance(Math.floorDiv(nowMillis, bucketMillis));
+                    stripe.totals.forEach((movieId, count) -> offer(heap, limit, movieId, count[0]));
+                }
+            }
+            List<long[]> result = new ArrayList<>(heap);
+            result.sort(RANKING);
+            return result;
+        }
+
+        /** Adds the entry unless the heap is full and it ranks below the worst one, allocating only if kept. */
+        private static void offer(PriorityQueue<long[]> heap, int limit, long movieId, long count) {
+            if (heap.size() == limit) {
+                long[] worst = heap.peek();
+                if (count < worst[1] || (count == worst[1] && movieId > worst[0])) return;
+            }
+            heap.add(new long[] {movieId, count});
+            if (heap.size() > limit) heap.poll();
+        }
+
+        void clear() {
+            for (Stripe stripe : stripes) {
+                synchronized (stripe) {
+                    stripe.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * A ring of {@code bucketCount} buckets of per-movie counts, the newest one still filling, and
+     * the per-movie totals over all of them. Counters are one-element arrays so updates do not box.
+     * Guarded by its own monitor, held by {@link Window}.
+     */
+    private static final class Stripe {
+        private final long bucketMillis;
+        private final List<Map<Long, long[]>> buckets;
+        private final Map<Long, long[]> totals = new HashMap<>();
+        private long newest = Long.MIN_VALUE;
+
+        Stripe(long bucketMillis, int bucketCount) {
+            this.bucketMillis = bucketMillis;
+            this.buckets = new ArrayList<>(bucketCount);
+            for (int i = 0; i < bucketCount; i++) buckets.add(new HashMap<>());
+        }
+
+        void add(long movieId, long atMillis, long nowMillis) {
+            advance(Math.floorDiv(nowMillis, bucketMillis));
+            long bucket = Math.floorDiv(atMillis, bucketMillis);
+            if (bucket <= newest - buckets.size()) return;
+            // A rating stamped ahead of this clock counts as now.
+            if (bucket > newest) bucket = newest;
+            buckets.get(slot(bucket)).computeIfAbsent(movieId, id -> new long[1])[0]++;
+            totals.computeIfAbsent(movieId, id -> new long[1])[0]++;
+        }
+
+        void clear() {
+            buckets.forEach(Map::clear);
+            totals.clear();
+            newest = Long.MIN_VALUE;
+        }
+
+        void advance(long bucket) {
+            if (bucket <= newest) return;
+            if (newest == Long.MIN_VALUE || bucket - newest >= buckets.size()) {
+                buckets.forEach(Map::clear);
+                totals.clear();
+                newest = bucket;
+                return;
+            }
+            while (newest < bucket) {
+                newest++;
+                Map<Long, long[]> expired = buckets.get(slot(newest));
+                expired.forEach((movieId, count) -> {
+                    long[] total = totals.get(movieId);
+                    total[0] -= count[0];
+                    if (total[0] == 0) totals.remove(movieId);
+                });
+                expired.clear();
+            }
+        }
+
+        private int slot(long bucket) {
+            return (int) Math.floorMod(bucket, (long) buckets.size());
+        }
+    }
+}
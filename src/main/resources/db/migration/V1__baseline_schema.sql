@@ -0,0 +1,22 @@
+CREATE TABLE movie (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    title VARCHAR(255),
+    "year" INTEGER,
+    CONSTRAINT uk_movie_title_year UNIQUE (title, "year")
+);
+
+CREATE SEQUENCE rating_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE rating (
+    id BIGINT PRIMARY KEY,
+    movie_id BIGINT,
+    score INTEGER NOT NULL,
+    comment VARCHAR(255)
+);
+
+CREATE TABLE rating_aggregate (
+    movie_id BIGINT PRIMARY KEY,
+    rating_count BIGINT NOT NULL,
+    score_sum BIGINT NOT NULL,
+    score_square_sum BIGINT NOT NULL
+);
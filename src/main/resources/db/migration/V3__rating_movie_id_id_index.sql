@@ -0,0 +1 @@
+CREATE INDEX idx_rating_movie_id_id ON rating (movie_id, id);
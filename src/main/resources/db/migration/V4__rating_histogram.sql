@@ -0,0 +1,9 @@
+CREATE TABLE rating_histogram (
+    movie_id BIGINT NOT NULL,
+    score INTEGER NOT NULL,
+    rating_count BIGINT NOT NULL,
+    PRIMARY KEY (movie_id, score)
+);
+
+INSERT INTO rating_histogram (movie_id, score, rating_count)
+SELECT movie_id, score, COUNT(*) FROM rating WHERE movie_id IS NOT NULL GROUP BY movie_id, score;
@@ -0,0 +1,6 @@
+CREATE TABLE replica_heartbeat (
+    id INTEGER NOT NULL PRIMARY KEY,
+    beat_millis BIGINT NOT NULL
+);
+
+INSERT INTO replica_heartbeat (id, beat_millis) VALUES (1, 0);
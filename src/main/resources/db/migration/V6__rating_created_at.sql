@@ -0,0 +1,5 @@
+-- Ratings from before this migration keep a NULL creation time and never count as recent.
+ALTER TABLE rating ADD COLUMN created_at TIMESTAMP(6) WITH TIME ZONE;
+ALTER TABLE rating ALTER COLUMN created_at SET DEFAULT CURRENT_TIMESTAMP;
+
+CREATE INDEX idx_rating_created_at ON rating (created_at);
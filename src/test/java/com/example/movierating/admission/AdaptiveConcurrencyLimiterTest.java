@@ -0,0 +1,88 @@
+package com.example.movierating.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(50);
+
+    /** Runs {@code rounds} rounds of filling the limit and completing every request with {@code rtt}. */
+    private static void saturate(AdaptiveConcurrencyLimiter limiter, int rounds, long rtt) {
+        for (int r = 0; r < rounds; r++) {
+            int acquired = 0;
+            while (limiter.tryAcquire()) acquired++;
+            for (int i = 0; i < acquired; i++) limiter.release(rtt);
+        }
+    }
+
+    @Test
+    void tryAcquire_refusesBeyondLimitUntilReleased() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(3, 1, 10);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(3, limiter.inFlight());
+
+        limiter.release();
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    void limit_growsWhileLatencyHoldsAndShrinksWhenItRises() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 5, 200);
+
+        saturate(limiter, 20, FAST);
+        int grown = limiter.limit();
+        assertTrue(grown > 20, "limit should grow under steady latency, was " + grown);
+
+        saturate(limiter, 20, SLOW);
+        assertTrue(limiter.limit() < grown, "limit should shrink once latency rises, was " + limiter.limit());
+        assertTrue(limiter.limit() >= 5);
+    }
+
+    @Test
+    void limit_staysDownWhileSlowdownLastsAndRecoversOnceBaselineTurnsOver() {
+        AtomicLong clock = new AtomicLong();
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 5, 200, clock::get);
+
+        saturate(limiter, 20, FAST);
+        int grown = limiter.limit();
+        saturate(limiter, 200, SLOW);
+        int slowed = limiter.limit();
+        assertTrue(slowed < grown, "limit should stay down under sustained latency, was " + slowed);
+
+        clock.addAndGet(2 * AdaptiveConcurrencyLimiter.BASELINE_WINDOW_NANOS);
+        saturate(limiter, 1, SLOW);
+        clock.addAndGet(AdaptiveConcurrencyLimiter.BASELINE_WINDOW_NANOS);
+        saturate(limiter, 20, SLOW);
+        assertTrue(limiter.limit() > slowed, "limit should grow against the new baseline, was " + limiter.limit());
+    }
+
+    @Test
+    void limit_doesNotGrowWhileMostlyIdle() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 5, 200);
+
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(limiter.tryAcquire());
+            limiter.release(FAST);
+        }
+
+        assertEquals(20, limiter.limit());
+    }
+
+    @Test
+    void limit_staysWithinBounds() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(500, 5, 50);
+        assertEquals(50, limiter.limit());
+
+        saturate(limiter, 50, FAST);
+        assertEquals(50, limiter.limit());
+    }
+}
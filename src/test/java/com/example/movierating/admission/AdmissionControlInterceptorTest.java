@@ -0,0 +1,111 @@
+package com.example.movierating.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.DispatcherType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControlInterceptorTest {
+    private SimpleMeterRegistry registry;
+    private AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private AdmissionControlInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        concurrencyLimiter = new AdaptiveConcurrencyLimiter(2, 1, 2);
+        interceptor = new AdmissionControlInterceptor(
+                new ClientRateLimiter(1, 2, 100, Duration.ofMinutes(5)), concurrencyLimiter, registry);
+    }
+
+    private static MockHttpServletRequest request(String method, String pattern) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, pattern);
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+        return request;
+    }
+
+    private double rejected(String reason) {
+        return registry.get(AdmissionControlInterceptor.REJECTED).tag("reason", reason).counter().count();
+    }
+
+    /** Runs one request through the interceptor and returns its response. */
+    private MockHttpServletResponse handle(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        if (interceptor.preHandle(request, response, null)) {
+            interceptor.afterCompletion(request, response, null, null);
+        }
+        return response;
+    }
+
+    @Test
+    void writes_areRateLimitedPerClient() throws Exception {
+        assertEquals(200, handle(request("POST", "/api/ratings")).getStatus());
+        assertEquals(200, handle(request("POST", "/api/movies")).getStatus());
+
+        MockHttpServletResponse limited = handle(request("POST", "/api/ratings/batch"));
+        assertEquals(429, limited.getStatus());
+        assertEquals("1", limited.getHeader(HttpHeaders.RETRY_AFTER));
+        assertTrue(limited.getContentAsString().contains("Rate limit exceeded"));
+        assertEquals(1.0, rejected(AdmissionControlInterceptor.RATE_LIMIT));
+
+        MockHttpServletRequest otherClient = request("POST", "/api/ratings");
+        otherClient.addHeader(AdmissionControlInterceptor.CLIENT_HEADER, "importer-2");
+        assertEquals(200, handle(otherClient).getStatus());
+    }
+
+    @Test
+    void reads_areNotRateLimited() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            assertEquals(200, handle(request("GET", "/api/movies")).getStatus());
+        }
+        assertEquals(0.0, rejected(AdmissionControlInterceptor.RATE_LIMIT));
+    }
+
+    @Test
+    void requestsBeyondConcurrencyLimit_areRejectedUntilOneCompletes() throws Exception {
+        MockHttpServletRequest first = request("GET", "/api/movies");
+        MockHttpServletRequest second = request("GET", "/api/movies/top");
+        assertTrue(interceptor.preHandle(first, new MockHttpServletResponse(), null));
+        assertTrue(interceptor.preHandle(second, new MockHttpServletResponse(), null));
+
+        MockHttpServletResponse refused = handle(request("GET", "/api/movies"));
+        assertEquals(429, refused.getStatus());
+        assertNotNull(refused.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(1.0, rejected(AdmissionControlInterceptor.CONCURRENCY));
+
+        interceptor.afterCompletion(first, new MockHttpServletResponse(), null, null);
+        assertEquals(1, concurrencyLimiter.inFlight());
+        assertEquals(200, handle(request("GET", "/api/movies")).getStatus());
+    }
+
+    @Test
+    void streamingRequests_releaseWhenHandlerReturnsAndSkipAsyncDispatch() throws Exception {
+        MockHttpServletRequest request = request("GET", "/api/movies/stream");
+        assertTrue(interceptor.preHandle(request, new MockHttpServletResponse(), null));
+        interceptor.afterConcurrentHandlingStarted(request, new MockHttpServletResponse(), null);
+        assertEquals(0, concurrencyLimiter.inFlight());
+
+        request.setDispatcherType(DispatcherType.ASYNC);
+        assertTrue(interceptor.preHandle(request, new MockHttpServletResponse(), null));
+        interceptor.afterCompletion(request, new MockHttpServletResponse(), null, null);
+        assertEquals(0, concurrencyLimiter.inFlight());
+    }
+
+    @Test
+    void clientKey_prefersApiKeyOverRemoteAddress() {
+        MockHttpServletRequest request = request("POST", "/api/ratings");
+        request.setRemoteAddr("10.0.0.7");
+        assertEquals("ip:10.0.0.7", AdmissionControlInterceptor.clientKey(request));
+
+        request.addHeader(AdmissionControlInterceptor.CLIENT_HEADER, "abc");
+        assertEquals("key:abc", AdmissionControlInterceptor.clientKey(request));
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.movierating.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientRateLimiterTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong clock = new AtomicLong(1_000 * SECOND);
+
+    private ClientRateLimiter limiter(double permitsPerSecond, int burst, long maxClients) {
+        return new ClientRateLimiter(permitsPerSecond, burst, maxClients, Duration.ofMinutes(5), clock::get);
+    }
+
+    @Test
+    void tryAcquire_admitsBurstThenRefillsAtRate() {
+        ClientRateLimiter limiter = limiter(10, 3, 100);
+
+        for (int i = 0; i < 3; i++) assertEquals(0, limiter.tryAcquire("a"));
+        assertEquals(SECOND / 10, limiter.tryAcquire("a"));
+
+        clock.addAndGet(SECOND / 10);
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertTrue(limiter.tryAcquire("a") > 0);
+
+        clock.addAndGet(10 * SECOND);
+        for (int i = 0; i < 3; i++) assertEquals(0, limiter.tryAcquire("a"));
+        assertTrue(limiter.tryAcquire("a") > 0);
+    }
+
+    @Test
+    void tryAcquire_keepsBucketsPerClient() {
+        ClientRateLimiter limiter = limiter(1, 1, 100);
+
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertTrue(limiter.tryAcquire("a") > 0);
+        assertEquals(0, limiter.tryAcquire("b"));
+    }
+
+    @Test
+    void buckets_areBoundedAndDroppedWhenIdle() {
+        ClientRateLimiter limiter = limiter(1, 1, 10);
+        for (int i = 0; i < 100; i++) limiter.tryAcquire("client-" + i);
+        limiter.cleanUp();
+        assertTrue(limiter.clients() <= 10);
+
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(6));
+        limiter.cleanUp();
+        assertEquals(0, limiter.clients());
+    }
+
+    @Test
+    void tryAcquire_neverAdmitsMoreThanBurstUnderContention() throws InterruptedException {
+        ClientRateLimiter limiter = limiter(1, 1000, 100);
+        AtomicLong admitted = new AtomicLong();
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    if (limiter.tryAcquire("shared") == 0) admitted.incrementAndGet();
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) thread.join();
+
+        assertEquals(1000, admitted.get());
+    }
+}
@@ -1,24 +1,57 @@
 package com.example.movierating.controller;
 
+import com.example.movierating.config.WireFormatConfig;
+import com.example.movierating.dto.CursorPageDTO;
+import com.example.movierating.dto.MovieAverageDTO;
+import com.example.movierating.dto.MovieStatsDTO;
 import com.example.movierating.dto.MovieRequestDTO;
 import com.example.movierating.dto.MovieResponseDTO;
+import com.example.movierating.dto.RatingBatchResultDTO;
+import com.example.movierating.dto.RatingBatchRowDTO;
 import com.example.movierating.dto.RatingRequestDTO;
 import com.example.movierating.dto.RatingResponseDTO;
+import com.example.movierating.dto.TopMovieDTO;
+import com.example.movierating.dto.TrendingMovieDTO;
+import com.example.movierating.exception.InvalidCursorException;
+import com.example.movierating.exception.InvalidRatingException;
+import com.example.movierating.exception.InvalidSortException;
+import com.example.movierating.exception.InvalidWindowException;
 import com.example.movierating.exception.MovieAlreadyExistsException;
+import com.example.movierating.exception.RatingBufferFullException;
+import com.example.movierating.exception.TooManyIdsException;
+import com.example.movierating.service.ContentVersions;
+import com.example.movierating.service.MovieLeaderboard;
 import com.example.movierating.service.MovieService;
+import com.example.movierating.service.MovieTitleIndex;
+import com.example.movierating.service.RatingBatchService;
 import com.example.movierating.service.RatingService;
+import com.example.movierating.service.RatingWriteBehindBuffer;
+import com.example.movierating.service.TrendingWindows;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -35,9 +68,33 @@ class MovieControllerTest {
     @MockBean
     private RatingService ratingService;
 
+    @MockBean
+    private RatingBatchService ratingBatchService;
+
+    @MockBean
+    private MovieLeaderboard movieLeaderboard;
+
+    @MockBean
+    private MovieTitleIndex movieTitleIndex;
+
+    @MockBean
+    private TrendingWindows trendingWindows;
+
+    @MockBean
+    private RatingWriteBehindBuffer ratingWriteBehindBuffer;
+
+    @MockBean
+    private ContentVersions contentVersions;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    @BeforeEach
+    void stubVersions() {
+        when(contentVersions.catalogueTag()).thenReturn("W/\"e-3\"");
+        when(contentVersions.movieTag(anyLong())).thenReturn("W/\"e-0-7\"");
+    }
+
     @Test
     void createMovie_shouldReturnCreatedMovie() throws Exception {
         MovieRequestDTO requestDto = new MovieRequestDTO("Inception", 2010);
@@ -68,20 +125,82 @@ class MovieControllerTest {
                 .andExpect(jsonPath("$.error").exists());
     }
 
+    @Test
+    void createMovie_ifExistsReturnGivesExistingMovie() throws Exception {
+        MovieRequestDTO requestDto = new MovieRequestDTO("Inception", 2010);
+        when(movieService.createOrGetMovie(any(MovieRequestDTO.class)))
+                .thenReturn(new MovieResponseDTO(7L, "Inception", 2010));
+
+        mockMvc.perform(post("/api/movies").param("ifExists", "return")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(7L));
+        verify(movieService, never()).createMovie(any(MovieRequestDTO.class));
+    }
+
+    @Test
+    void createMovie_rejectsUnknownIfExists() throws Exception {
+        mockMvc.perform(post("/api/movies").param("ifExists", "replace")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new MovieRequestDTO("Inception", 2010))))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void listMovies_shouldReturnAllMovies() throws Exception {
         MovieResponseDTO movie1 = new MovieResponseDTO(1L, "Movie1", 2020);
         MovieResponseDTO movie2 = new MovieResponseDTO(2L, "Movie2", 2021);
         List<MovieResponseDTO> movies = Arrays.asList(movie1, movie2);
 
-        when(movieService.listMovies()).thenReturn(movies);
+        when(movieService.listMovies(null, null)).thenReturn(new CursorPageDTO<>(movies, "2"));
 
         mockMvc.perform(get("/api/movies")
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.length()").value(2))
-                .andExpect(jsonPath("$[0].id").value(1L))
-                .andExpect(jsonPath("$[1].id").value(2L));
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].id").value(1L))
+                .andExpect(jsonPath("$.items[1].id").value(2L))
+                .andExpect(jsonPath("$.nextCursor").value("2"));
+    }
+
+    @Test
+    void listMovies_shouldPassCursorAndLimit() throws Exception {
+        when(movieService.listMovies("10", 5)).thenReturn(new CursorPageDTO<>(List.of(), null));
+
+        mockMvc.perform(get("/api/movies").param("cursor", "10").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(0));
+    }
+
+    @Test
+    void listMovies_shouldReturnBadRequestForInvalidCursor() throws Exception {
+        when(movieService.listMovies("bad", null)).thenThrow(new InvalidCursorException("Invalid cursor 'bad'"));
+
+        mockMvc.perform(get("/api/movies").param("cursor", "bad"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").exists());
+    }
+
+    @Test
+    void streamMovies_shouldWriteNdjsonLines() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<MovieResponseDTO> sink = invocation.getArgument(0);
+            sink.accept(new MovieResponseDTO(1L, "Movie1", 2020));
+            sink.accept(new MovieResponseDTO(2L, "Movie2", 2021));
+            return null;
+        }).when(movieService).streamMovies(any());
+
+        MvcResult result = mockMvc.perform(get("/api/movies/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(
+                        "{\"id\":1,\"title\":\"Movie1\",\"year\":2020}\n"
+                                + "{\"id\":2,\"title\":\"Movie2\",\"year\":2021}\n"));
     }
 
     @Test
@@ -110,6 +229,43 @@ class MovieControllerTest {
                 .andExpect(content().string("4.5"));
     }
 
+    @Test
+    void getMovieAverage_sendsEtagAndCacheControl() throws Exception {
+        when(ratingService.averageForMovie(1L)).thenReturn(4.5);
+
+        mockMvc.perform(get("/api/movies/1/average"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"e-0-7\""))
+                .andExpect(header().string("Cache-Control", "max-age=5, public"));
+    }
+
+    @Test
+    void getMovieAverage_notModifiedSkipsService() throws Exception {
+        mockMvc.perform(get("/api/movies/1/average").header("If-None-Match", "\"e-0-7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(ratingService, never()).averageForMovie(any());
+    }
+
+    @Test
+    void listMovies_notModifiedSkipsService() throws Exception {
+        mockMvc.perform(get("/api/movies").header("If-None-Match", "W/\"e-2\", W/\"e-3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "W/\"e-3\""));
+
+        verify(movieService, never()).listMovies(any(), any());
+    }
+
+    @Test
+    void listMovies_staleEtagGetsFullPage() throws Exception {
+        when(movieService.listMovies(null, null)).thenReturn(new CursorPageDTO<>(List.of(), null));
+
+        mockMvc.perform(get("/api/movies").header("If-None-Match", "W/\"e-2\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"e-3\""));
+    }
+
     @Test
     void getMovieAverage_noRatings() throws Exception {
         when(ratingService.averageForMovie(99L)).thenReturn(0.0);
@@ -118,4 +274,313 @@ class MovieControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().string("0.0"));
     }
+
+    @Test
+    void stats_returnsHistogramAndPercentiles() throws Exception {
+        Map<Integer, Long> histogram = new LinkedHashMap<>();
+        histogram.put(7, 3L);
+        histogram.put(9, 1L);
+        when(ratingService.statsForMovie(1L)).thenReturn(new MovieStatsDTO(1L, 4, 7.5, 0.866, 7, 9, histogram));
+
+        mockMvc.perform(get("/api/movies/1/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(4))
+                .andExpect(jsonPath("$.mean").value(7.5))
+                .andExpect(jsonPath("$.median").value(7))
+                .andExpect(jsonPath("$.p90").value(9))
+                .andExpect(jsonPath("$.histogram['7']").value(3));
+    }
+
+    @Test
+    void addRatingsBatch_acceptsCborAndAnswersInCbor() throws Exception {
+        ObjectMapper cbor = WireFormatConfig.cborMapper(objectMapper);
+        List<RatingRequestDTO> received = new ArrayList<>();
+        when(ratingBatchService.ingest(any())).thenAnswer(invocation -> {
+            Iterator<RatingRequestDTO> rows = invocation.getArgument(0);
+            rows.forEachRemaining(received::add);
+            return new RatingBatchResultDTO(2, 0, 0, List.of());
+        });
+
+        MvcResult result = mockMvc.perform(post("/api/ratings/batch")
+                .contentType(MediaType.APPLICATION_CBOR)
+                .accept(MediaType.APPLICATION_CBOR)
+                .content(cbor.writeValueAsBytes(List.of(
+                        new RatingRequestDTO(1L, 5, "a"), new RatingRequestDTO(2L, 4, "b")))))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn();
+
+        assertEquals(2, received.size());
+        assertEquals(4, received.get(1).getScore());
+        RatingBatchResultDTO body = cbor.readValue(result.getResponse().getContentAsByteArray(), RatingBatchResultDTO.class);
+        assertEquals(2, body.getCreated());
+    }
+
+    @Test
+    void listMovies_negotiatesSmile() throws Exception {
+        when(movieService.listMovies(null, null)).thenReturn(
+                new CursorPageDTO<>(List.of(new MovieResponseDTO(1L, "Movie1", 2020)), null));
+
+        MvcResult result = mockMvc.perform(get("/api/movies").accept(WireFormatConfig.SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(WireFormatConfig.SMILE))
+                .andReturn();
+
+        Map<?, ?> page = WireFormatConfig.smileMapper(objectMapper)
+                .readValue(result.getResponse().getContentAsByteArray(), Map.class);
+        assertEquals("Movie1", ((Map<?, ?>) ((List<?>) page.get("items")).get(0)).get("title"));
+    }
+
+    @Test
+    void addRatingsBatch_acceptsJsonArray() throws Exception {
+        List<RatingRequestDTO> received = new ArrayList<>();
+        when(ratingBatchService.ingest(any())).thenAnswer(invocation -> {
+            Iterator<RatingRequestDTO> rows = invocation.getArgument(0);
+            rows.forEachRemaining(received::add);
+            return new RatingBatchResultDTO(2, 0, 0, List.of(
+                    new RatingBatchRowDTO(0, 10L, RatingBatchRowDTO.CREATED, null),
+                    new RatingBatchRowDTO(1, 11L, RatingBatchRowDTO.CREATED, null)));
+        });
+
+        mockMvc.perform(post("/api/ratings/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(
+                        new RatingRequestDTO(1L, 5, "a"), new RatingRequestDTO(2L, 4, "b")))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.rows[1].id").value(11L));
+
+        assertEquals(2, received.size());
+        assertEquals(2L, received.get(1).getMovieId());
+    }
+
+    @Test
+    void addRatingsBatch_acceptsNdjsonStream() throws Exception {
+        List<RatingRequestDTO> received = new ArrayList<>();
+        when(ratingBatchService.ingest(any())).thenAnswer(invocation -> {
+            Iterator<RatingRequestDTO> rows = invocation.getArgument(0);
+            rows.forEachRemaining(received::add);
+            return new RatingBatchResultDTO(3, 0, 0, List.of());
+        });
+
+        mockMvc.perform(post("/api/ratings/batch")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content("{\"movieId\":1,\"score\":5}\n{\"movieId\":1,\"score\":4}\n{\"movieId\":2,\"score\":3}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(3));
+
+        assertEquals(3, received.size());
+        assertEquals(3, received.get(2).getScore());
+    }
+
+    @Test
+    void addRatingsBatch_reportsStoredRowsWithMalformedRow() throws Exception {
+        when(ratingBatchService.ingest(any())).thenAnswer(invocation -> {
+            Iterator<RatingRequestDTO> rows = invocation.getArgument(0);
+            rows.next();
+            RatingBatchResultDTO result = new RatingBatchResultDTO(1, 0, 0, List.of(
+                    new RatingBatchRowDTO(0, 10L, RatingBatchRowDTO.CREATED, null)));
+            result.setError("Row 1 could not be read");
+            return result;
+        });
+
+        mockMvc.perform(post("/api/ratings/batch")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content("{\"movieId\":1,\"score\":5}\n{\"movieId\":\"x\",\"score\":4}\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Row 1 could not be read"))
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.rows[0].id").value(10));
+    }
+
+    @Test
+    void addRatingsBatch_rejectsUnparseableInput() throws Exception {
+        RatingBatchResultDTO result = new RatingBatchResultDTO(0, 0, 0, List.of());
+        result.setError("Row 0 could not be read");
+        when(ratingBatchService.ingest(any())).thenReturn(result);
+
+        mockMvc.perform(post("/api/ratings/batch")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content("{bad\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").exists())
+                .andExpect(jsonPath("$.created").value(0));
+    }
+
+    @Test
+    void searchMovies_returnsRankedTitles() throws Exception {
+        when(movieTitleIndex.search("incep", 5)).thenReturn(List.of(
+                new MovieResponseDTO(1L, "Inception", 2010)));
+
+        mockMvc.perform(get("/api/movies/search")
+                .param("q", "incep")
+                .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1L))
+                .andExpect(jsonPath("$[0].title").value("Inception"));
+    }
+
+    @Test
+    void topMovies_passesFiltersToLeaderboard() throws Exception {
+        when(movieLeaderboard.top(2010, 5L, 3)).thenReturn(List.of(
+                new TopMovieDTO(1L, "Inception", 2010, 12, 8.5, 7.9)));
+
+        mockMvc.perform(get("/api/movies/top")
+                .param("year", "2010")
+                .param("minVotes", "5")
+                .param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1L))
+                .andExpect(jsonPath("$[0].ratingCount").value(12))
+                .andExpect(jsonPath("$[0].weightedAverage").value(7.9));
+    }
+
+    @Test
+    void trendingMovies_returnsCountsForWindow() throws Exception {
+        when(trendingWindows.trending("1h", 5)).thenReturn(List.of(
+                new TrendingMovieDTO(1L, "Inception", 2010, 42)));
+
+        mockMvc.perform(get("/api/movies/trending")
+                .param("window", "1h")
+                .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1L))
+                .andExpect(jsonPath("$[0].ratingCount").value(42));
+    }
+
+    @Test
+    void trendingMovies_rejectsUnknownWindow() throws Exception {
+        when(trendingWindows.trending("30d", null)).thenThrow(new InvalidWindowException("Unknown window '30d'"));
+
+        mockMvc.perform(get("/api/movies/trending").param("window", "30d"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Unknown window '30d'"));
+    }
+
+    @Test
+    void averages_returnsMapForQueryIds() throws Exception {
+        Map<Long, MovieAverageDTO> averages = new LinkedHashMap<>();
+        averages.put(1L, new MovieAverageDTO(1L, 4.5, 2));
+        averages.put(2L, new MovieAverageDTO(2L, 0.0, 0));
+        when(ratingService.averagesForMovies(List.of(1L, 2L))).thenReturn(averages);
+
+        mockMvc.perform(get("/api/movies/averages").param("ids", "1,2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$['1'].average").value(4.5))
+                .andExpect(jsonPath("$['1'].count").value(2))
+                .andExpect(jsonPath("$['2'].count").value(0));
+    }
+
+    @Test
+    void averages_acceptsIdsInPostBody() throws Exception {
+        when(ratingService.averagesForMovies(List.of(3L)))
+                .thenReturn(Map.of(3L, new MovieAverageDTO(3L, 7.0, 1)));
+
+        mockMvc.perform(post("/api/movies/averages")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[3]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$['3'].average").value(7.0));
+    }
+
+    @Test
+    void averages_returnsBadRequestForTooManyIds() throws Exception {
+        when(ratingService.averagesForMovies(any())).thenThrow(new TooManyIdsException("At most 1000 movie ids"));
+
+        mockMvc.perform(post("/api/movies/averages")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[1, 2]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("At most 1000 movie ids"));
+    }
+
+    @Test
+    void listRatings_returnsPageWithCursor() throws Exception {
+        when(ratingService.listRatings(1L, null, 2, "score")).thenReturn(new CursorPageDTO<>(
+                List.of(new RatingResponseDTO(5L, 1L, 9, "Great"), new RatingResponseDTO(3L, 1L, 8, null)), "8:3"));
+
+        mockMvc.perform(get("/api/movies/1/ratings").param("limit", "2").param("sort", "score"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].score").value(9))
+                .andExpect(jsonPath("$.nextCursor").value("8:3"));
+    }
+
+    @Test
+    void listRatings_returnsBadRequestForUnknownSort() throws Exception {
+        when(ratingService.listRatings(1L, null, null, "title")).thenThrow(new InvalidSortException("Unknown sort 'title'"));
+
+        mockMvc.perform(get("/api/movies/1/ratings").param("sort", "title"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Unknown sort 'title'"));
+    }
+
+    @Test
+    void streamRatings_writesNdjson() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<RatingResponseDTO> sink = invocation.getArgument(1);
+            sink.accept(new RatingResponseDTO(1L, 7L, 5, "a"));
+            sink.accept(new RatingResponseDTO(2L, 7L, 6, "b"));
+            return null;
+        }).when(ratingService).streamRatings(any(), any());
+
+        MvcResult result = mockMvc.perform(get("/api/movies/7/ratings/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(2, body.lines().count());
+    }
+
+    @Test
+    void addRating_writeBehindReturnsAccepted() throws Exception {
+        when(ratingWriteBehindBuffer.isEnabled()).thenReturn(true);
+
+        mockMvc.perform(post("/api/ratings")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RatingRequestDTO(1L, 5, "Queued"))))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.movieId").value(1L))
+                .andExpect(jsonPath("$.comment").value("Queued"));
+        verify(ratingWriteBehindBuffer).submit(any(RatingRequestDTO.class));
+        verify(ratingService, never()).addRating(any());
+    }
+
+    @Test
+    void addRating_invalidRatingReturnsBadRequest() throws Exception {
+        when(ratingService.addRating(any())).thenThrow(new InvalidRatingException("movieId is required"));
+
+        mockMvc.perform(post("/api/ratings")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RatingRequestDTO(null, 5, null))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("movieId is required"));
+    }
+
+    @Test
+    void addRating_writeBehindFullReturnsServiceUnavailable() throws Exception {
+        when(ratingWriteBehindBuffer.isEnabled()).thenReturn(true);
+        doThrow(new RatingBufferFullException("Rating buffer is full (10 pending)"))
+                .when(ratingWriteBehindBuffer).submit(any());
+
+        mockMvc.perform(post("/api/ratings")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RatingRequestDTO(1L, 5, null))))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.error").exists());
+    }
+
+    @Test
+    void addRating_writeBehindRejectsInvalidRating() throws Exception {
+        when(ratingWriteBehindBuffer.isEnabled()).thenReturn(true);
+        doThrow(new InvalidRatingException("score must be between 1 and 10"))
+                .when(ratingWriteBehindBuffer).submit(any());
+
+        mockMvc.perform(post("/api/ratings")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RatingRequestDTO(1L, 42, null))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("score must be between 1 and 10"));
+    }
 }
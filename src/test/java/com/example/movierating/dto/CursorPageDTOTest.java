@@ -0,0 +1,34 @@
+package com.example.movierating.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CursorPageDTOTest {
+
+    @Test
+    void createCursorPageDTO_defaultConstructor() {
+        CursorPageDTO<MovieResponseDTO> dto = new CursorPageDTO<>();
+        assertNull(dto.getItems());
+        assertNull(dto.getNextCursor());
+    }
+
+    @Test
+    void createCursorPageDTO_withConstructor() {
+        CursorPageDTO<MovieResponseDTO> dto = new CursorPageDTO<>(List.of(new MovieResponseDTO(1L, "A", 2000)), "1");
+        assertEquals(1, dto.getItems().size());
+        assertEquals("1", dto.getNextCursor());
+    }
+
+    @Test
+    void cursorPageDTOSettersAndGetters() {
+        CursorPageDTO<MovieResponseDTO> dto = new CursorPageDTO<>();
+        dto.setItems(List.of());
+        dto.setNextCursor("42");
+
+        assertTrue(dto.getItems().isEmpty());
+        assertEquals("42", dto.getNextCursor());
+    }
+}
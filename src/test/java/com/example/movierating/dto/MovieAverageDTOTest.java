@@ -0,0 +1,28 @@
+package com.example.movierating.dto;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MovieAverageDTOTest {
+
+    @Test
+    void createMovieAverageDTO_withConstructor() {
+        MovieAverageDTO dto = new MovieAverageDTO(1L, 4.5, 2);
+        assertEquals(1L, dto.getMovieId());
+        assertEquals(4.5, dto.getAverage());
+        assertEquals(2, dto.getCount());
+    }
+
+    @Test
+    void movieAverageDTOSettersAndGetters() {
+        MovieAverageDTO dto = new MovieAverageDTO();
+        dto.setMovieId(3L);
+        dto.setAverage(7.0);
+        dto.setCount(1);
+
+        assertEquals(3L, dto.getMovieId());
+        assertEquals(7.0, dto.getAverage());
+        assertEquals(1, dto.getCount());
+    }
+}
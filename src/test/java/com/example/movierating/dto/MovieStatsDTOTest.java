@@ -0,0 +1,42 @@
+package com.example.movierating.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MovieStatsDTOTest {
+
+    @Test
+    void createMovieStatsDTO_withConstructor() {
+        MovieStatsDTO dto = new MovieStatsDTO(1L, 3, 6.0, 1.5, 6, 8, Map.of(6, 2L, 8, 1L));
+        assertEquals(1L, dto.getMovieId());
+        assertEquals(3, dto.getCount());
+        assertEquals(6.0, dto.getMean());
+        assertEquals(1.5, dto.getStandardDeviation());
+        assertEquals(6, dto.getMedian());
+        assertEquals(8, dto.getP90());
+        assertEquals(2L, dto.getHistogram().get(6));
+    }
+
+    @Test
+    void movieStatsDTOSettersAndGetters() {
+        MovieStatsDTO dto = new MovieStatsDTO();
+        dto.setMovieId(2L);
+        dto.setCount(1);
+        dto.setMean(9.0);
+        dto.setStandardDeviation(0.0);
+        dto.setMedian(9);
+        dto.setP90(9);
+        dto.setHistogram(Map.of(9, 1L));
+
+        assertEquals(2L, dto.getMovieId());
+        assertEquals(1, dto.getCount());
+        assertEquals(9.0, dto.getMean());
+        assertEquals(0.0, dto.getStandardDeviation());
+        assertEquals(9, dto.getMedian());
+        assertEquals(9, dto.getP90());
+        assertEquals(Map.of(9, 1L), dto.getHistogram());
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.movierating.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RatingBatchDTOTest {
+
+    @Test
+    void createRatingBatchRowDTO_withConstructor() {
+        RatingBatchRowDTO dto = new RatingBatchRowDTO(3, 10L, RatingBatchRowDTO.CREATED, null);
+        assertEquals(3, dto.getIndex());
+        assertEquals(10L, dto.getId());
+        assertEquals("CREATED", dto.getStatus());
+        assertNull(dto.getError());
+    }
+
+    @Test
+    void ratingBatchRowDTOSettersAndGetters() {
+        RatingBatchRowDTO dto = new RatingBatchRowDTO();
+        dto.setIndex(1);
+        dto.setId(null);
+        dto.setStatus(RatingBatchRowDTO.REJECTED);
+        dto.setError("score must be between 1 and 10");
+
+        assertEquals(1, dto.getIndex());
+        assertNull(dto.getId());
+        assertEquals("REJECTED", dto.getStatus());
+        assertEquals("score must be between 1 and 10", dto.getError());
+    }
+
+    @Test
+    void ratingBatchResultDTOSettersAndGetters() {
+        RatingBatchResultDTO dto = new RatingBatchResultDTO();
+        dto.setCreated(2);
+        dto.setRejected(1);
+        dto.setFailed(0);
+        dto.setRows(List.of(new RatingBatchRowDTO()));
+
+        assertEquals(2, dto.getCreated());
+        assertEquals(1, dto.getRejected());
+        assertEquals(0, dto.getFailed());
+        assertEquals(1, dto.getRows().size());
+    }
+}
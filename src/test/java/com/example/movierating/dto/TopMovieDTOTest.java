@@ -0,0 +1,37 @@
+package com.example.movierating.dto;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopMovieDTOTest {
+
+    @Test
+    void createTopMovieDTO_withConstructor() {
+        TopMovieDTO dto = new TopMovieDTO(1L, "Inception", 2010, 12, 8.5, 7.9);
+        assertEquals(1L, dto.getId());
+        assertEquals("Inception", dto.getTitle());
+        assertEquals(2010, dto.getYear());
+        assertEquals(12, dto.getRatingCount());
+        assertEquals(8.5, dto.getAverage());
+        assertEquals(7.9, dto.getWeightedAverage());
+    }
+
+    @Test
+    void topMovieDTOSettersAndGetters() {
+        TopMovieDTO dto = new TopMovieDTO();
+        dto.setId(2L);
+        dto.setTitle("Matrix");
+        dto.setYear(1999);
+        dto.setRatingCount(3);
+        dto.setAverage(9.0);
+        dto.setWeightedAverage(6.1);
+
+        assertEquals(2L, dto.getId());
+        assertEquals("Matrix", dto.getTitle());
+        assertEquals(1999, dto.getYear());
+        assertEquals(3, dto.getRatingCount());
+        assertEquals(9.0, dto.getAverage());
+        assertEquals(6.1, dto.getWeightedAverage());
+    }
+}
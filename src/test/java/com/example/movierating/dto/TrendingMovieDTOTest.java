@@ -0,0 +1,31 @@
+package com.example.movierating.dto;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrendingMovieDTOTest {
+
+    @Test
+    void createTrendingMovieDTO_withConstructor() {
+        TrendingMovieDTO dto = new TrendingMovieDTO(1L, "Inception", 2010, 42);
+        assertEquals(1L, dto.getId());
+        assertEquals("Inception", dto.getTitle());
+        assertEquals(2010, dto.getYear());
+        assertEquals(42, dto.getRatingCount());
+    }
+
+    @Test
+    void trendingMovieDTOSettersAndGetters() {
+        TrendingMovieDTO dto = new TrendingMovieDTO();
+        dto.setId(2L);
+        dto.setTitle("Matrix");
+        dto.setYear(1999);
+        dto.setRatingCount(7);
+
+        assertEquals(2L, dto.getId());
+        assertEquals("Matrix", dto.getTitle());
+        assertEquals(1999, dto.getYear());
+        assertEquals(7, dto.getRatingCount());
+    }
+}
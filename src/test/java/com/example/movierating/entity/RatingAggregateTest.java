@@ -0,0 +1,50 @@
+package com.example.movierating.entity;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RatingAggregateTest {
+
+    @Test
+    void createRatingAggregate_defaultConstructor() {
+        RatingAggregate aggregate = new RatingAggregate();
+        assertNull(aggregate.getMovieId());
+        assertEquals(0, aggregate.getRatingCount());
+        assertEquals(0.0, aggregate.getAverage());
+    }
+
+    @Test
+    void createRatingAggregate_withConstructor() {
+        RatingAggregate aggregate = new RatingAggregate(1L, 4, 14, 54);
+        assertEquals(1L, aggregate.getMovieId());
+        assertEquals(4, aggregate.getRatingCount());
+        assertEquals(14, aggregate.getScoreSum());
+        assertEquals(54, aggregate.getScoreSquareSum());
+        assertEquals(3.5, aggregate.getAverage());
+    }
+
+    @Test
+    void ratingAggregateSettersAndGetters() {
+        RatingAggregate aggregate = new RatingAggregate();
+        aggregate.setMovieId(2L);
+        aggregate.setRatingCount(2);
+        aggregate.setScoreSum(9);
+        aggregate.setScoreSquareSum(41);
+
+        assertEquals(2L, aggregate.getMovieId());
+        assertEquals(4.5, aggregate.getAverage());
+        assertEquals(41, aggregate.getScoreSquareSum());
+    }
+
+    @Test
+    void ratingAggregateEqualsAndHashCode() {
+        RatingAggregate a1 = new RatingAggregate(1L, 1, 5, 25);
+        RatingAggregate a2 = new RatingAggregate(1L, 2, 7, 29);
+        RatingAggregate a3 = new RatingAggregate(2L, 1, 5, 25);
+
+        assertEquals(a1, a2);
+        assertEquals(a1.hashCode(), a2.hashCode());
+        assertNotEquals(a1, a3);
+    }
+}
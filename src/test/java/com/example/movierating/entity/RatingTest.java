@@ -20,6 +20,7 @@ class RatingTest {
         assertEquals(1L, rating.getMovieId());
         assertEquals(5, rating.getScore());
         assertEquals("Excellent", rating.getComment());
+        assertNotNull(rating.getCreatedAt());
     }
 
     @Test
@@ -0,0 +1,77 @@
+package com.example.movierating.integration;
+
+import com.example.movierating.config.CacheConfig;
+import com.example.movierating.dto.MovieRequestDTO;
+import com.example.movierating.dto.MovieResponseDTO;
+import com.example.movierating.dto.RatingRequestDTO;
+import com.example.movierating.dto.RatingResponseDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class CachingIntegrationTest {
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Test
+    void addRating_evictsOnlyThatMoviesAverage() {
+        Long first = createMovie("Cached One", 2011);
+        Long second = createMovie("Cached Two", 2011);
+        rest.postForEntity("/api/ratings", new RatingRequestDTO(first, 2, null), RatingResponseDTO.class);
+        rest.postForEntity("/api/ratings", new RatingRequestDTO(second, 3, null), RatingResponseDTO.class);
+
+        assertEquals(2.0, average(first), 0.01);
+        assertEquals(3.0, average(second), 0.01);
+        assertNotNull(cacheManager.getCache(CacheConfig.MOVIE_AVERAGES).get(second));
+
+        rest.postForEntity("/api/ratings", new RatingRequestDTO(first, 4, null), RatingResponseDTO.class);
+
+        assertNull(cacheManager.getCache(CacheConfig.MOVIE_AVERAGES).get(first));
+        assertNotNull(cacheManager.getCache(CacheConfig.MOVIE_AVERAGES).get(second));
+        assertEquals(3.0, average(first), 0.01);
+    }
+
+    @Test
+    void createMovie_evictsCachedListing() {
+        rest.getForEntity("/api/movies?limit=1000", String.class);
+        Long id = createMovie("Cached Listing", 2012);
+
+        ResponseEntity<String> list = rest.getForEntity("/api/movies?limit=1000", String.class);
+        assertTrue(list.getBody().contains("\"id\":" + id + ","));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void cacheMetrics_areExposed() {
+        Long id = createMovie("Cached Metrics", 2013);
+        average(id);
+        average(id);
+
+        ResponseEntity<Map> metric = rest.getForEntity(
+                "/actuator/metrics/cache.gets?tag=cache:" + CacheConfig.MOVIE_AVERAGES + "&tag=result:hit", Map.class);
+        assertEquals(200, metric.getStatusCode().value());
+        List<Map<String, Object>> measurements = (List<Map<String, Object>>) metric.getBody().get("measurements");
+        assertTrue(((Number) measurements.get(0).get("value")).doubleValue() >= 1);
+    }
+
+    private Long createMovie(String title, int year) {
+        return rest.postForEntity("/api/movies", new MovieRequestDTO(title, year), MovieResponseDTO.class)
+                .getBody().getId();
+    }
+
+    private double average(Long movieId) {
+        return rest.getForEntity("/api/movies/" + movieId + "/average", Double.class).getBody();
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.movierating.integration;
+
+import com.example.movierating.dto.MovieRequestDTO;
+import com.example.movierating.dto.RatingRequestDTO;
+import com.example.movierating.exception.InvalidSnapshotException;
+import com.example.movierating.maintenance.DatabaseSnapshot;
+import com.example.movierating.service.MovieService;
+import com.example.movierating.service.RatingService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:snapshot-test;DB_CLOSE_DELAY=-1",
+        "spring.cache.type=none"})
+class DatabaseSnapshotIntegrationTest {
+    @Autowired
+    private DatabaseSnapshot snapshot;
+
+    @Autowired
+    private MovieService movieService;
+
+    @Autowired
+    private RatingService ratingService;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void writeThenRestore_roundTripsRowsAndRebuildsAggregates() {
+        Long first = movieService.createMovie(new MovieRequestDTO("Snapshot One", 2001)).getId();
+        Long second = movieService.createMovie(new MovieRequestDTO("Snapshot Two", null)).getId();
+        ratingService.addRating(new RatingRequestDTO(first, 4, "ok"));
+        ratingService.addRating(new RatingRequestDTO(first, 8, null));
+        ratingService.addRating(new RatingRequestDTO(second, 10, "best"));
+        Path file = dir.resolve("movies.snap");
+
+        assertArrayEquals(new long[] {2, 3}, snapshot.write(file));
+        assertThrows(IllegalStateException.class, () -> snapshot.restore(file));
+
+        jdbc.execute("DELETE FROM rating_histogram");
+        jdbc.execute("DELETE FROM rating_aggregate");
+        jdbc.execute("DELETE FROM rating");
+        jdbc.execute("DELETE FROM movie");
+        assertArrayEquals(new long[] {2, 3}, snapshot.restore(file));
+
+        assertEquals(6.0, ratingService.averageForMovie(first), 0.001);
+        assertEquals(2, ratingService.statsForMovie(first).getCount());
+        assertNull(jdbc.queryForObject("SELECT \"year\" FROM movie WHERE id = ?", Integer.class, second));
+        Long third = movieService.createMovie(new MovieRequestDTO("Snapshot Three", 2003)).getId();
+        assertTrue(third > second);
+        assertNotNull(ratingService.addRating(new RatingRequestDTO(third, 5, null)).getId());
+    }
+
+    @Test
+    void restore_rejectsForeignFiles() throws IOException {
+        Path file = dir.resolve("not-a.snap");
+        Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+        jdbc.execute("DELETE FROM rating_histogram");
+        jdbc.execute("DELETE FROM rating_aggregate");
+        jdbc.execute("DELETE FROM rating");
+        jdbc.execute("DELETE FROM movie");
+
+        assertThrows(InvalidSnapshotException.class, () -> snapshot.restore(file));
+    }
+}
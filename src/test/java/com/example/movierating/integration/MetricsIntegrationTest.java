@@ -0,0 +1,36 @@
+package com.example.movierating.integration;
+
+import com.example.movierating.dto.MovieRequestDTO;
+import com.example.movierating.dto.MovieResponseDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.ResponseEntity;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureObservability
+class MetricsIntegrationTest {
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Test
+    void prometheus_exposesRequestServicePoolAndHibernateMetrics() {
+        Long id = rest.postForEntity("/api/movies", new MovieRequestDTO("Metrics Movie", 2016), MovieResponseDTO.class)
+                .getBody().getId();
+        rest.getForEntity("/api/movies/" + id + "/average", Double.class);
+
+        ResponseEntity<String> scrape = rest.getForEntity("/actuator/prometheus", String.class);
+        assertEquals(200, scrape.getStatusCode().value());
+        String body = scrape.getBody();
+        assertTrue(body.contains("http_server_requests_seconds_bucket"));
+        assertTrue(body.contains("movierating_service_seconds_bucket"));
+        assertTrue(body.contains("method=\"averageForMovie\""));
+        assertTrue(body.contains("http_server_requests_statements_bucket"));
+        assertTrue(body.contains("hikaricp_connections_active"));
+        assertTrue(body.contains("hibernate_statements_total") || body.contains("hibernate_query_executions_total"));
+    }
+}
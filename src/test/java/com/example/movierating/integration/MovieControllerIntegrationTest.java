@@ -1,35 +1,59 @@
 package com.example.movierating.integration;
 
+import com.example.movierating.dto.CursorPageDTO;
 import com.example.movierating.dto.MovieRequestDTO;
 import com.example.movierating.dto.MovieResponseDTO;
+import com.example.movierating.dto.MovieStatsDTO;
+import com.example.movierating.dto.RatingBatchResultDTO;
 import com.example.movierating.dto.RatingRequestDTO;
 import com.example.movierating.dto.RatingResponseDTO;
+import com.example.movierating.dto.TopMovieDTO;
+import com.example.movierating.service.RatingService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 class MovieControllerIntegrationTest {
+    private static final ParameterizedTypeReference<CursorPageDTO<MovieResponseDTO>> MOVIE_PAGE =
+            new ParameterizedTypeReference<>() {};
+    private static final ParameterizedTypeReference<CursorPageDTO<RatingResponseDTO>> RATING_PAGE =
+            new ParameterizedTypeReference<>() {};
+
     @Autowired
     private TestRestTemplate rest;
 
+    @Autowired
+    private RatingService ratingService;
+
     @Test
     void createAndRateMovie_flow() {
         MovieRequestDTO movie = new MovieRequestDTO("Integration", 2021);
         ResponseEntity<MovieResponseDTO> r1 = rest.postForEntity("/api/movies", movie, MovieResponseDTO.class);
-        assertEquals(200, r1.getStatusCodeValue());
+        assertEquals(200, r1.getStatusCode().value());
         Long id = r1.getBody().getId();
 
         RatingRequestDTO rating = new RatingRequestDTO(id, 5, "Nice");
         ResponseEntity<RatingResponseDTO> r2 = rest.postForEntity("/api/ratings", rating, RatingResponseDTO.class);
-        assertEquals(200, r2.getStatusCodeValue());
+        assertEquals(200, r2.getStatusCode().value());
 
         ResponseEntity<Double> avg = rest.getForEntity("/api/movies/" + id + "/average", Double.class);
-        assertEquals(200, avg.getStatusCodeValue());
+        assertEquals(200, avg.getStatusCode().value());
         assertTrue(avg.getBody() > 0);
     }
 
@@ -41,12 +65,45 @@ class MovieControllerIntegrationTest {
         ResponseEntity<MovieResponseDTO> r1 = rest.postForEntity("/api/movies", movie1, MovieResponseDTO.class);
         ResponseEntity<MovieResponseDTO> r2 = rest.postForEntity("/api/movies", movie2, MovieResponseDTO.class);
 
-        assertEquals(200, r1.getStatusCodeValue());
-        assertEquals(200, r2.getStatusCodeValue());
+        assertEquals(200, r1.getStatusCode().value());
+        assertEquals(200, r2.getStatusCode().value());
 
-        ResponseEntity<MovieResponseDTO[]> list = rest.getForEntity("/api/movies", MovieResponseDTO[].class);
-        assertEquals(200, list.getStatusCodeValue());
-        assertTrue(list.getBody().length >= 2);
+        ResponseEntity<CursorPageDTO<MovieResponseDTO>> list = rest.exchange(
+                "/api/movies", HttpMethod.GET, null, MOVIE_PAGE);
+        assertEquals(200, list.getStatusCode().value());
+        assertTrue(list.getBody().getItems().size() >= 2);
+    }
+
+    @Test
+    void listMovies_walksAllPagesWithCursor() {
+        for (int i = 0; i < 5; i++) {
+            rest.postForEntity("/api/movies", new MovieRequestDTO("Paged " + i, 2001), MovieResponseDTO.class);
+        }
+
+        Set<Long> seen = new HashSet<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            String url = "/api/movies?limit=2" + (cursor == null ? "" : "&cursor=" + cursor);
+            CursorPageDTO<MovieResponseDTO> page = rest.exchange(url, HttpMethod.GET, null, MOVIE_PAGE).getBody();
+            assertTrue(page.getItems().size() <= 2);
+            page.getItems().forEach(m -> assertTrue(seen.add(m.getId())));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertTrue(seen.size() >= 5);
+        assertTrue(pages >= 3);
+    }
+
+    @Test
+    void streamMovies_returnsOneJsonObjectPerLine() {
+        rest.postForEntity("/api/movies", new MovieRequestDTO("Streamed", 2003), MovieResponseDTO.class);
+
+        ResponseEntity<String> response = rest.getForEntity("/api/movies/stream", String.class);
+        assertEquals(200, response.getStatusCode().value());
+        assertTrue(response.getBody().lines().anyMatch(line -> line.contains("\"title\":\"Streamed\"")));
+        assertTrue(response.getBody().lines().allMatch(line -> line.startsWith("{") && line.endsWith("}")));
     }
 
     @Test
@@ -59,12 +116,12 @@ class MovieControllerIntegrationTest {
         for (int i = 1; i <= 5; i++) {
             RatingRequestDTO rating = new RatingRequestDTO(movieId, i, "Rating " + i);
             ResponseEntity<RatingResponseDTO> ratingResponse = rest.postForEntity("/api/ratings", rating, RatingResponseDTO.class);
-            assertEquals(200, ratingResponse.getStatusCodeValue());
+            assertEquals(200, ratingResponse.getStatusCode().value());
         }
 
         // Get average (should be 3.0: (1+2+3+4+5)/5 = 15/5 = 3)
         ResponseEntity<Double> avg = rest.getForEntity("/api/movies/" + movieId + "/average", Double.class);
-        assertEquals(200, avg.getStatusCodeValue());
+        assertEquals(200, avg.getStatusCode().value());
         assertEquals(3.0, avg.getBody(), 0.01);
     }
 
@@ -72,7 +129,7 @@ class MovieControllerIntegrationTest {
     void addRatingToNonExistentMovie() {
         RatingRequestDTO rating = new RatingRequestDTO(99999L, 5, "Test");
         ResponseEntity<RatingResponseDTO> response = rest.postForEntity("/api/ratings", rating, RatingResponseDTO.class);
-        assertEquals(200, response.getStatusCodeValue());
+        assertEquals(200, response.getStatusCode().value());
     }
 
     @Test
@@ -81,10 +138,201 @@ class MovieControllerIntegrationTest {
         
         // Create first movie
         ResponseEntity<MovieResponseDTO> r1 = rest.postForEntity("/api/movies", movie, MovieResponseDTO.class);
-        assertEquals(200, r1.getStatusCodeValue());
+        assertEquals(200, r1.getStatusCode().value());
 
         // Try to create same movie again
         ResponseEntity<?> r2 = rest.postForEntity("/api/movies", movie, Object.class);
-        assertEquals(409, r2.getStatusCodeValue());
+        assertEquals(409, r2.getStatusCode().value());
+    }
+
+    @Test
+    void averageEtag_revalidatesUntilRatingAdded() {
+        Long id = rest.postForEntity("/api/movies", new MovieRequestDTO("Etag Movie", 2015), MovieResponseDTO.class)
+                .getBody().getId();
+        String url = "/api/movies/" + id + "/average";
+        String etag = rest.getForEntity(url, Double.class).getHeaders().getETag();
+        assertNotNull(etag);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(etag);
+        ResponseEntity<Double> unchanged = rest.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), Double.class);
+        assertEquals(304, unchanged.getStatusCode().value());
+
+        rest.postForEntity("/api/ratings", new RatingRequestDTO(id, 5, "Fresh"), RatingResponseDTO.class);
+        ResponseEntity<Double> changed = rest.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), Double.class);
+        assertEquals(200, changed.getStatusCode().value());
+        assertEquals(5.0, changed.getBody());
+        assertNotEquals(etag, changed.getHeaders().getETag());
+    }
+
+    @Test
+    void createOrGetMovie_returnsExistingId() {
+        MovieRequestDTO movie = new MovieRequestDTO("IdempotentTest", 2022);
+
+        ResponseEntity<MovieResponseDTO> r1 = rest.postForEntity("/api/movies?ifExists=return", movie, MovieResponseDTO.class);
+        ResponseEntity<MovieResponseDTO> r2 = rest.postForEntity("/api/movies?ifExists=return", movie, MovieResponseDTO.class);
+
+        assertEquals(200, r1.getStatusCode().value());
+        assertEquals(200, r2.getStatusCode().value());
+        assertEquals(r1.getBody().getId(), r2.getBody().getId());
+    }
+
+    @Test
+    void rebuildAggregates_keepsAverage() {
+        MovieRequestDTO movie = new MovieRequestDTO("Rebuild Movie", 2019);
+        Long movieId = rest.postForEntity("/api/movies", movie, MovieResponseDTO.class).getBody().getId();
+        rest.postForEntity("/api/ratings", new RatingRequestDTO(movieId, 2, "Meh"), RatingResponseDTO.class);
+        rest.postForEntity("/api/ratings", new RatingRequestDTO(movieId, 5, "Great"), RatingResponseDTO.class);
+
+        assertTrue(ratingService.rebuildAggregates() >= 1);
+
+        ResponseEntity<Double> avg = rest.getForEntity("/api/movies/" + movieId + "/average", Double.class);
+        assertEquals(3.5, avg.getBody(), 0.01);
+    }
+
+    @Test
+    void addRatingsBatch_insertsRowsAndUpdatesAverage() {
+        Long movieId = rest.postForEntity("/api/movies", new MovieRequestDTO("Batch Movie", 2018), MovieResponseDTO.class)
+                .getBody().getId();
+        List<RatingRequestDTO> rows = List.of(
+                new RatingRequestDTO(movieId, 2, "a"),
+                new RatingRequestDTO(movieId, 4, "b"),
+                new RatingRequestDTO(movieId, 42, "out of range"),
+                new RatingRequestDTO(movieId, 6, "c"));
+
+        ResponseEntity<RatingBatchResultDTO> response =
+                rest.postForEntity("/api/ratings/batch", rows, RatingBatchResultDTO.class);
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(3, response.getBody().getCreated());
+        assertEquals(1, response.getBody().getRejected());
+        assertNotNull(response.getBody().getRows().get(3).getId());
+
+        ResponseEntity<Double> avg = rest.getForEntity("/api/movies/" + movieId + "/average", Double.class);
+        assertEquals(4.0, avg.getBody(), 0.01);
+    }
+
+    @Test
+    void addRatingsBatch_reportsRowsStoredBeforeMalformedInput() {
+        Long movieId = rest.postForEntity("/api/movies", new MovieRequestDTO("Broken Batch Movie", 2018), MovieResponseDTO.class)
+                .getBody().getId();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_NDJSON);
+        String body = "{\"movieId\":" + movieId + ",\"score\":4}\n{\"movieId\":" + movieId + ",\"score\":6}\n{bad\n";
+
+        ResponseEntity<RatingBatchResultDTO> response =
+                rest.postForEntity("/api/ratings/batch", new HttpEntity<>(body, headers), RatingBatchResultDTO.class);
+
+        assertEquals(400, response.getStatusCode().value());
+        assertEquals(2, response.getBody().getCreated());
+        assertEquals(2, response.getBody().getRows().size());
+        assertNotNull(response.getBody().getError());
+        assertEquals(5.0, rest.getForEntity("/api/movies/" + movieId + "/average", Double.class).getBody(), 0.01);
+    }
+
+    @Test
+    void searchMovies_findsNewTitlesByPrefixAndTypo() {
+        Long id = rest.postForEntity("/api/movies", new MovieRequestDTO("Zebulon's Quixotic Voyage", 2016),
+                MovieResponseDTO.class).getBody().getId();
+
+        ResponseEntity<MovieResponseDTO[]> prefix =
+                rest.getForEntity("/api/movies/search?q=zebulon qui", MovieResponseDTO[].class);
+        assertEquals(200, prefix.getStatusCode().value());
+        assertEquals(id, prefix.getBody()[0].getId());
+
+        MovieResponseDTO[] fuzzy = rest.getForEntity("/api/movies/search?q=quixtoic", MovieResponseDTO[].class).getBody();
+        assertEquals(id, fuzzy[0].getId());
+    }
+
+    @Test
+    void stats_followSingleAndBatchRatings() {
+        Long movieId = rest.postForEntity("/api/movies", new MovieRequestDTO("Stats Movie", 2017), MovieResponseDTO.class)
+                .getBody().getId();
+        rest.postForEntity("/api/ratings", new RatingRequestDTO(movieId, 2, null), RatingResponseDTO.class);
+        rest.postForEntity("/api/ratings/batch", List.of(
+                new RatingRequestDTO(movieId, 4, null),
+                new RatingRequestDTO(movieId, 4, null),
+                new RatingRequestDTO(movieId, 10, null)), RatingBatchResultDTO.class);
+
+        MovieStatsDTO stats = rest.getForEntity("/api/movies/" + movieId + "/stats", MovieStatsDTO.class).getBody();
+        assertEquals(4, stats.getCount());
+        assertEquals(5.0, stats.getMean(), 0.01);
+        assertEquals(3.0, stats.getStandardDeviation(), 0.01);
+        assertEquals(4, stats.getMedian());
+        assertEquals(10, stats.getP90());
+        assertEquals(2L, stats.getHistogram().get(4));
+
+        ratingService.rebuildAggregates();
+        MovieStatsDTO rebuilt = rest.getForEntity("/api/movies/" + movieId + "/stats", MovieStatsDTO.class).getBody();
+        assertEquals(stats.getHistogram(), rebuilt.getHistogram());
+    }
+
+    @Test
+    void topMovies_rankedByWeightedAverageWithinYear() {
+        Long few = rest.postForEntity("/api/movies", new MovieRequestDTO("Top Few", 1888), MovieResponseDTO.class)
+                .getBody().getId();
+        Long many = rest.postForEntity("/api/movies", new MovieRequestDTO("Top Many", 1888), MovieResponseDTO.class)
+                .getBody().getId();
+        rest.postForEntity("/api/ratings", new RatingRequestDTO(few, 10, null), RatingResponseDTO.class);
+        for (int i = 0; i < 40; i++) {
+            rest.postForEntity("/api/ratings", new RatingRequestDTO(many, 9, null), RatingResponseDTO.class);
+        }
+
+        ResponseEntity<TopMovieDTO[]> top = rest.getForEntity("/api/movies/top?year=1888", TopMovieDTO[].class);
+        assertEquals(200, top.getStatusCode().value());
+        assertEquals(2, top.getBody().length);
+        assertEquals(many, top.getBody()[0].getId());
+        assertEquals(40, top.getBody()[0].getRatingCount());
+        assertEquals(few, top.getBody()[1].getId());
+
+        TopMovieDTO[] popular = rest.getForEntity("/api/movies/top?year=1888&minVotes=2", TopMovieDTO[].class).getBody();
+        assertEquals(1, popular.length);
+        assertEquals(many, popular[0].getId());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void averages_returnsAllRequestedMoviesInOneCall() {
+        Long rated = rest.postForEntity("/api/movies", new MovieRequestDTO("Averages Rated", 2017), MovieResponseDTO.class)
+                .getBody().getId();
+        Long unrated = rest.postForEntity("/api/movies", new MovieRequestDTO("Averages Unrated", 2017), MovieResponseDTO.class)
+                .getBody().getId();
+        rest.postForEntity("/api/ratings", new RatingRequestDTO(rated, 3, null), RatingResponseDTO.class);
+        rest.postForEntity("/api/ratings", new RatingRequestDTO(rated, 6, null), RatingResponseDTO.class);
+
+        ResponseEntity<Map> response = rest.getForEntity("/api/movies/averages?ids=" + rated + "," + unrated, Map.class);
+        assertEquals(200, response.getStatusCode().value());
+        Map<String, Object> ratedAverage = (Map<String, Object>) response.getBody().get(String.valueOf(rated));
+        Map<String, Object> unratedAverage = (Map<String, Object>) response.getBody().get(String.valueOf(unrated));
+        assertEquals(4.5, ((Number) ratedAverage.get("average")).doubleValue(), 0.01);
+        assertEquals(2, ((Number) ratedAverage.get("count")).intValue());
+        assertEquals(0, ((Number) unratedAverage.get("count")).intValue());
+
+        ResponseEntity<Map> posted = rest.postForEntity("/api/movies/averages", List.of(rated), Map.class);
+        assertEquals(200, posted.getStatusCode().value());
+        assertTrue(posted.getBody().containsKey(String.valueOf(rated)));
+    }
+
+    @Test
+    void listRatings_walksPagesByScoreAndStreams() {
+        Long movieId = rest.postForEntity("/api/movies", new MovieRequestDTO("Ratings Listing", 2015), MovieResponseDTO.class)
+                .getBody().getId();
+        int[] scores = {4, 9, 4, 7, 1};
+        for (int score : scores) {
+            rest.postForEntity("/api/ratings", new RatingRequestDTO(movieId, score, null), RatingResponseDTO.class);
+        }
+
+        List<Integer> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            String url = "/api/movies/" + movieId + "/ratings?sort=score&limit=2" + (cursor == null ? "" : "&cursor=" + cursor);
+            CursorPageDTO<RatingResponseDTO> page = rest.exchange(url, HttpMethod.GET, null, RATING_PAGE).getBody();
+            page.getItems().forEach(r -> seen.add(r.getScore()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        assertEquals(List.of(9, 7, 4, 4, 1), seen);
+
+        ResponseEntity<String> stream = rest.getForEntity("/api/movies/" + movieId + "/ratings/stream", String.class);
+        assertEquals(200, stream.getStatusCode().value());
+        assertEquals(scores.length, stream.getBody().lines().count());
     }
 }
@@ -0,0 +1,127 @@
+package com.example.movierating.integration;
+
+import com.example.movierating.dto.MovieRequestDTO;
+import com.example.movierating.dto.MovieResponseDTO;
+import com.example.movierating.dto.RatingRequestDTO;
+import com.example.movierating.dto.RatingResponseDTO;
+import com.example.movierating.reactive.ReactiveConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The test context loader picks the web application type before profile properties are read.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.main.web-application-type=reactive")
+@ActiveProfiles(ReactiveConfig.PROFILE)
+class ReactiveStackIntegrationTest {
+    @Autowired
+    private WebTestClient client;
+
+    @Test
+    void createRateAndAverage_flow() {
+        MovieResponseDTO movie = createMovie("Reactive Flow", 2023);
+        assertNotNull(movie.getId());
+
+        RatingResponseDTO rating = client.post().uri("/api/ratings")
+                .bodyValue(new RatingRequestDTO(movie.getId(), 4, "Reactive"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(RatingResponseDTO.class).returnResult().getResponseBody();
+        assertNotNull(rating.getId());
+        client.post().uri("/api/ratings").bodyValue(new RatingRequestDTO(movie.getId(), 8, null))
+                .exchange().expectStatus().isOk();
+
+        client.get().uri("/api/movies/{id}/average", movie.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Double.class).isEqualTo(6.0);
+    }
+
+    @Test
+    void addRating_rejectsInvalidScoreAndMissingMovieId() {
+        MovieResponseDTO movie = createMovie("Reactive Invalid", 2023);
+
+        client.post().uri("/api/ratings")
+                .bodyValue(new RatingRequestDTO(movie.getId(), 99, null))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.error").isEqualTo("score must be between 1 and 10");
+        client.post().uri("/api/ratings")
+                .bodyValue(new RatingRequestDTO(null, 5, null))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.error").isEqualTo("movieId is required");
+
+        client.get().uri("/api/movies/{id}/average", movie.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Double.class).isEqualTo(0.0);
+    }
+
+    @Test
+    void average_rejectsNonNumericId() {
+        client.get().uri("/api/movies/abc/average")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.error").isEqualTo("Invalid movie id 'abc'");
+    }
+
+    @Test
+    void createDuplicateMovie_returnsConflict() {
+        createMovie("Reactive Duplicate", 2023);
+
+        client.post().uri("/api/movies")
+                .bodyValue(new MovieRequestDTO("Reactive Duplicate", 2023))
+                .exchange()
+                .expectStatus().isEqualTo(409)
+                .expectBody().jsonPath("$.error").exists();
+    }
+
+    @Test
+    void listMovies_pagesWithCursor() {
+        createMovie("Reactive Page A", 2024);
+        createMovie("Reactive Page B", 2024);
+
+        client.get().uri("/api/movies?limit=1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.items.length()").isEqualTo(1)
+                .jsonPath("$.nextCursor").isNotEmpty();
+
+        client.get().uri("/api/movies?cursor=abc")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void streamMovies_returnsNdjson() {
+        MovieResponseDTO movie = createMovie("Reactive Stream", 2024);
+
+        List<MovieResponseDTO> streamed = client.get().uri("/api/movies/stream")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(MovieResponseDTO.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+        assertTrue(streamed.stream().anyMatch(m -> movie.getId().equals(m.getId())));
+    }
+
+    private MovieResponseDTO createMovie(String title, int year) {
+        return client.post().uri("/api/movies")
+                .bodyValue(new MovieRequestDTO(title, year))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(MovieResponseDTO.class).returnResult().getResponseBody();
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.movierating.journal;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalProjectorTest {
+    @TempDir
+    Path dir;
+
+    private RatingJournal journal;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        journal = new RatingJournal(null, true, dir.toString(), RatingJournal.RECORD_BYTES * 1000L);
+        journal.open();
+        registry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        journal.close();
+    }
+
+    private void awaitCaughtUp(JournalProjector projector) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (projector.offset(MovieTotalsProjection.NAME) < journal.endOffset()) {
+            assertTrue(System.currentTimeMillis() < deadline, "projector did not catch up");
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    void start_appliesExistingAndNewRecords() throws InterruptedException {
+        journal.append(1, 1L, 4);
+        MovieTotalsProjection totals = new MovieTotalsProjection();
+        JournalProjector projector = new JournalProjector(journal, List.of(totals), registry, 1000);
+
+        projector.start();
+        journal.append(2, 1L, 8);
+        awaitCaughtUp(projector);
+        projector.stop();
+
+        assertEquals(6.0, totals.average(1L));
+        assertEquals(0.0, registry.get("ratings.journal.lag").gauge().value());
+    }
+
+    @Test
+    void restart_resumesFromCheckpoint() throws InterruptedException {
+        for (int i = 0; i < 2500; i++) journal.append(i, i % 5, 1 + i % 10);
+        JournalProjector first = new JournalProjector(journal, List.of(new MovieTotalsProjection()), registry, 1000);
+        first.start();
+        awaitCaughtUp(first);
+        first.stop();
+        assertTrue(Files.exists(dir.resolve("checkpoints").resolve(MovieTotalsProjection.NAME + ".checkpoint")));
+
+        journal.append(2500, 9L, 10);
+        MovieTotalsProjection totals = new MovieTotalsProjection();
+        JournalProjector second = new JournalProjector(journal, List.of(totals), new SimpleMeterRegistry(), 1000);
+        second.start();
+        awaitCaughtUp(second);
+        second.stop();
+
+        assertEquals(500, totals.count(0L));
+        assertEquals(1, totals.count(9L));
+    }
+
+    @Test
+    void start_ignoresCheckpointFromAnotherJournal() throws Exception {
+        journal.append(1, 1L, 4);
+        JournalProjector first = new JournalProjector(journal, List.of(new MovieTotalsProjection()), registry, 1000);
+        first.start();
+        awaitCaughtUp(first);
+        first.stop();
+        journal.close();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.filter(p -> p.toString().endsWith(".journal")).toList()) Files.delete(file);
+        }
+        journal.open();
+        journal.append(77, 2L, 9);
+
+        MovieTotalsProjection totals = new MovieTotalsProjection();
+        JournalProjector second = new JournalProjector(journal, List.of(totals), new SimpleMeterRegistry(), 1000);
+        second.start();
+        awaitCaughtUp(second);
+        second.stop();
+
+        assertEquals(0, totals.count(1L));
+        assertEquals(1, totals.count(2L));
+    }
+
+    @Test
+    void replay_rebuildsFromOffsetZero() {
+        journal.append(1, 1L, 4);
+        journal.append(2, 1L, 6);
+        MovieTotalsProjection totals = new MovieTotalsProjection();
+        totals.apply(1L, 10);
+        JournalProjector projector = new JournalProjector(journal, List.of(totals), registry, 1000);
+
+        assertEquals(2, projector.replay());
+
+        assertEquals(2, totals.count(1L));
+        assertEquals(5.0, totals.average(1L));
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.movierating.journal;
+
+import com.example.movierating.dto.MovieAverageDTO;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MovieTotalsProjectionTest {
+    private final MovieTotalsProjection projection = new MovieTotalsProjection();
+
+    @Test
+    void apply_tracksCountAndAverage() {
+        projection.apply(1L, 4);
+        projection.apply(1L, 8);
+        projection.apply(2L, 5);
+
+        assertEquals(2, projection.count(1L));
+        assertEquals(6.0, projection.average(1L));
+        assertEquals(0.0, projection.average(3L));
+    }
+
+    @Test
+    void top_ordersByAverageAndHonorsMinVotes() {
+        projection.apply(1L, 6);
+        projection.apply(1L, 8);
+        projection.apply(2L, 10);
+        projection.apply(3L, 9);
+        projection.apply(3L, 9);
+
+        List<MovieAverageDTO> top = projection.top(10, 2);
+
+        assertEquals(List.of(3L, 1L), top.stream().map(MovieAverageDTO::getMovieId).toList());
+        assertEquals(9.0, top.get(0).getAverage());
+    }
+
+    @Test
+    void state_roundTrips() throws IOException {
+        projection.apply(1L, 4);
+        projection.apply(2L, 7);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        projection.writeState(new DataOutputStream(bytes));
+
+        MovieTotalsProjection restored = new MovieTotalsProjection();
+        restored.readState(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(2, restored.size());
+        assertEquals(7.0, restored.average(2L));
+    }
+
+    @Test
+    void reset_dropsEverything() {
+        projection.apply(1L, 4);
+        projection.reset();
+        assertEquals(0, projection.size());
+    }
+}
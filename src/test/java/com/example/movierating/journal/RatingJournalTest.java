@@ -0,0 +1,203 @@
+package com.example.movierating.journal;
+
+import com.example.movierating.entity.Rating;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RatingJournalTest {
+    @TempDir
+    Path dir;
+
+    private RatingJournal journal;
+
+    @AfterEach
+    void tearDown() {
+        if (journal != null) journal.close();
+    }
+
+    private RatingJournal open(long segmentBytes) {
+        journal = new RatingJournal(null, true, dir.toString(), segmentBytes);
+        journal.open();
+        return journal;
+    }
+
+    private static List<long[]> readAll(RatingJournal journal) {
+        List<long[]> records = new ArrayList<>();
+        journal.read(0, Integer.MAX_VALUE, (offset, ratingId, movieId, score) ->
+                records.add(new long[] {offset, ratingId, movieId, score}));
+        return records;
+    }
+
+    @Test
+    void append_assignsConsecutiveOffsetsAcrossSegments() throws IOException {
+        open(RatingJournal.RECORD_BYTES * 4L);
+        for (int i = 0; i < 10; i++) assertEquals(i, journal.append(100 + i, i % 3, 1 + i % 10));
+
+        List<long[]> records = readAll(journal);
+        assertEquals(10, records.size());
+        assertArrayEquals(new long[] {9, 109, 0, 10}, records.get(9));
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(3, files.filter(p -> p.toString().endsWith(".journal")).count());
+        }
+    }
+
+    @Test
+    void read_stopsAtMaxAndResumes() {
+        open(1 << 16);
+        for (int i = 0; i < 5; i++) journal.append(i, 1, 5);
+
+        List<long[]> seen = new ArrayList<>();
+        long next = journal.read(0, 3, (offset, ratingId, movieId, score) -> seen.add(new long[] {offset}));
+        assertEquals(3, next);
+        assertEquals(5, journal.read(next, 100, (offset, ratingId, movieId, score) -> seen.add(new long[] {offset})));
+        assertEquals(5, seen.size());
+    }
+
+    @Test
+    void reopen_recoversEndAndDropsTornRecord() throws IOException {
+        open(RatingJournal.RECORD_BYTES * 4L);
+        for (int i = 0; i < 6; i++) journal.append(i, 7, 3);
+        journal.close();
+        Path last = dir.resolve(String.format("%020d.journal", 4));
+        try (FileChannel channel = FileChannel.open(last, StandardOpenOption.WRITE)) {
+            // Damage the check value of the last record, offset 5, as a torn write would.
+            channel.write(ByteBuffer.wrap(new byte[] {1, 2, 3}), RatingJournal.RECORD_BYTES + 20L);
+        }
+
+        open(RatingJournal.RECORD_BYTES * 4L);
+        assertEquals(5, journal.endOffset());
+        assertEquals(5, journal.append(42, 7, 3));
+        assertEquals(42, readAll(journal).get(5)[1]);
+    }
+
+    @Test
+    void appendAll_isIgnoredUntilStarted() {
+        journal = new RatingJournal(null, true, dir.toString(), 1 << 16);
+        Rating rating = new Rating(1L, 5, null);
+        rating.setId(1L);
+
+        journal.appendAll(List.of(rating));
+
+        assertEquals(0, journal.endOffset());
+    }
+
+    @Test
+    void start_seedsEmptyJournalFromRatingTable() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:journal-seed;DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE rating (id BIGINT PRIMARY KEY, movie_id BIGINT, score INT, comment VARCHAR(255))");
+        jdbc.update("INSERT INTO rating VALUES (2, 1, 8, NULL), (1, 1, 6, 'first'), (3, NULL, 5, NULL)");
+
+        journal = new RatingJournal(dataSource, true, dir.toString(), 1 << 16);
+        journal.start();
+
+        List<long[]> records = readAll(journal);
+        assertEquals(2, records.size());
+        assertArrayEquals(new long[] {0, 1, 1, 6}, records.get(0));
+        assertArrayEquals(new long[] {1, 2, 1, 8}, records.get(1));
+        assertEquals(0, journal.catchUp());
+        jdbc.execute("DROP TABLE rating");
+    }
+
+    @Test
+    void start_appendsRatingsCommittedWhileDisabled() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:journal-behind;DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE rating (id BIGINT PRIMARY KEY, movie_id BIGINT, score INT)");
+        jdbc.update("INSERT INTO rating VALUES (1, 1, 6), (2, 1, 8)");
+        journal = new RatingJournal(dataSource, true, dir.toString(), 1 << 16);
+        journal.start();
+        journal.stop();
+
+        jdbc.update("INSERT INTO rating VALUES (3, 2, 5), (4, 2, 7)");
+        journal.start();
+
+        List<long[]> records = readAll(journal);
+        assertEquals(4, records.size());
+        assertArrayEquals(new long[] {2, 3, 2, 5}, records.get(2));
+        assertArrayEquals(new long[] {3, 4, 2, 7}, records.get(3));
+        jdbc.execute("DROP TABLE rating");
+    }
+
+    @Test
+    void start_doesNotRepeatRatingsCommittedOutOfIdOrder() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:journal-order;DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE rating (id BIGINT PRIMARY KEY, movie_id BIGINT, score INT)");
+        journal = new RatingJournal(dataSource, true, dir.toString(), 1 << 16);
+        journal.start();
+        jdbc.update("INSERT INTO rating VALUES (102, 1, 8)");
+        journal.append(102, 1, 8);
+        jdbc.update("INSERT INTO rating VALUES (101, 1, 6)");
+        journal.append(101, 1, 6);
+        journal.stop();
+
+        journal.start();
+
+        List<long[]> records = readAll(journal);
+        assertEquals(2, records.size());
+        assertArrayEquals(new long[] {0, 102, 1, 8}, records.get(0));
+        assertArrayEquals(new long[] {1, 101, 1, 6}, records.get(1));
+        jdbc.execute("DROP TABLE rating");
+    }
+
+    @Test
+    void start_appendsLowerRatingWhoseAppendWasLost() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:journal-lost;DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE rating (id BIGINT PRIMARY KEY, movie_id BIGINT, score INT)");
+        journal = new RatingJournal(dataSource, true, dir.toString(), 1 << 16);
+        journal.start();
+        jdbc.update("INSERT INTO rating VALUES (100, 1, 5), (101, 2, 6), (102, 1, 8)");
+        journal.append(100, 1, 5);
+        journal.append(102, 1, 8);
+        journal.stop();
+
+        journal.start();
+
+        List<long[]> records = readAll(journal);
+        assertEquals(3, records.size());
+        assertArrayEquals(new long[] {2, 101, 2, 6}, records.get(2));
+        jdbc.execute("DROP TABLE rating");
+    }
+
+    @Test
+    void start_rebuildsJournalThatDoesNotMatchRatingTable() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:journal-ahead;DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE rating (id BIGINT PRIMARY KEY, movie_id BIGINT, score INT)");
+        jdbc.update("INSERT INTO rating VALUES (10, 1, 6)");
+        journal = new RatingJournal(dataSource, true, dir.toString(), 1 << 16);
+        journal.start();
+        journal.append(11, 1, 9);
+        journal.append(12, 1, 3);
+        journal.stop();
+
+        journal.start();
+
+        List<long[]> records = readAll(journal);
+        assertEquals(1, records.size());
+        assertArrayEquals(new long[] {0, 10, 1, 6}, records.get(0));
+        jdbc.execute("DROP TABLE rating");
+    }
+
+    @Test
+    void check_neverMatchesZeroFill() {
+        assertNotEquals(0, RatingJournal.check(0, 0, 0));
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.movierating.maintenance;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+import org.springframework.boot.DefaultApplicationArguments;
+
+import java.nio.file.Path;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class DatabaseSnapshotRunnerTest {
+    private DatabaseSnapshot snapshot;
+    private DatabaseSnapshotRunner runner;
+
+    @BeforeEach
+    void setUp() {
+        snapshot = Mockito.mock(DatabaseSnapshot.class);
+        when(snapshot.restore(any(Path.class))).thenReturn(new long[2]);
+        when(snapshot.write(any(Path.class))).thenReturn(new long[2]);
+        runner = new DatabaseSnapshotRunner(snapshot);
+    }
+
+    @Test
+    void run_restoresBeforeWritingSnapshot() {
+        runner.run(new DefaultApplicationArguments("--snapshot=out.snap", "--restore=in.snap"));
+
+        InOrder order = inOrder(snapshot);
+        order.verify(snapshot).restore(Path.of("in.snap"));
+        order.verify(snapshot).write(Path.of("out.snap"));
+    }
+
+    @Test
+    void run_doesNothingWithoutOptions() {
+        runner.run(new DefaultApplicationArguments("--snapshot="));
+        verifyNoInteractions(snapshot);
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.movierating.maintenance;
+
+import com.example.movierating.journal.JournalProjector;
+import com.example.movierating.journal.RatingJournal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.boot.DefaultApplicationArguments;
+
+import static org.mockito.Mockito.*;
+
+class JournalReplayRunnerTest {
+    private RatingJournal journal;
+    private JournalProjector projector;
+    private JournalReplayRunner runner;
+
+    @BeforeEach
+    void setUp() {
+        journal = Mockito.mock(RatingJournal.class);
+        projector = Mockito.mock(JournalProjector.class);
+        runner = new JournalReplayRunner(journal, projector);
+    }
+
+    @Test
+    void run_replaysWhenOptionPresent() {
+        when(journal.isEnabled()).thenReturn(true);
+        runner.run(new DefaultApplicationArguments("--replay-projections"));
+        verify(projector, times(1)).replay();
+    }
+
+    @Test
+    void run_skipsDisabledJournal() {
+        runner.run(new DefaultApplicationArguments("--replay-projections"));
+        verify(projector, never()).replay();
+    }
+
+    @Test
+    void run_doesNothingWithoutOption() {
+        when(journal.isEnabled()).thenReturn(true);
+        runner.run(new DefaultApplicationArguments());
+        verify(projector, never()).replay();
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.movierating.maintenance;
+
+import com.example.movierating.service.RatingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.boot.DefaultApplicationArguments;
+
+import static org.mockito.Mockito.*;
+
+class RatingAggregateRebuildRunnerTest {
+    private RatingService ratingService;
+    private RatingAggregateRebuildRunner runner;
+
+    @BeforeEach
+    void setUp() {
+        ratingService = Mockito.mock(RatingService.class);
+        runner = new RatingAggregateRebuildRunner(ratingService);
+    }
+
+    @Test
+    void run_rebuildsWhenOptionPresent() {
+        runner.run(new DefaultApplicationArguments("--rebuild-aggregates"));
+        verify(ratingService, times(1)).rebuildAggregates();
+    }
+
+    @Test
+    void run_doesNothingWithoutOption() {
+        runner.run(new DefaultApplicationArguments());
+        verify(ratingService, never()).rebuildAggregates();
+    }
+}
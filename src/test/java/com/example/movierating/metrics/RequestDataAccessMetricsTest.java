@@ -0,0 +1,51 @@
+package com.example.movierating.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestDataAccessMetricsTest {
+    private SimpleMeterRegistry registry;
+    private RequestDataAccessMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        metrics = new RequestDataAccessMetrics(registry);
+    }
+
+    @Test
+    void recordsStatementsAndLoadsPerRequestPattern() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/movies/1/average");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/movies/{id}/average");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        metrics.preHandle(request, response, null);
+        assertEquals("select 1", metrics.inspect("select 1"));
+        metrics.inspect("select 2");
+        metrics.onLoad(new Object(), (Object) 1L, null, null, null);
+        metrics.afterCompletion(request, response, null, null);
+
+        DistributionSummary statements = registry.get(RequestDataAccessMetrics.STATEMENTS)
+                .tag("uri", "/api/movies/{id}/average").summary();
+        DistributionSummary loads = registry.get(RequestDataAccessMetrics.ENTITY_LOADS)
+                .tag("uri", "/api/movies/{id}/average").summary();
+        assertEquals(1, statements.count());
+        assertEquals(2.0, statements.totalAmount());
+        assertEquals(1.0, loads.totalAmount());
+    }
+
+    @Test
+    void ignoresStatementsOutsideRequests() {
+        metrics.inspect("select 1");
+        metrics.onLoad(new Object(), (Object) 1L, null, null, null);
+
+        assertTrue(registry.getMeters().isEmpty());
+    }
+}
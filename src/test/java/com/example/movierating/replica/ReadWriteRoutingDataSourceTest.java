@@ -0,0 +1,103 @@
+package com.example.movierating.replica;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadWriteRoutingDataSourceTest {
+    private DataSource primary;
+    private DataSource replica;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+    }
+
+    /** A fresh in-memory H2 database with the heartbeat row and a marker naming the database. */
+    private static DataSource database(String name) {
+        DataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE replica_heartbeat (id INTEGER NOT NULL PRIMARY KEY, beat_millis BIGINT NOT NULL)");
+        jdbc.execute("INSERT INTO replica_heartbeat (id, beat_millis) VALUES (1, 0)");
+        jdbc.execute("CREATE TABLE marker (name VARCHAR(20))");
+        jdbc.update("INSERT INTO marker (name) VALUES (?)", name);
+        return dataSource;
+    }
+
+    private ReplicaLagMonitor monitor(long maxLagMillis) {
+        return new ReplicaLagMonitor(primary, replica, new SimpleMeterRegistry(), maxLagMillis, 1000);
+    }
+
+    private String marker(ReplicaLagMonitor monitor, boolean readOnly) {
+        DataSource routing = new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, replica, monitor));
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(routing));
+        transaction.setReadOnly(readOnly);
+        JdbcTemplate jdbc = new JdbcTemplate(routing);
+        return transaction.execute(status -> jdbc.queryForObject("SELECT name FROM marker", String.class));
+    }
+
+    private void replicate(long beatMillis) {
+        new JdbcTemplate(replica).update("UPDATE replica_heartbeat SET beat_millis = ? WHERE id = 1", beatMillis);
+    }
+
+    @Test
+    void readOnlyTransaction_usesReplicaWhileLagIsWithinBound() {
+        ReplicaLagMonitor monitor = monitor(5000);
+        replicate(System.currentTimeMillis());
+        monitor.check();
+
+        assertTrue(monitor.lagMillis() < 5000);
+        assertEquals("replica", marker(monitor, true));
+        assertEquals("primary", marker(monitor, false));
+    }
+
+    @Test
+    void readOnlyTransaction_fallsBackToPrimaryWhenReplicaLagsOrIsUnmeasured() {
+        ReplicaLagMonitor monitor = monitor(5000);
+        monitor.check();
+        assertEquals(ReplicaLagMonitor.UNKNOWN, monitor.lagMillis());
+        assertEquals("primary", marker(monitor, true));
+
+        replicate(System.currentTimeMillis() - 60_000);
+        monitor.check();
+        assertTrue(monitor.lagMillis() >= 60_000);
+        assertEquals("primary", marker(monitor, true));
+    }
+
+    @Test
+    void negativeMaxLag_acceptsAnyLag() {
+        ReplicaLagMonitor monitor = monitor(-1);
+        monitor.check();
+
+        assertTrue(monitor.replicaUsable());
+        assertEquals("replica", marker(monitor, true));
+    }
+
+    @Test
+    void onPrimary_pinsReadOnlyTransactionsToPrimary() {
+        ReplicaLagMonitor monitor = monitor(-1);
+
+        assertEquals("primary", ReplicaRouting.onPrimary(() -> marker(monitor, true)));
+        assertEquals("replica", marker(monitor, true));
+    }
+
+    @Test
+    void check_writesHeartbeatToPrimary() {
+        monitor(5000).check();
+
+        Long beat = new JdbcTemplate(primary).queryForObject("SELECT beat_millis FROM replica_heartbeat WHERE id = 1", Long.class);
+        assertTrue(beat > 0);
+    }
+}
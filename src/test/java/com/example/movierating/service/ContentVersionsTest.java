@@ -0,0 +1,42 @@
+package com.example.movierating.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContentVersionsTest {
+    private final ContentVersions versions = new ContentVersions();
+
+    @Test
+    void movieChanged_changesOnlyThatMoviesTag() {
+        String movie1 = versions.movieTag(1L);
+        String movie2 = versions.movieTag(2L);
+
+        versions.movieChanged(1L);
+
+        assertNotEquals(movie1, versions.movieTag(1L));
+        assertEquals(movie2, versions.movieTag(2L));
+    }
+
+    @Test
+    void allMoviesChanged_changesEveryMovieTag() {
+        String movie2 = versions.movieTag(2L);
+
+        versions.allMoviesChanged();
+
+        assertNotEquals(movie2, versions.movieTag(2L));
+    }
+
+    @Test
+    void matches_comparesWeaklyAndAcceptsLists() {
+        String tag = versions.catalogueTag();
+        String opaque = tag.substring(2);
+
+        assertTrue(ContentVersions.matches(tag, tag));
+        assertTrue(ContentVersions.matches(opaque, tag));
+        assertTrue(ContentVersions.matches("\"other\", " + tag, tag));
+        assertTrue(ContentVersions.matches("*", tag));
+        assertFalse(ContentVersions.matches("W/\"other\"", tag));
+        assertFalse(ContentVersions.matches(null, tag));
+    }
+}
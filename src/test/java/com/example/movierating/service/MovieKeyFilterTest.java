@@ -0,0 +1,52 @@
+package com.example.movierating.service;
+
+import com.example.movierating.dto.MovieResponseDTO;
+import com.example.movierating.repository.MovieRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class MovieKeyFilterTest {
+    private final MovieRepository repo = Mockito.mock(MovieRepository.class);
+
+    @Test
+    void add_isMatchedByNormalizedTitleAndYear() {
+        MovieKeyFilter filter = new MovieKeyFilter(repo, 1000, 0.01);
+        filter.add("Amélie", 2001);
+
+        assertTrue(filter.mightContain("Amélie", 2001));
+        assertTrue(filter.mightContain("  AMELIE ", 2001));
+        assertFalse(filter.mightContain("Amélie", 2002));
+    }
+
+    @Test
+    void rebuild_loadsEveryMovie() {
+        when(repo.streamAll()).thenReturn(Stream.of(
+                new MovieResponseDTO(1L, "Heat", 1995),
+                new MovieResponseDTO(2L, "Alien", 1979)));
+        MovieKeyFilter filter = new MovieKeyFilter(repo, 1000, 0.01);
+
+        filter.rebuild();
+
+        assertTrue(filter.mightContain("Heat", 1995));
+        assertTrue(filter.mightContain("Alien", 1979));
+    }
+
+    @Test
+    void falsePositiveRate_staysNearConfiguredRate() {
+        MovieKeyFilter filter = new MovieKeyFilter(repo, 100_000, 0.01);
+        for (int i = 0; i < 100_000; i++) filter.add("Movie " + i, 2000 + i % 20);
+
+        for (int i = 0; i < 100_000; i++) assertTrue(filter.mightContain("Movie " + i, 2000 + i % 20));
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("Other " + i, 1990)) falsePositives++;
+        }
+        assertTrue(falsePositives < 2000, "false positives: " + falsePositives);
+        assertEquals(7, filter.hashCount());
+    }
+}
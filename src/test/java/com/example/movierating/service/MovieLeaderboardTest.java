@@ -0,0 +1,113 @@
+package com.example.movierating.service;
+
+import com.example.movierating.dto.TopMovieDTO;
+import com.example.movierating.entity.Movie;
+import com.example.movierating.entity.RatingAggregate;
+import com.example.movierating.repository.MovieRepository;
+import com.example.movierating.repository.RatingAggregateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class MovieLeaderboardTest {
+    private MovieRepository movieRepo;
+    private RatingAggregateRepository aggregateRepo;
+    private MovieLeaderboard leaderboard;
+
+    @BeforeEach
+    void setUp() {
+        movieRepo = Mockito.mock(MovieRepository.class);
+        aggregateRepo = Mockito.mock(RatingAggregateRepository.class);
+        leaderboard = new MovieLeaderboard(movieRepo, aggregateRepo, 10);
+    }
+
+    @Test
+    void rebuild_ranksByWeightedAverage() {
+        when(aggregateRepo.meanScore()).thenReturn(5.0);
+        when(movieRepo.streamRated()).thenReturn(Stream.of(
+                new Object[] {1L, "One Vote", 2000, 1L, 10L},
+                new Object[] {2L, "Many Votes", 2000, 100L, 900L},
+                new Object[] {3L, "Poor", 2001, 50L, 100L}));
+
+        leaderboard.rebuild();
+        List<TopMovieDTO> top = leaderboard.top(null, null, null);
+
+        assertEquals(List.of(2L, 1L, 3L), top.stream().map(TopMovieDTO::getId).toList());
+        assertEquals(9.0, top.get(0).getAverage(), 0.001);
+        assertEquals((10 * 5.0 + 900) / 110, top.get(0).getWeightedAverage(), 0.001);
+    }
+
+    @Test
+    void top_filtersByYearAndMinVotes() {
+        leaderboard.update(1L, "A", 2000, 1, 10);
+        leaderboard.update(2L, "B", 2000, 20, 160);
+        leaderboard.update(3L, "C", 2001, 30, 300);
+
+        assertEquals(List.of(2L, 1L), leaderboard.top(2000, null, null).stream().map(TopMovieDTO::getId).toList());
+        assertEquals(List.of(3L, 2L), leaderboard.top(null, 5L, null).stream().map(TopMovieDTO::getId).toList());
+        assertTrue(leaderboard.top(1999, null, null).isEmpty());
+    }
+
+    @Test
+    void top_keepsMinVotesExactAcrossVoteTiers() {
+        leaderboard.update(1L, "A", 2000, 9, 90);
+        leaderboard.update(2L, "B", 2000, 99, 900);
+        leaderboard.update(3L, "C", 2001, 150, 1200);
+        leaderboard.update(4L, "D", 2001, 2_000, 10_000);
+
+        assertEquals(List.of(3L, 4L), leaderboard.top(null, 100L, null).stream().map(TopMovieDTO::getId).toList());
+        assertEquals(List.of(3L, 4L), leaderboard.top(2001, 120L, null).stream().map(TopMovieDTO::getId).toList());
+        assertEquals(List.of(4L), leaderboard.top(null, 151L, null).stream().map(TopMovieDTO::getId).toList());
+
+        leaderboard.update(2L, "B", 2000, 200, 1800);
+        assertEquals(List.of(2L, 3L, 4L), leaderboard.top(null, 100L, null).stream().map(TopMovieDTO::getId).toList());
+    }
+
+    @Test
+    void update_ignoresStaleTotals() {
+        leaderboard.update(1L, "A", 2000, 5, 50);
+        leaderboard.update(1L, "A", 2000, 4, 4);
+
+        List<TopMovieDTO> top = leaderboard.top(null, null, null);
+        assertEquals(1, top.size());
+        assertEquals(5, top.get(0).getRatingCount());
+    }
+
+    @Test
+    void update_movesMovieWithinYear() {
+        leaderboard.update(1L, "A", 2000, 10, 90);
+        leaderboard.update(2L, "B", 2000, 10, 50);
+        leaderboard.update(2L, "B", 2000, 30, 290);
+
+        List<TopMovieDTO> top = leaderboard.top(2000, null, null);
+        assertEquals(List.of(2L, 1L), top.stream().map(TopMovieDTO::getId).toList());
+    }
+
+    @Test
+    void recordAfterCommit_looksUpUnknownMovie() {
+        when(movieRepo.findById(7L)).thenReturn(Optional.of(new Movie("Seven", 1995)));
+
+        leaderboard.recordAfterCommit(new RatingAggregate(7L, 2, 16, 128));
+        leaderboard.recordAfterCommit(new RatingAggregate(8L, 1, 5, 25));
+
+        List<TopMovieDTO> top = leaderboard.top(null, null, null);
+        assertEquals(1, top.size());
+        assertEquals("Seven", top.get(0).getTitle());
+        assertEquals(1995, top.get(0).getYear());
+    }
+
+    @Test
+    void limit_defaultsAndCaps() {
+        assertEquals(MovieLeaderboard.DEFAULT_LIMIT, MovieLeaderboard.limit(null));
+        assertEquals(MovieLeaderboard.DEFAULT_LIMIT, MovieLeaderboard.limit(0));
+        assertEquals(MovieLeaderboard.MAX_LIMIT, MovieLeaderboard.limit(5000));
+        assertEquals(3, MovieLeaderboard.limit(3));
+    }
+}
@@ -1,30 +1,46 @@
 package com.example.movierating.service;
 
+import com.example.movierating.dto.CursorPageDTO;
 import com.example.movierating.dto.MovieRequestDTO;
 import com.example.movierating.dto.MovieResponseDTO;
 import com.example.movierating.entity.Movie;
+import com.example.movierating.exception.InvalidCursorException;
 import com.example.movierating.exception.MovieAlreadyExistsException;
 import com.example.movierating.repository.MovieRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionOperations;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class MovieServiceTest {
     private MovieRepository repo;
+    private MovieTitleIndex titleIndex;
+    private MovieKeyFilter keyFilter;
+    private ContentVersions versions;
     private MovieService service;
 
     @BeforeEach
     void setUp() {
         repo = Mockito.mock(MovieRepository.class);
-        service = new MovieService(repo);
+        titleIndex = new MovieTitleIndex(repo);
+        keyFilter = new MovieKeyFilter(repo, 1000, 0.01);
+        versions = new ContentVersions();
+        service = new MovieService(repo, titleIndex, keyFilter, versions, TransactionOperations.withoutTransaction());
     }
 
     @Test
@@ -40,6 +56,7 @@ class MovieServiceTest {
         assertEquals("X", saved.getTitle());
         assertEquals(2020, saved.getYear());
         verify(repo, times(1)).save(any(Movie.class));
+        assertEquals(List.of(1L), titleIndex.search("x", null).stream().map(MovieResponseDTO::getId).toList());
     }
 
     @Test
@@ -53,6 +70,75 @@ class MovieServiceTest {
         verify(repo, times(1)).save(any(Movie.class));
     }
 
+    @Test
+    void createMovie_rejectsKnownDuplicateWithoutInsert() {
+        Movie existing = new Movie("X", 2020);
+        existing.setId(1L);
+        keyFilter.add("X", 2020);
+        when(repo.findByTitleAndYear("X", 2020)).thenReturn(Optional.of(existing));
+
+        assertThrows(MovieAlreadyExistsException.class, () -> service.createMovie(new MovieRequestDTO("X", 2020)));
+        verify(repo, never()).save(any(Movie.class));
+    }
+
+    @Test
+    void createMovie_skipsLookupForUnseenTitle() {
+        Movie m = new Movie("New", 2020);
+        m.setId(3L);
+        when(repo.save(any(Movie.class))).thenReturn(m);
+
+        service.createMovie(new MovieRequestDTO("New", 2020));
+
+        verify(repo, never()).findByTitleAndYear(any(), any());
+        assertTrue(keyFilter.mightContain("New", 2020));
+    }
+
+    @Test
+    void createMovie_insertsWhenFilterMatchIsFalsePositive() {
+        Movie m = new Movie("X", 2020);
+        m.setId(2L);
+        keyFilter.add("x", 2020);
+        when(repo.findByTitleAndYear("X", 2020)).thenReturn(Optional.empty());
+        when(repo.save(any(Movie.class))).thenReturn(m);
+
+        assertEquals(2L, service.createMovie(new MovieRequestDTO("X", 2020)).getId());
+    }
+
+    @Test
+    void createOrGetMovie_returnsExistingMovie() {
+        Movie existing = new Movie("X", 2020);
+        existing.setId(1L);
+        keyFilter.add("X", 2020);
+        when(repo.findByTitleAndYear("X", 2020)).thenReturn(Optional.of(existing));
+
+        MovieResponseDTO result = service.createOrGetMovie(new MovieRequestDTO("X", 2020));
+
+        assertEquals(1L, result.getId());
+        verify(repo, never()).save(any(Movie.class));
+    }
+
+    @Test
+    void createOrGetMovie_returnsWinnerOfConcurrentInsert() {
+        Movie winner = new Movie("X", 2020);
+        winner.setId(5L);
+        when(repo.save(any(Movie.class))).thenThrow(new DataIntegrityViolationException("duplicate"));
+        when(repo.findByTitleAndYear("X", 2020)).thenReturn(Optional.of(winner));
+
+        assertEquals(5L, service.createOrGetMovie(new MovieRequestDTO("X", 2020)).getId());
+    }
+
+    @Test
+    void createMovie_changesCatalogueTag() {
+        Movie m = new Movie("X", 2020);
+        m.setId(1L);
+        when(repo.save(any(Movie.class))).thenReturn(m);
+        String before = versions.catalogueTag();
+
+        service.createMovie(new MovieRequestDTO("X", 2020));
+
+        assertNotEquals(before, versions.catalogueTag());
+    }
+
     @Test
     void createMovie_multipleMovies() {
         Movie m1 = new Movie("Movie1", 2020);
@@ -75,40 +161,73 @@ class MovieServiceTest {
 
     @Test
     void listMovies_returnsDtos() {
-        Movie m = new Movie("A", 2000);
-        m.setId(2L);
-        when(repo.findAll()).thenReturn(List.of(m));
+        when(repo.findPageAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(new MovieResponseDTO(2L, "A", 2000)));
 
-        List<MovieResponseDTO> list = service.listMovies();
-        assertEquals(1, list.size());
-        assertEquals(2L, list.get(0).getId());
-        assertEquals("A", list.get(0).getTitle());
+        CursorPageDTO<MovieResponseDTO> page = service.listMovies(null, null);
+        assertEquals(1, page.getItems().size());
+        assertEquals(2L, page.getItems().get(0).getId());
+        assertEquals("A", page.getItems().get(0).getTitle());
+        assertNull(page.getNextCursor());
     }
 
     @Test
     void listMovies_emptyList() {
-        when(repo.findAll()).thenReturn(Collections.emptyList());
+        when(repo.findPageAfter(anyLong(), any(Pageable.class))).thenReturn(Collections.emptyList());
 
-        List<MovieResponseDTO> list = service.listMovies();
-        assertEquals(0, list.size());
-        assertTrue(list.isEmpty());
+        CursorPageDTO<MovieResponseDTO> page = service.listMovies(null, null);
+        assertTrue(page.getItems().isEmpty());
+        assertNull(page.getNextCursor());
     }
 
     @Test
     void listMovies_multipleMovies() {
-        Movie m1 = new Movie("Movie1", 2020);
-        m1.setId(1L);
-        Movie m2 = new Movie("Movie2", 2021);
-        m2.setId(2L);
-        Movie m3 = new Movie("Movie3", 2022);
-        m3.setId(3L);
-
-        when(repo.findAll()).thenReturn(List.of(m1, m2, m3));
+        when(repo.findPageAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(
+                new MovieResponseDTO(1L, "Movie1", 2020),
+                new MovieResponseDTO(2L, "Movie2", 2021),
+                new MovieResponseDTO(3L, "Movie3", 2022)));
 
-        List<MovieResponseDTO> list = service.listMovies();
+        List<MovieResponseDTO> list = service.listMovies(null, null).getItems();
         assertEquals(3, list.size());
         assertEquals("Movie1", list.get(0).getTitle());
         assertEquals("Movie2", list.get(1).getTitle());
         assertEquals("Movie3", list.get(2).getTitle());
     }
+
+    @Test
+    void listMovies_returnsNextCursorWhenMoreRowsExist() {
+        when(repo.findPageAfter(eq(5L), eq(PageRequest.of(0, 3)))).thenReturn(List.of(
+                new MovieResponseDTO(6L, "Movie6", 2020),
+                new MovieResponseDTO(7L, "Movie7", 2021),
+                new MovieResponseDTO(9L, "Movie9", 2022)));
+
+        CursorPageDTO<MovieResponseDTO> page = service.listMovies("5", 2);
+        assertEquals(2, page.getItems().size());
+        assertEquals("7", page.getNextCursor());
+    }
+
+    @Test
+    void listMovies_rejectsMalformedCursor() {
+        assertThrows(InvalidCursorException.class, () -> service.listMovies("abc", 10));
+        verify(repo, never()).findPageAfter(anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    void pageSize_clampsToBounds() {
+        assertEquals(MovieService.DEFAULT_PAGE_SIZE, MovieService.pageSize(null));
+        assertEquals(MovieService.DEFAULT_PAGE_SIZE, MovieService.pageSize(0));
+        assertEquals(25, MovieService.pageSize(25));
+        assertEquals(MovieService.MAX_PAGE_SIZE, MovieService.pageSize(1_000_000));
+    }
+
+    @Test
+    void streamMovies_passesEveryRowToSink() {
+        when(repo.streamAll()).thenReturn(Stream.of(
+                new MovieResponseDTO(1L, "Movie1", 2020),
+                new MovieResponseDTO(2L, "Movie2", 2021)));
+
+        List<MovieResponseDTO> seen = new ArrayList<>();
+        service.streamMovies(seen::add);
+        assertEquals(2, seen.size());
+        assertEquals(2L, seen.get(1).getId());
+    }
 }
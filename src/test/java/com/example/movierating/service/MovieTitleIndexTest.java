@@ -0,0 +1,85 @@
+package com.example.movierating.service;
+
+import com.example.movierating.dto.MovieResponseDTO;
+import com.example.movierating.repository.MovieRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class MovieTitleIndexTest {
+    private MovieRepository movieRepo;
+    private MovieTitleIndex index;
+
+    @BeforeEach
+    void setUp() {
+        movieRepo = Mockito.mock(MovieRepository.class);
+        index = new MovieTitleIndex(movieRepo);
+        index.add(new MovieResponseDTO(1L, "The Matrix", 1999));
+        index.add(new MovieResponseDTO(2L, "The Matrix Reloaded", 2003));
+        index.add(new MovieResponseDTO(3L, "Matrimony", 2001));
+        index.add(new MovieResponseDTO(4L, "Amélie", 2001));
+        index.add(new MovieResponseDTO(5L, "The Lord of the Rings", 2001));
+    }
+
+    @Test
+    void search_ranksTitlePrefixBeforeWordPrefix() {
+        assertEquals(List.of(3L, 1L, 2L), ids(index.search("mat", null)));
+        assertEquals(List.of(1L, 2L), ids(index.search("the mat", null)));
+    }
+
+    @Test
+    void search_matchesWordsInAnyOrder() {
+        assertEquals(List.of(5L), ids(index.search("rings lord", null)));
+    }
+
+    @Test
+    void search_ignoresCaseAccentsAndPunctuation() {
+        assertEquals(List.of(4L), ids(index.search("AMELIE!", null)));
+    }
+
+    @Test
+    void search_fallsBackToFuzzyMatches() {
+        assertEquals(List.of(1L, 2L), ids(index.search("matirx", 2)));
+        assertEquals(List.of(5L), ids(index.search("lord of the rigns", null)));
+        assertTrue(index.search("zzzz", null).isEmpty());
+    }
+
+    @Test
+    void search_blankQueryAndLimit() {
+        assertTrue(index.search("  ", null).isEmpty());
+        assertEquals(1, index.search("the", 1).size());
+        assertEquals(MovieTitleIndex.DEFAULT_LIMIT, MovieTitleIndex.limit(null));
+        assertEquals(MovieTitleIndex.MAX_LIMIT, MovieTitleIndex.limit(1000));
+    }
+
+    @Test
+    void rebuild_replacesIndexAndKeepsMoviesAddedMeanwhile() {
+        when(movieRepo.streamAll()).thenAnswer(invocation -> {
+            index.add(new MovieResponseDTO(7L, "Seven", 1995));
+            return Stream.of(new MovieResponseDTO(6L, "Heat", 1995), new MovieResponseDTO(7L, "Seven", 1995));
+        });
+
+        index.rebuild();
+
+        assertEquals(2, index.size());
+        assertEquals(List.of(6L), ids(index.search("hea", null)));
+        assertEquals(List.of(7L), ids(index.search("seven", null)));
+        assertTrue(index.search("matrix", null).isEmpty());
+    }
+
+    @Test
+    void normalize_foldsToLowerCaseWords() {
+        assertEquals("amelie s fabuleux destin", MovieTitleIndex.normalize("  Amélie's  Fabuleux-Destin "));
+        assertEquals("", MovieTitleIndex.normalize(null));
+    }
+
+    private static List<Long> ids(List<MovieResponseDTO> movies) {
+        return movies.stream().map(MovieResponseDTO::getId).toList();
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.movierating.service;
+
+import com.example.movierating.config.CacheConfig;
+import com.example.movierating.dto.RatingBatchResultDTO;
+import com.example.movierating.dto.RatingBatchRowDTO;
+import com.example.movierating.dto.RatingRequestDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class RatingBatchServiceTest {
+    private RatingService ratingService;
+    private ConcurrentMapCacheManager cacheManager;
+    private RatingBatchService service;
+
+    @BeforeEach
+    void setUp() {
+        ratingService = Mockito.mock(RatingService.class);
+        cacheManager = new ConcurrentMapCacheManager(CacheConfig.MOVIE_AVERAGES);
+        service = new RatingBatchService(ratingService, cacheManager, 2);
+    }
+
+    @Test
+    void ingest_writesRowsInChunks() {
+        List<Integer> chunkStarts = new ArrayList<>();
+        when(ratingService.addRatings(anyList(), anyInt())).thenAnswer(invocation -> {
+            List<RatingRequestDTO> chunk = invocation.getArgument(0);
+            int first = invocation.getArgument(1);
+            chunkStarts.add(first);
+            List<RatingBatchRowDTO> rows = new ArrayList<>();
+            for (int i = 0; i < chunk.size(); i++) {
+                String status = chunk.get(i).getScore() > 0 ? RatingBatchRowDTO.CREATED : RatingBatchRowDTO.REJECTED;
+                rows.add(new RatingBatchRowDTO(first + i, (long) first + i, status, null));
+            }
+            return rows;
+        });
+
+        RatingBatchResultDTO result = service.ingest(List.of(
+                new RatingRequestDTO(1L, 5, null),
+                new RatingRequestDTO(1L, 0, null),
+                new RatingRequestDTO(2L, 3, null),
+                new RatingRequestDTO(2L, 4, null),
+                new RatingRequestDTO(3L, 1, null)).iterator());
+
+        assertEquals(List.of(0, 2, 4), chunkStarts);
+        assertEquals(4, result.getCreated());
+        assertEquals(1, result.getRejected());
+        assertEquals(0, result.getFailed());
+        assertEquals(5, result.getRows().size());
+        assertEquals(4, result.getRows().get(4).getIndex());
+    }
+
+    @Test
+    void ingest_marksWholeChunkFailedOnDatabaseError() {
+        when(ratingService.addRatings(anyList(), anyInt()))
+                .thenThrow(new DataIntegrityViolationException("constraint violated"));
+
+        RatingBatchResultDTO result = service.ingest(List.of(
+                new RatingRequestDTO(1L, 5, null),
+                new RatingRequestDTO(1L, 4, null)).iterator());
+
+        assertEquals(0, result.getCreated());
+        assertEquals(2, result.getFailed());
+        assertEquals(RatingBatchRowDTO.FAILED, result.getRows().get(1).getStatus());
+        assertNotNull(result.getRows().get(1).getError());
+    }
+
+    @Test
+    void ingest_writesRowsReadBeforeUnreadableInputAndReportsTheError() {
+        when(ratingService.addRatings(anyList(), anyInt())).thenAnswer(invocation -> {
+            List<RatingRequestDTO> chunk = invocation.getArgument(0);
+            int first = invocation.getArgument(1);
+            List<RatingBatchRowDTO> rows = new ArrayList<>();
+            for (int i = 0; i < chunk.size(); i++) {
+                rows.add(new RatingBatchRowDTO(first + i, (long) first + i, RatingBatchRowDTO.CREATED, null));
+            }
+            return rows;
+        });
+        Iterator<RatingRequestDTO> rows = List.of(
+                new RatingRequestDTO(1L, 5, null),
+                new RatingRequestDTO(1L, 4, null),
+                new RatingRequestDTO(2L, 3, null)).iterator();
+        Iterator<RatingRequestDTO> breaking = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public RatingRequestDTO next() {
+                if (rows.hasNext()) return rows.next();
+                throw new IllegalStateException("unexpected token");
+            }
+        };
+
+        RatingBatchResultDTO result = service.ingest(breaking);
+
+        assertEquals(3, result.getCreated());
+        assertEquals(3, result.getRows().size());
+        assertEquals("Row 3 could not be read: unexpected token", result.getError());
+        verify(ratingService, times(2)).addRatings(anyList(), anyInt());
+    }
+
+    @Test
+    void ingest_emptyInput() {
+        RatingBatchResultDTO result = service.ingest(List.<RatingRequestDTO>of().iterator());
+
+        assertEquals(0, result.getCreated());
+        assertTrue(result.getRows().isEmpty());
+        verify(ratingService, never()).addRatings(anyList(), anyInt());
+    }
+
+    @Test
+    void ingest_evictsCachedAveragesOfWrittenMovies() {
+        Cache averages = cacheManager.getCache(CacheConfig.MOVIE_AVERAGES);
+        averages.put(1L, 4.0);
+        averages.put(2L, 3.0);
+        when(ratingService.addRatings(anyList(), anyInt())).thenReturn(List.of(
+                new RatingBatchRowDTO(0, 10L, RatingBatchRowDTO.CREATED, null)));
+
+        service.ingest(List.of(new RatingRequestDTO(1L, 5, null)).iterator());
+
+        assertNull(averages.get(1L));
+        assertNotNull(averages.get(2L));
+    }
+}
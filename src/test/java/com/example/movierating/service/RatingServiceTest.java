@@ -1,31 +1,73 @@
 package com.example.movierating.service;
 
+import com.example.movierating.dto.CursorPageDTO;
+import com.example.movierating.dto.MovieAverageDTO;
+import com.example.movierating.dto.MovieResponseDTO;
+import com.example.movierating.dto.MovieStatsDTO;
+import com.example.movierating.dto.RatingBatchRowDTO;
 import com.example.movierating.dto.RatingRequestDTO;
 import com.example.movierating.dto.RatingResponseDTO;
+import com.example.movierating.dto.TrendingMovieDTO;
 import com.example.movierating.entity.Rating;
+import com.example.movierating.entity.RatingAggregate;
+import com.example.movierating.exception.InvalidCursorException;
+import com.example.movierating.exception.InvalidRatingException;
+import com.example.movierating.exception.InvalidSortException;
 import com.example.movierating.exception.RatingAlreadyExistsException;
+import com.example.movierating.exception.TooManyIdsException;
+import com.example.movierating.journal.RatingJournal;
+import com.example.movierating.repository.MovieRepository;
+import com.example.movierating.repository.RatingAggregateRepository;
 import com.example.movierating.repository.RatingRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
 
 class RatingServiceTest {
     private RatingRepository repo;
+    private RatingAggregateRepository aggregateRepo;
+    private MovieLeaderboard leaderboard;
+    private PendingRatings pendingRatings;
+    private RatingStatisticsStore statisticsStore;
+    private ContentVersions versions;
+    private RatingJournal journal;
+    private MovieRepository movieRepo;
+    private TrendingWindows trending;
     private RatingService service;
 
     @BeforeEach
     void setUp() {
         repo = Mockito.mock(RatingRepository.class);
-        service = new RatingService(repo);
+        aggregateRepo = Mockito.mock(RatingAggregateRepository.class);
+        leaderboard = Mockito.mock(MovieLeaderboard.class);
+        pendingRatings = new PendingRatings();
+        statisticsStore = new RatingStatisticsStore(aggregateRepo);
+        versions = new ContentVersions();
+        journal = Mockito.mock(RatingJournal.class);
+        movieRepo = Mockito.mock(MovieRepository.class);
+        trending = new TrendingWindows(movieRepo, repo);
+        service = new RatingService(repo, aggregateRepo, leaderboard, pendingRatings, statisticsStore, versions, journal,
+                trending);
     }
 
     @Test
@@ -43,6 +85,21 @@ class RatingServiceTest {
         assertEquals("Good", saved.getComment());
     }
 
+    @Test
+    void addRating_countsTowardsTrending() {
+        Rating r = new Rating(1L, 4, "Good");
+        r.setId(10L);
+        when(repo.save(any(Rating.class))).thenReturn(r);
+        when(movieRepo.findAllByIds(List.of(1L))).thenReturn(List.of(new MovieResponseDTO(1L, "Inception", 2010)));
+
+        service.addRating(new RatingRequestDTO(1L, 4, "Good"));
+
+        List<TrendingMovieDTO> hour = trending.trending(TrendingWindows.HOUR, null);
+        assertEquals(1, hour.size());
+        assertEquals("Inception", hour.get(0).getTitle());
+        assertEquals(1, hour.get(0).getRatingCount());
+    }
+
     @Test
     void addRating_throwsExceptionOnDataIntegrityViolation() {
         when(repo.save(any(Rating.class)))
@@ -52,20 +109,99 @@ class RatingServiceTest {
         assertThrows(RatingAlreadyExistsException.class, () -> service.addRating(dto));
     }
 
+    @Test
+    void addRating_rejectsMissingMovieIdBeforeWriting() {
+        RatingRequestDTO dto = new RatingRequestDTO(null, 4, "Good");
+
+        assertThrows(InvalidRatingException.class, () -> service.addRating(dto));
+        verify(repo, never()).save(any());
+        verify(aggregateRepo, never()).increment(any(), anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    void addRating_rejectsScoreOutsideTheRange() {
+        assertThrows(InvalidRatingException.class, () -> service.addRating(new RatingRequestDTO(1L, 0, null)));
+        assertThrows(InvalidRatingException.class, () -> service.addRating(new RatingRequestDTO(1L, 11, null)));
+        verify(repo, never()).save(any());
+    }
+
+    @Test
+    void addRating_incrementsAggregate() {
+        Rating r = new Rating(1L, 4, "Good");
+        r.setId(10L);
+        when(repo.save(any(Rating.class))).thenReturn(r);
+
+        service.addRating(new RatingRequestDTO(1L, 4, "Good"));
+
+        verify(aggregateRepo).increment(1L, 1, 4, 16);
+        verify(aggregateRepo).incrementHistogram(1L, 4, 1);
+    }
+
+    @Test
+    void addRating_recordsAggregateInLeaderboard() {
+        Rating r = new Rating(1L, 4, "Good");
+        r.setId(10L);
+        RatingAggregate aggregate = new RatingAggregate(1L, 3, 12, 50);
+        when(repo.save(any(Rating.class))).thenReturn(r);
+        when(aggregateRepo.findById(1L)).thenReturn(Optional.of(aggregate));
+
+        service.addRating(new RatingRequestDTO(1L, 4, "Good"));
+
+        verify(leaderboard).recordAfterCommit(aggregate);
+        assertEquals(12, statisticsStore.totals(1L)[1]);
+    }
+
+    @Test
+    void addRating_changesMovieTag() {
+        Rating r = new Rating(1L, 4, "Good");
+        r.setId(10L);
+        when(repo.save(any(Rating.class))).thenReturn(r);
+        when(aggregateRepo.findById(1L)).thenReturn(Optional.of(new RatingAggregate(1L, 1, 4, 16)));
+        String before = versions.movieTag(1L);
+
+        service.addRating(new RatingRequestDTO(1L, 4, "Good"));
+
+        assertNotEquals(before, versions.movieTag(1L));
+    }
+
     @Test
     void averageForMovie_returnsAverage() {
-        Rating r1 = new Rating(1L, 4, "a");
-        Rating r2 = new Rating(1L, 2, "b");
-        when(repo.findByMovieId(1L)).thenReturn(List.of(r1, r2));
+        when(aggregateRepo.findById(1L)).thenReturn(Optional.of(new RatingAggregate(1L, 2, 6, 20)));
 
         double avg = service.averageForMovie(1L);
         assertEquals(3.0, avg);
+        verify(repo, never()).findByMovieId(anyLong());
+    }
+
+    @Test
+    void averageForMovie_includesPendingRatings() {
+        when(aggregateRepo.findById(1L)).thenReturn(Optional.of(new RatingAggregate(1L, 2, 6, 20)));
+        pendingRatings.add(1L, 9);
+        pendingRatings.add(2L, 7);
+
+        assertEquals(5.0, service.averageForMovie(1L));
+        assertEquals(7.0, service.averageForMovie(2L));
+
+        pendingRatings.settle(1L, 1, 9);
+        assertEquals(3.0, service.averageForMovie(1L));
+    }
+
+    @Test
+    void averageForMovie_servedFromWarmStore() {
+        when(aggregateRepo.streamTotals()).thenReturn(Stream.<Object[]>of(new Object[] {1L, 4L, 30L, 250L}));
+        statisticsStore.warm();
+        pendingRatings.add(1L, 10);
+
+        assertEquals(8.0, service.averageForMovie(1L));
+        assertEquals(0.0, service.averageForMovie(2L));
+        assertEquals(8.0, service.averagesForMovies(List.of(1L, 2L)).get(1L).getAverage(), 0.001);
+        verify(aggregateRepo, never()).findById(anyLong());
+        verify(aggregateRepo, never()).findAverages(any());
     }
 
     @Test
     void averageForMovie_singleRating() {
-        Rating r = new Rating(1L, 5, "Excellent");
-        when(repo.findByMovieId(1L)).thenReturn(List.of(r));
+        when(aggregateRepo.findById(1L)).thenReturn(Optional.of(new RatingAggregate(1L, 1, 5, 25)));
 
         double avg = service.averageForMovie(1L);
         assertEquals(5.0, avg);
@@ -73,7 +209,7 @@ class RatingServiceTest {
 
     @Test
     void averageForMovie_emptyRatings() {
-        when(repo.findByMovieId(anyLong())).thenReturn(Collections.emptyList());
+        when(aggregateRepo.findById(anyLong())).thenReturn(Optional.empty());
 
         double avg = service.averageForMovie(99L);
         assertEquals(0.0, avg);
@@ -81,22 +217,162 @@ class RatingServiceTest {
 
     @Test
     void averageForMovie_multipleRatings() {
-        Rating r1 = new Rating(2L, 5, "a");
-        Rating r2 = new Rating(2L, 3, "b");
-        Rating r3 = new Rating(2L, 4, "c");
-        when(repo.findByMovieId(2L)).thenReturn(List.of(r1, r2, r3));
+        when(aggregateRepo.findById(2L)).thenReturn(Optional.of(new RatingAggregate(2L, 3, 12, 50)));
 
         double avg = service.averageForMovie(2L);
         assertEquals(4.0, avg);
     }
 
+    @Test
+    void averagesForMovies_fillsMissingMoviesWithZero() {
+        when(aggregateRepo.findAverages(Set.of(1L, 2L))).thenReturn(List.of(new MovieAverageDTO(2L, 4.5, 2)));
+
+        Map<Long, MovieAverageDTO> averages = service.averagesForMovies(List.of(1L, 2L, 1L));
+
+        assertEquals(List.of(1L, 2L), List.copyOf(averages.keySet()));
+        assertEquals(0, averages.get(1L).getCount());
+        assertEquals(4.5, averages.get(2L).getAverage());
+        verify(aggregateRepo, times(1)).findAverages(any());
+        verify(repo, never()).findByMovieId(anyLong());
+    }
+
+    @Test
+    void averagesForMovies_includesPendingRatings() {
+        when(aggregateRepo.findAverages(Set.of(1L))).thenReturn(List.of(new MovieAverageDTO(1L, 4.0, 2)));
+        pendingRatings.add(1L, 10);
+
+        MovieAverageDTO average = service.averagesForMovies(List.of(1L)).get(1L);
+        assertEquals(3, average.getCount());
+        assertEquals(6.0, average.getAverage(), 0.001);
+    }
+
+    @Test
+    void averagesForMovies_emptyIdsSkipQuery() {
+        assertTrue(service.averagesForMovies(List.of()).isEmpty());
+        verify(aggregateRepo, never()).findAverages(any());
+    }
+
+    @Test
+    void averagesForMovies_rejectsTooManyIds() {
+        List<Long> ids = LongStream.rangeClosed(1, RatingService.MAX_AVERAGE_IDS + 1).boxed()
+                .collect(Collectors.toList());
+        assertThrows(TooManyIdsException.class, () -> service.averagesForMovies(ids));
+    }
+
+    @Test
+    void listRatings_pagesById() {
+        when(repo.findPageAfter(1L, 10L, PageRequest.of(0, 3))).thenReturn(List.of(
+                new RatingResponseDTO(11L, 1L, 5, null),
+                new RatingResponseDTO(12L, 1L, 7, null),
+                new RatingResponseDTO(14L, 1L, 2, null)));
+
+        CursorPageDTO<RatingResponseDTO> page = service.listRatings(1L, "10", 2, null);
+        assertEquals(2, page.getItems().size());
+        assertEquals("12", page.getNextCursor());
+        verify(repo, never()).findByMovieId(anyLong());
+    }
+
+    @Test
+    void listRatings_pagesByScoreWithCompositeCursor() {
+        when(repo.findPageByScoreAfter(1L, Rating.MAX_SCORE + 1, 0L, PageRequest.of(0, 2))).thenReturn(List.of(
+                new RatingResponseDTO(20L, 1L, 9, null),
+                new RatingResponseDTO(15L, 1L, 8, null)));
+        when(repo.findPageByScoreAfter(1L, 9, 20L, PageRequest.of(0, 2))).thenReturn(List.of(
+                new RatingResponseDTO(15L, 1L, 8, null)));
+
+        CursorPageDTO<RatingResponseDTO> first = service.listRatings(1L, null, 1, "score");
+        assertEquals("9:20", first.getNextCursor());
+        CursorPageDTO<RatingResponseDTO> second = service.listRatings(1L, first.getNextCursor(), 1, "score");
+        assertEquals(15L, second.getItems().get(0).getId());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void listRatings_rejectsBadCursorAndSort() {
+        assertThrows(InvalidCursorException.class, () -> service.listRatings(1L, "abc", null, null));
+        assertThrows(InvalidCursorException.class, () -> service.listRatings(1L, "20", null, "score"));
+        assertThrows(InvalidCursorException.class, () -> service.listRatings(1L, "9:x", null, "score"));
+        assertThrows(InvalidSortException.class, () -> service.listRatings(1L, null, null, "title"));
+    }
+
+    @Test
+    void streamRatings_passesEveryRowToSink() {
+        when(repo.streamByMovieId(1L)).thenReturn(Stream.of(
+                new RatingResponseDTO(1L, 1L, 5, null),
+                new RatingResponseDTO(2L, 1L, 6, null)));
+
+        List<RatingResponseDTO> seen = new ArrayList<>();
+        service.streamRatings(1L, seen::add);
+        assertEquals(2, seen.size());
+    }
+
+    @Test
+    void rebuildAggregates_replacesAllRows() {
+        when(aggregateRepo.rebuildFromRatings()).thenReturn(7);
+
+        assertEquals(7, service.rebuildAggregates());
+        verify(aggregateRepo).deleteAllInBatch();
+        verify(aggregateRepo).rebuildHistogramsFromRatings();
+        verify(leaderboard).rebuild();
+    }
+
+    @Test
+    void statsForMovie_readsHistogram() {
+        when(aggregateRepo.findHistogram(1L)).thenReturn(List.of(
+                new Object[] {2, 1L}, new Object[] {4, 2L}, new Object[] {10, 1L}));
+
+        MovieStatsDTO stats = service.statsForMovie(1L);
+
+        assertEquals(4, stats.getCount());
+        assertEquals(5.0, stats.getMean(), 0.001);
+        assertEquals(Math.sqrt(9.0), stats.getStandardDeviation(), 0.001);
+        assertEquals(4, stats.getMedian());
+        assertEquals(10, stats.getP90());
+        assertEquals(Rating.MAX_SCORE - Rating.MIN_SCORE + 1, stats.getHistogram().size());
+        assertEquals(2L, stats.getHistogram().get(4));
+        assertEquals(0L, stats.getHistogram().get(5));
+        verify(repo, never()).findByMovieId(anyLong());
+    }
+
+    @Test
+    void statsForMovie_skipsScoresOutsideTheRange() {
+        when(aggregateRepo.findHistogram(1L)).thenReturn(List.of(
+                new Object[] {0, 3L}, new Object[] {6, 2L}, new Object[] {11, 1L}));
+
+        MovieStatsDTO stats = service.statsForMovie(1L);
+
+        assertEquals(2, stats.getCount());
+        assertEquals(6.0, stats.getMean(), 0.001);
+        assertEquals(Rating.MAX_SCORE - Rating.MIN_SCORE + 1, stats.getHistogram().size());
+    }
+
+    @Test
+    void statsForMovie_noRatings() {
+        when(aggregateRepo.findHistogram(99L)).thenReturn(List.of());
+
+        MovieStatsDTO stats = service.statsForMovie(99L);
+
+        assertEquals(0, stats.getCount());
+        assertEquals(0.0, stats.getMean());
+        assertNull(stats.getMedian());
+        assertNull(stats.getP90());
+    }
+
+    @Test
+    void percentile_usesNearestRank() {
+        long[] counts = new long[RatingService.HISTOGRAM_SIZE];
+        counts[0] = 9;
+        counts[9] = 1;
+        assertEquals(1, RatingService.percentile(counts, 10, 0.5));
+        assertEquals(1, RatingService.percentile(counts, 10, 0.9));
+        assertEquals(10, RatingService.percentile(counts, 10, 0.91));
+    }
+
     @Test
     void ratingsForMovie_returnsRatings() {
-        Rating r1 = new Rating(1L, 5, "Great");
-        r1.setId(10L);
-        Rating r2 = new Rating(1L, 4, "Good");
-        r2.setId(11L);
-        when(repo.findByMovieId(1L)).thenReturn(List.of(r1, r2));
+        when(repo.listByMovieId(1L)).thenReturn(List.of(
+                new RatingResponseDTO(10L, 1L, 5, "Great"),
+                new RatingResponseDTO(11L, 1L, 4, "Good")));
 
         List<RatingResponseDTO> ratings = service.ratingsForMovie(1L);
         assertEquals(2, ratings.size());
@@ -106,10 +382,81 @@ class RatingServiceTest {
 
     @Test
     void ratingsForMovie_emptyList() {
-        when(repo.findByMovieId(anyLong())).thenReturn(Collections.emptyList());
+        when(repo.listByMovieId(anyLong())).thenReturn(Collections.emptyList());
 
         List<RatingResponseDTO> ratings = service.ratingsForMovie(99L);
         assertEquals(0, ratings.size());
         assertTrue(ratings.isEmpty());
     }
+
+    @Test
+    void addRatings_savesValidRowsAndRejectsInvalidOnes() {
+        when(repo.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Rating> rows = invocation.getArgument(0);
+            long id = 100;
+            for (Rating r : rows) r.setId(id++);
+            return rows;
+        });
+
+        List<RatingBatchRowDTO> results = service.addRatings(List.of(
+                new RatingRequestDTO(1L, 4, "a"),
+                new RatingRequestDTO(null, 4, "no movie"),
+                new RatingRequestDTO(1L, 2, "b"),
+                new RatingRequestDTO(2L, 11, "too high")), 20);
+
+        assertEquals(4, results.size());
+        assertEquals(RatingBatchRowDTO.CREATED, results.get(0).getStatus());
+        assertEquals(100L, results.get(0).getId());
+        assertEquals(RatingBatchRowDTO.REJECTED, results.get(1).getStatus());
+        assertEquals(21, results.get(1).getIndex());
+        assertEquals(RatingBatchRowDTO.CREATED, results.get(2).getStatus());
+        assertEquals(101L, results.get(2).getId());
+        assertEquals(RatingBatchRowDTO.REJECTED, results.get(3).getStatus());
+        verify(aggregateRepo).increment(1L, 2, 6, 20);
+        verify(aggregateRepo, never()).increment(eq(2L), anyLong(), anyLong(), anyLong());
+        verify(aggregateRepo).incrementHistogram(1L, 4, 1);
+        verify(aggregateRepo).incrementHistogram(1L, 2, 1);
+    }
+
+    @Test
+    void addRatings_appendsSavedRowsToEnabledJournal() {
+        when(journal.isEnabled()).thenReturn(true);
+        when(repo.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        service.addRatings(List.of(new RatingRequestDTO(1L, 4, "a"), new RatingRequestDTO(2L, 3, null)), 0);
+
+        verify(journal).appendAll(argThat(rows -> rows.size() == 2));
+    }
+
+    @Test
+    void addBufferedRatings_settlesPendingOnceStatisticsArePublished() {
+        when(repo.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(aggregateRepo.findAllById(any())).thenReturn(List.of(new RatingAggregate(1L, 2, 9, 41)));
+        long[] seen = new long[1];
+
+        service.addBufferedRatings(List.of(new RatingRequestDTO(1L, 4, null), new RatingRequestDTO(1L, 5, null)),
+                () -> seen[0] = statisticsStore.totals(1L)[0]);
+
+        assertEquals(2, seen[0]);
+    }
+
+    @Test
+    void addRating_skipsDisabledJournal() {
+        Rating r = new Rating(1L, 4, "Good");
+        r.setId(10L);
+        when(repo.save(any(Rating.class))).thenReturn(r);
+
+        service.addRating(new RatingRequestDTO(1L, 4, "Good"));
+
+        verify(journal, never()).appendAll(any());
+    }
+
+    @Test
+    void validate_checksMovieAndScoreRange() {
+        assertNull(RatingService.validate(new RatingRequestDTO(1L, Rating.MIN_SCORE, null)));
+        assertNull(RatingService.validate(new RatingRequestDTO(1L, Rating.MAX_SCORE, null)));
+        assertNotNull(RatingService.validate(new RatingRequestDTO(1L, 0, null)));
+        assertNotNull(RatingService.validate(new RatingRequestDTO(null, 5, null)));
+        assertNotNull(RatingService.validate(null));
+    }
 }
@@ -0,0 +1,115 @@
+package com.example.movierating.service;
+
+import com.example.movierating.entity.RatingAggregate;
+import com.example.movierating.repository.RatingAggregateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RatingStatisticsStoreTest {
+    private RatingAggregateRepository aggregateRepo;
+    private RatingStatisticsStore store;
+
+    @BeforeEach
+    void setUp() {
+        aggregateRepo = Mockito.mock(RatingAggregateRepository.class);
+        store = new RatingStatisticsStore(aggregateRepo);
+    }
+
+    @Test
+    void warm_loadsAggregateTotals() {
+        when(aggregateRepo.streamTotals()).thenReturn(Stream.of(
+                new Object[] {1L, 2L, 9L, 41L},
+                new Object[] {2L, 1L, 4L, 16L}));
+
+        assertFalse(store.isWarm());
+        store.warm();
+
+        assertTrue(store.isWarm());
+        assertArrayEquals(new long[] {2, 9, 41}, store.totals(1L));
+        assertEquals(4.0, store.average(2L));
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    void warm_keepsServingPreviousTotalsUntilReloaded() {
+        store.record(1L, 2, 9, 41);
+        when(aggregateRepo.streamTotals()).thenReturn(Stream.of(
+                new Object[] {1L, 3L, 12L, 50L},
+                new Object[] {2L, 1L, 4L, 16L})
+                .peek(row -> {
+                    // Mid-reload: readers still see the old totals, and new commits are kept.
+                    assertArrayEquals(new long[] {2, 9, 41}, store.totals(1L));
+                    store.record(3L, 1, 7, 49);
+                }));
+
+        store.warm();
+
+        assertArrayEquals(new long[] {3, 12, 50}, store.totals(1L));
+        assertEquals(4.0, store.average(2L));
+        assertEquals(7.0, store.average(3L));
+    }
+
+    @Test
+    void totals_unknownMovieIsZero() {
+        assertArrayEquals(new long[3], store.totals(42L));
+        assertEquals(0.0, store.average(42L));
+    }
+
+    @Test
+    void record_ignoresStaleTotals() {
+        store.record(1L, 5, 40, 330);
+        store.record(1L, 4, 30, 240);
+
+        assertArrayEquals(new long[] {5, 40, 330}, store.totals(1L));
+    }
+
+    @Test
+    void record_growsPastInitialCapacity() {
+        for (long id = 0; id < 100_000; id++) store.record(id, 1, id % 10 + 1, 1);
+
+        assertEquals(100_000, store.size());
+        for (long id = 0; id < 100_000; id++) assertEquals(id % 10 + 1, store.totals(id)[1]);
+        assertTrue(store.footprintBytes() < 100_000 * 4L * Long.BYTES * 3);
+    }
+
+    @Test
+    void record_appliesAggregate() {
+        store.record(new RatingAggregate(7L, 3, 21, 150));
+
+        assertEquals(7.0, store.average(7L));
+    }
+
+    @Test
+    void concurrentWritersAndReaders_keepLatestTotals() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                tasks.add(executor.submit(() -> {
+                    for (long count = 1; count <= 1000; count++) {
+                        for (long id = 0; id < 50; id++) {
+                            store.record(id, count, count * 2, count * 4);
+                            long[] totals = store.totals(id);
+                            assertEquals(totals[0] * 2, totals[1]);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> task : tasks) task.get();
+        } finally {
+            executor.shutdown();
+        }
+        for (long id = 0; id < 50; id++) assertArrayEquals(new long[] {1000, 2000, 4000}, store.totals(id));
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.movierating.service;
+
+import com.example.movierating.config.CacheConfig;
+import com.example.movierating.dto.RatingRequestDTO;
+import com.example.movierating.exception.InvalidRatingException;
+import com.example.movierating.exception.RatingBufferFullException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.TransactionSystemException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class RatingWriteBehindBufferTest {
+    private RatingService ratingService;
+    private PendingRatings pendingRatings;
+    private ConcurrentMapCacheManager cacheManager;
+    private SimpleMeterRegistry registry;
+    private List<RatingRequestDTO> written;
+    private RatingWriteBehindBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        ratingService = Mockito.mock(RatingService.class);
+        pendingRatings = new PendingRatings();
+        cacheManager = new ConcurrentMapCacheManager(CacheConfig.MOVIE_AVERAGES);
+        registry = new SimpleMeterRegistry();
+        written = Collections.synchronizedList(new ArrayList<>());
+        when(ratingService.addBufferedRatings(anyList(), any())).thenAnswer(invocation -> {
+            written.addAll(invocation.getArgument(0));
+            invocation.<Runnable>getArgument(1).run();
+            return List.of();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (buffer != null) buffer.stop();
+    }
+
+    @Test
+    void stop_drainsEverySubmittedRating() {
+        buffer = new RatingWriteBehindBuffer(ratingService, pendingRatings, new ContentVersions(), cacheManager, registry, true, 1000, 7, 50);
+        buffer.start();
+        for (int i = 0; i < 100; i++) buffer.submit(new RatingRequestDTO(1L + i % 3, 5, null));
+
+        buffer.stop();
+
+        assertEquals(100, written.size());
+        assertEquals(0, buffer.size());
+        assertEquals(0, pendingRatings.totals(1L)[0]);
+        verify(ratingService, atLeast(15)).addBufferedRatings(anyList(), any());
+    }
+
+    @Test
+    void submit_rejectsWhenFull() {
+        buffer = new RatingWriteBehindBuffer(ratingService, pendingRatings, new ContentVersions(), cacheManager, registry, true, 2, 100, 60_000);
+        buffer.start();
+        buffer.submit(new RatingRequestDTO(1L, 5, null));
+        buffer.submit(new RatingRequestDTO(1L, 6, null));
+
+        assertThrows(RatingBufferFullException.class, () -> buffer.submit(new RatingRequestDTO(1L, 7, null)));
+        assertArrayEquals(new long[] {2, 11}, pendingRatings.totals(1L));
+    }
+
+    @Test
+    void submit_rejectsInvalidRatingAndStoppedBuffer() {
+        buffer = new RatingWriteBehindBuffer(ratingService, pendingRatings, new ContentVersions(), cacheManager, registry, true, 10, 10, 5);
+
+        assertThrows(InvalidRatingException.class, () -> buffer.submit(new RatingRequestDTO(1L, 42, null)));
+        assertThrows(RatingBufferFullException.class, () -> buffer.submit(new RatingRequestDTO(1L, 5, null)));
+    }
+
+    @Test
+    void submit_evictsCachedAverage() {
+        buffer = new RatingWriteBehindBuffer(ratingService, pendingRatings, new ContentVersions(), cacheManager, registry, true, 10, 10, 60_000);
+        buffer.start();
+        cacheManager.getCache(CacheConfig.MOVIE_AVERAGES).put(1L, 3.0);
+
+        buffer.submit(new RatingRequestDTO(1L, 5, null));
+
+        assertNull(cacheManager.getCache(CacheConfig.MOVIE_AVERAGES).get(1L));
+    }
+
+    @Test
+    void flush_settlesPendingEvenWhenWriteFails() {
+        buffer = new RatingWriteBehindBuffer(ratingService, pendingRatings, new ContentVersions(), cacheManager, registry, true, 10, 10, 5);
+        doThrow(new DataAccessResourceFailureException("down")).when(ratingService).addBufferedRatings(anyList(), any());
+        pendingRatings.add(1L, 5);
+
+        buffer.flush(List.of(new RatingRequestDTO(1L, 5, null)));
+
+        assertEquals(0, pendingRatings.totals(1L)[0]);
+        assertEquals(1, registry.counter("ratings.write-behind.dropped").count());
+        verify(ratingService, times(3)).addBufferedRatings(anyList(), any());
+    }
+
+    @Test
+    void flush_settlesOnceWhenFailingAfterCommit() {
+        buffer = new RatingWriteBehindBuffer(ratingService, pendingRatings, new ContentVersions(), cacheManager, registry, true, 10, 10, 5);
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+            throw new TransactionSystemException("after commit");
+        }).when(ratingService).addBufferedRatings(anyList(), any());
+        pendingRatings.add(1L, 5);
+        pendingRatings.add(1L, 7);
+
+        buffer.flush(List.of(new RatingRequestDTO(1L, 5, null)));
+
+        assertArrayEquals(new long[] {1, 7}, pendingRatings.totals(1L));
+        verify(ratingService, times(1)).addBufferedRatings(anyList(), any());
+    }
+
+    @Test
+    void flush_retriesTransientFailure() {
+        buffer = new RatingWriteBehindBuffer(ratingService, pendingRatings, new ContentVersions(), cacheManager, registry, true, 10, 10, 5);
+        doThrow(new DataAccessResourceFailureException("down"))
+                .doAnswer(invocation -> {
+                    written.addAll(invocation.getArgument(0));
+                    invocation.<Runnable>getArgument(1).run();
+                    return List.of();
+                })
+                .when(ratingService).addBufferedRatings(anyList(), any());
+        pendingRatings.add(1L, 5);
+        pendingRatings.add(2L, 6);
+
+        buffer.flush(List.of(new RatingRequestDTO(1L, 5, null), new RatingRequestDTO(2L, 6, null)));
+
+        assertEquals(2, written.size());
+        assertEquals(0, pendingRatings.totals(1L)[0]);
+        assertEquals(0, pendingRatings.totals(2L)[0]);
+        assertEquals(0, registry.counter("ratings.write-behind.dropped").count());
+    }
+
+    @Test
+    void flush_writesRowByRowAndDropsOnlyTheFailingRow() {
+        buffer = new RatingWriteBehindBuffer(ratingService, pendingRatings, new ContentVersions(), cacheManager, registry, true, 10, 10, 5);
+        doAnswer(invocation -> {
+            List<RatingRequestDTO> rows = invocation.getArgument(0);
+            if (rows.stream().anyMatch(r -> r.getMovieId() == 2L)) throw new DataAccessResourceFailureException("bad row");
+            written.addAll(rows);
+            invocation.<Runnable>getArgument(1).run();
+            return List.of();
+        }).when(ratingService).addBufferedRatings(anyList(), any());
+        pendingRatings.add(1L, 5);
+        pendingRatings.add(2L, 6);
+        pendingRatings.add(3L, 7);
+
+        buffer.flush(List.of(new RatingRequestDTO(1L, 5, null), new RatingRequestDTO(2L, 6, null),
+                new RatingRequestDTO(3L, 7, null)));
+
+        assertEquals(List.of(1L, 3L), written.stream().map(RatingRequestDTO::getMovieId).toList());
+        assertEquals(0, pendingRatings.totals(2L)[0]);
+        assertEquals(1, registry.counter("ratings.write-behind.dropped").count());
+    }
+
+    @Test
+    void writer_keepsRunningAfterAnyFailure() {
+        buffer = new RatingWriteBehindBuffer(ratingService, pendingRatings, new ContentVersions(), cacheManager, registry, true, 1000, 1, 5);
+        doThrow(new TransactionSystemException("commit failed"))
+                .doAnswer(invocation -> {
+                    written.addAll(invocation.getArgument(0));
+                    invocation.<Runnable>getArgument(1).run();
+                    return List.of();
+                })
+                .when(ratingService).addBufferedRatings(anyList(), any());
+        buffer.start();
+        buffer.submit(new RatingRequestDTO(1L, 5, null));
+        buffer.submit(new RatingRequestDTO(1L, 6, null));
+
+        buffer.stop();
+
+        assertEquals(2, written.size());
+        assertEquals(0, pendingRatings.totals(1L)[0]);
+    }
+
+    @Test
+    void start_doesNothingWhenDisabled() {
+        buffer = new RatingWriteBehindBuffer(ratingService, pendingRatings, new ContentVersions(), cacheManager, registry, false, 10, 10, 5);
+        buffer.start();
+
+        assertFalse(buffer.isRunning());
+        assertFalse(buffer.isEnabled());
+    }
+}
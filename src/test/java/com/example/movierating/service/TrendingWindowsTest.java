@@ -0,0 +1,133 @@
+package com.example.movierating.service;
+
+import com.example.movierating.dto.MovieResponseDTO;
+import com.example.movierating.dto.TrendingMovieDTO;
+import com.example.movierating.entity.Rating;
+import com.example.movierating.exception.InvalidWindowException;
+import com.example.movierating.repository.MovieRepository;
+import com.example.movierating.repository.RatingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+class TrendingWindowsTest {
+    private static final long NOW = 1_700_000_000_000L;
+    private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+    private MovieRepository movieRepo;
+    private RatingRepository ratingRepo;
+    private TrendingWindows trending;
+
+    @BeforeEach
+    void setUp() {
+        movieRepo = Mockito.mock(MovieRepository.class);
+        ratingRepo = Mockito.mock(RatingRepository.class);
+        when(movieRepo.findAllByIds(any())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().map(id -> new MovieResponseDTO(id, "Movie " + id, 2000)).toList();
+        });
+        trending = new TrendingWindows(movieRepo, ratingRepo);
+    }
+
+    private static List<Long> ids(List<TrendingMovieDTO> movies) {
+        return movies.stream().map(TrendingMovieDTO::getId).toList();
+    }
+
+    @Test
+    void trending_ranksByCountThenId() {
+        trending.record(1, 3L, NOW, NOW);
+        trending.record(2, 2L, NOW, NOW);
+        trending.record(3, 2L, NOW, NOW);
+        trending.record(4, 1L, NOW, NOW);
+        trending.record(5, 1L, NOW, NOW);
+
+        List<TrendingMovieDTO> top = trending.trending(TrendingWindows.HOUR, 10, NOW);
+
+        assertEquals(List.of(1L, 2L, 3L), ids(top));
+        assertEquals(2, top.get(0).getRatingCount());
+        assertEquals("Movie 1", top.get(0).getTitle());
+        assertEquals(List.of(1L), ids(trending.trending(TrendingWindows.HOUR, 1, NOW)));
+    }
+
+    @Test
+    void trending_ranksMoviesSpreadOverStripesWithALimit() {
+        long ratingId = 0;
+        for (long movieId = 1; movieId <= 40; movieId++) {
+            for (long i = 0; i < movieId % 7; i++) trending.record(++ratingId, movieId, NOW, NOW);
+        }
+
+        assertEquals(List.of(6L, 13L, 20L, 27L, 34L), ids(trending.trending(TrendingWindows.HOUR, 5, NOW)));
+    }
+
+    @Test
+    void trending_dropsRatingsOnceTheyLeaveTheWindow() {
+        trending.record(1, 1L, NOW - 2 * HOUR, NOW);
+        trending.record(2, 2L, NOW - 10 * MINUTE, NOW);
+        trending.record(3, 3L, NOW - 3 * DAY, NOW);
+
+        assertEquals(List.of(2L), ids(trending.trending(TrendingWindows.HOUR, null, NOW)));
+        assertEquals(List.of(1L, 2L), ids(trending.trending(TrendingWindows.DAY, null, NOW)));
+        assertEquals(List.of(1L, 2L, 3L), ids(trending.trending(TrendingWindows.WEEK, null, NOW)));
+
+        assertEquals(List.of(), ids(trending.trending(TrendingWindows.HOUR, null, NOW + HOUR)));
+        assertEquals(List.of(1L, 2L), ids(trending.trending(TrendingWindows.WEEK, null, NOW + 5 * DAY)));
+        assertEquals(List.of(), ids(trending.trending(TrendingWindows.WEEK, null, NOW + 30 * DAY)));
+    }
+
+    @Test
+    void trending_defaultsToDayAndRejectsUnknownWindows() {
+        trending.record(1, 1L, NOW - 2 * HOUR, NOW);
+
+        assertEquals(List.of(1L), ids(trending.trending(null, null, NOW)));
+        assertThrows(InvalidWindowException.class, () -> trending.trending("30d", null, NOW));
+    }
+
+    @Test
+    void recordAfterCommit_skipsRatingsWithoutCreationTime() {
+        Rating stamped = new Rating(1L, 5, null);
+        stamped.setId(1L);
+        Rating unstamped = new Rating(2L, 5, null);
+        unstamped.setId(2L);
+        unstamped.setCreatedAt(null);
+
+        trending.recordAfterCommit(List.of(stamped, unstamped));
+
+        assertEquals(List.of(1L), ids(trending.trending(TrendingWindows.HOUR, null)));
+    }
+
+    @Test
+    void rebuild_countsRatingsCommittedDuringTheStreamOnce() {
+        Instant recent = Instant.ofEpochMilli(NOW - HOUR / 2);
+        when(ratingRepo.streamCreatedSince(any())).thenReturn(Stream.of(
+                new Object[] {1L, 1L, recent},
+                new Object[] {2L, 2L, recent},
+                new Object[] {3L, 3L, Instant.ofEpochMilli(NOW - 2 * DAY)})
+                .peek(row -> {
+                    // Rating 2 commits while the stream is open and shows up in it too; rating 4 does not.
+                    if ((Long) row[0] == 1L) {
+                        trending.record(2, 2L, recent.toEpochMilli(), NOW);
+                        trending.record(4, 2L, NOW, NOW);
+                    }
+                }));
+        trending.record(9, 9L, NOW, NOW);
+
+        trending.rebuild(NOW);
+
+        List<TrendingMovieDTO> week = trending.trending(TrendingWindows.WEEK, null, NOW);
+        assertEquals(List.of(2L, 1L, 3L), ids(week));
+        assertEquals(2, week.get(0).getRatingCount());
+        assertEquals(List.of(2L, 1L), ids(trending.trending(TrendingWindows.HOUR, null, NOW)));
+    }
+}